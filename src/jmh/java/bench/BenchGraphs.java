@@ -0,0 +1,74 @@
+package bench;
+
+import graph.core.Graph;
+import utils.GraphReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Resolves benchmark dataset names: {@code small_dag} etc. load {@code data/<name>.json};
+ * {@code rand-1e6} is a random digraph and {@code dag-1e6} a random DAG with that many edges.
+ */
+final class BenchGraphs {
+
+    private static final long SEED = 20240303L;
+
+    private BenchGraphs() {}
+
+    static Graph load(String spec) throws IOException {
+        if (spec.startsWith("rand-")) return random(edges(spec), false);
+        if (spec.startsWith("dag-")) return random(edges(spec), true);
+        return GraphReader.fromJsonFile(dataFile(spec));
+    }
+
+    static Path dataFile(String name) {
+        return Path.of("data", name + ".json");
+    }
+
+    /** Parallel edge arrays {u, v, w} for the synthetic specs. */
+    static int[][] edgeArrays(String spec) {
+        int m = edges(spec);
+        boolean acyclic = spec.startsWith("dag-");
+        int n = Math.max(2, m / 4);
+        int[] us = new int[m], vs = new int[m], ws = new int[m];
+        SplittableRandom rnd = new SplittableRandom(SEED);
+        for (int i = 0; i < m; i++) {
+            int u = rnd.nextInt(n - 1);
+            // DAG edges jump forward a short distance so the graph gets real depth.
+            int v = acyclic ? u + 1 + rnd.nextInt(Math.min(n - u - 1, 64)) : rnd.nextInt(n);
+            us[i] = u; vs[i] = v; ws[i] = 1 + rnd.nextInt(100);
+        }
+        return new int[][]{us, vs, ws};
+    }
+
+    /** Writes {@code g} in the data/*.json schema, one edge object per line. */
+    static void writeJson(Graph g, Path path) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            w.write("{\"directed\":" + g.isDirected() + ",\"n\":" + g.n()
+                    + (g.source() != null ? ",\"source\":" + g.source() : "")
+                    + ",\"weight_model\":\"" + g.weightModel() + "\",\"edges\":[");
+            String sep = "\n";
+            for (int u = 0; u < g.n(); u++) {
+                for (int i = g.out().begin(u), end = g.out().end(u); i < end; i++) {
+                    w.write(sep + "{\"u\":" + u + ",\"v\":" + g.out().target(i) + ",\"w\":" + g.out().weight(i) + "}");
+                    sep = ",\n";
+                }
+            }
+            w.write("\n]}\n");
+        }
+    }
+
+    private static Graph random(int m, boolean acyclic) {
+        int[][] e = edgeArrays(acyclic ? "dag-" + m : "rand-" + m);
+        return Graph.fromEdgeArrays(true, Math.max(2, m / 4), e[0], e[1], e[2], m, 0, "edge");
+    }
+
+    private static int edges(String spec) {
+        return (int) Double.parseDouble(spec.substring(spec.indexOf('-') + 1));
+    }
+}
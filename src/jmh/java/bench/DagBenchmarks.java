@@ -0,0 +1,49 @@
+package bench;
+
+import graph.core.Graph;
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.DagShortestPaths;
+import graph.topo.TopologicalSort;
+import org.openjdk.jmh.annotations.*;
+import utils.Metrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class DagBenchmarks {
+
+    @Param({"small_dag", "medium_dag", "large_dag", "dag-1e5", "dag-1e6", "dag-1e7"})
+    public String dataset;
+
+    private Graph g;
+    private List<Integer> order;
+    private int source;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        g = BenchGraphs.load(dataset);
+        order = new TopologicalSort(g, Metrics.NOOP).run();
+        source = g.source() != null ? g.source() : 0;
+    }
+
+    @Benchmark
+    public List<Integer> topologicalSort() {
+        return new TopologicalSort(g, Metrics.NOOP).run();
+    }
+
+    @Benchmark
+    public DagShortestPaths.Result shortestPaths() {
+        return new DagShortestPaths(g, Metrics.NOOP).run(order, source);
+    }
+
+    @Benchmark
+    public DagLongestPath.Result longestPath() {
+        return new DagLongestPath(g, Metrics.NOOP).run(order, source);
+    }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import graph.core.Adjacency;
+import graph.core.Graph;
+import org.openjdk.jmh.annotations.*;
+import utils.BinaryGraphFormat;
+import utils.GraphReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class LoadBenchmarks {
+
+    @Param({"small_dag", "medium_multi_scc", "large_multi_scc", "rand-1e5", "rand-1e6", "rand-1e7"})
+    public String dataset;
+
+    private Path json;
+    private Path binary;
+    private int[][] edges;
+    private int n;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        Graph g = BenchGraphs.load(dataset);
+        n = g.n();
+        binary = Files.createTempFile("bench-" + dataset, BinaryGraphFormat.EXTENSION);
+        BinaryGraphFormat.write(g, binary);
+        if (dataset.startsWith("rand-")) {
+            edges = BenchGraphs.edgeArrays(dataset);
+            json = Files.createTempFile("bench-" + dataset, ".json");
+            BenchGraphs.writeJson(g, json);
+        } else {
+            json = BenchGraphs.dataFile(dataset);
+            edges = new int[][]{new int[g.m()], new int[g.m()], new int[g.m()]};
+            int k = 0;
+            for (int u = 0; u < n; u++) {
+                for (int i = g.out().begin(u); i < g.out().end(u); i++, k++) {
+                    edges[0][k] = u; edges[1][k] = g.out().target(i); edges[2][k] = g.out().weight(i);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(binary);
+        if (dataset.startsWith("rand-")) Files.deleteIfExists(json);
+    }
+
+    @Benchmark
+    public Graph readJson() throws Exception {
+        return GraphReader.fromJsonFile(json);
+    }
+
+    @Benchmark
+    public Graph mapBinary() throws Exception {
+        return GraphReader.fromBinaryFile(binary);
+    }
+
+    @Benchmark
+    public Graph buildCsr() {
+        return Graph.fromEdgeArrays(true, n, edges[0], edges[1], edges[2], edges[0].length, 0, "edge");
+    }
+
+    @Benchmark
+    public Adjacency buildCsrWithTranspose() {
+        return buildCsr().in();
+    }
+}
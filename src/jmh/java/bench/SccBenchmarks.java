@@ -0,0 +1,45 @@
+package bench;
+
+import graph.core.Graph;
+import graph.scc.CondensationGraph;
+import graph.scc.SCCMode;
+import graph.scc.SCCResult;
+import org.openjdk.jmh.annotations.*;
+import utils.Metrics;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class SccBenchmarks {
+
+    @Param({"small_multi_scc", "medium_multi_scc", "large_multi_scc", "large_cyclic", "rand-1e5", "rand-1e6", "rand-1e7"})
+    public String dataset;
+
+    @Param({"KOSARAJU", "TARJAN", "PARALLEL"})
+    public SCCMode mode;
+
+    private Graph g;
+    private SCCResult scc;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        g = BenchGraphs.load(dataset);
+        g.in();
+        scc = mode.create(g, Metrics.NOOP).run();
+    }
+
+    @Benchmark
+    public SCCResult scc() {
+        return mode.create(g, Metrics.NOOP).run();
+    }
+
+    @Benchmark
+    public Graph condensation() {
+        return new CondensationGraph(g, scc).buildCondensedGraph();
+    }
+}
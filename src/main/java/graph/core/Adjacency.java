@@ -0,0 +1,22 @@
+package graph.core;
+
+/**
+ * Index-based view of one direction of a graph's edges.
+ * Neighbors of {@code u} occupy the edge slots {@code [begin(u), end(u))}.
+ */
+public interface Adjacency {
+    int vertexCount();
+    int edgeCount();
+
+    int begin(int u);
+    int end(int u);
+    int target(int i);
+    int weight(int i);
+
+    default int degree(int u) { return end(u) - begin(u); }
+
+    /** Sequential reader; this default walks the slots, positions are slot indices. */
+    default EdgeCursor cursor() {
+        return new SlotCursor(this);
+    }
+}
@@ -0,0 +1,269 @@
+package graph.core;
+
+import java.util.Arrays;
+
+/**
+ * Read-only adjacency that stores each neighbor list sorted by target and gap-encoded as
+ * unsigned LEB128 varints, so local or dense lists take one or two bytes per target instead of
+ * four. Weights are stored as varint offsets from the smallest weight, and not at all when every
+ * weight is equal (unit and other uniform models).
+ * <p>
+ * {@link #cursor()} decodes sequentially and is what traversals should use. Slot access
+ * ({@link #target(int)}, {@link #weight(int)}) still works for code that needs it, but it costs
+ * a binary search plus up to {@value #SYNC} varint decodes from the nearest sync point, so it is
+ * much slower than with {@link CsrAdjacency}.
+ * <p>
+ * Neighbor lists are reordered by target (ties keep their original order), so traversal order,
+ * and with it DFS-dependent numbering or Kahn's tie order, can differ from the uncompressed graph.
+ */
+public final class CompressedAdjacency implements Adjacency {
+
+    private static final int SYNC_SHIFT = 5;
+    private static final int SYNC = 1 << SYNC_SHIFT;
+    private static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+
+    private final int[] slotOffsets;   // n + 1, same meaning as CSR offsets
+    private final int[] byteOffsets;   // n + 1, start of each list in data
+    private final byte[] data;
+    private final int[] syncByte;      // byte position of slot k * SYNC
+    private final int[] syncPrev;      // target preceding that slot in its list, 0 at a list start
+    private final boolean uniform;
+    private final int minWeight;
+
+    private CompressedAdjacency(int[] slotOffsets, int[] byteOffsets, byte[] data, int[] syncByte, int[] syncPrev,
+                                boolean uniform, int minWeight) {
+        this.slotOffsets = slotOffsets;
+        this.byteOffsets = byteOffsets;
+        this.data = data;
+        this.syncByte = syncByte;
+        this.syncPrev = syncPrev;
+        this.uniform = uniform;
+        this.minWeight = minWeight;
+    }
+
+    /**
+     * Copy of {@code g} with compressed out-lists. Only {@code g.out()} is encoded here; the transpose of a
+     * directed graph is built on first use of {@link Graph#in()}, decoded from the compressed lists.
+     * {@code g} itself must be fully built first, so compression lowers the memory a graph holds once
+     * loaded, not the peak while loading it (unless {@code g} is memory-mapped from a .gbin file).
+     */
+    public static Graph compress(Graph g) {
+        CompressedAdjacency out = of(g.out());
+        return new Graph(g.isDirected(), g.n(), g.m(), out, null, g.source(), g.weightModel());
+    }
+
+    public static CompressedAdjacency of(Adjacency adj) {
+        int n = adj.vertexCount();
+        int m = adj.edgeCount();
+        int minW = Integer.MAX_VALUE, maxW = Integer.MIN_VALUE, maxDeg = 0;
+        for (int u = 0; u < n; u++) {
+            maxDeg = Math.max(maxDeg, adj.degree(u));
+            for (int i = adj.begin(u), end = adj.end(u); i < end; i++) {
+                minW = Math.min(minW, adj.weight(i));
+                maxW = Math.max(maxW, adj.weight(i));
+            }
+        }
+        Encoder enc = new Encoder(n, m, m == 0 || minW == maxW, m == 0 ? 0 : minW);
+
+        // Sort each list by target; the low half keeps the original slot for stability and the weight.
+        long[] keys = new long[maxDeg];
+        for (int u = 0; u < n; u++) {
+            int begin = adj.begin(u), deg = adj.degree(u);
+            for (int k = 0; k < deg; k++) keys[k] = ((long) adj.target(begin + k) << 32) | k;
+            Arrays.sort(keys, 0, deg);
+            enc.startList(u);
+            for (int k = 0; k < deg; k++) {
+                int slot = begin + (int) keys[k];
+                enc.edge((int) (keys[k] >>> 32), adj.weight(slot));
+            }
+        }
+        return enc.finish();
+    }
+
+    /** Compressed transpose, decoded sequentially; the lists come out sorted by source. */
+    public CompressedAdjacency transpose() {
+        int n = vertexCount();
+        int m = edgeCount();
+        int[] off = new int[n + 1];
+        EdgeCursor c = cursor();
+        for (int u = 0; u < n; u++) {
+            c.reset(u);
+            while (c.next()) off[c.target() + 1]++;
+        }
+        for (int v = 0; v < n; v++) off[v + 1] += off[v];
+        int[] pos = Arrays.copyOf(off, n);
+        int[] from = new int[m];
+        int[] wt = uniform ? null : new int[m];
+        for (int u = 0; u < n; u++) {
+            c.reset(u);
+            while (c.next()) {
+                int p = pos[c.target()]++;
+                from[p] = u;
+                if (wt != null) wt[p] = c.weight();
+            }
+        }
+        Encoder enc = new Encoder(n, m, uniform, minWeight);
+        for (int v = 0; v < n; v++) {
+            enc.startList(v);
+            for (int p = off[v]; p < off[v + 1]; p++) enc.edge(from[p], wt == null ? minWeight : wt[p]);
+        }
+        return enc.finish();
+    }
+
+    /** Bytes held by the encoded lists and their indexes. */
+    public long bytes() {
+        return data.length + 4L * (slotOffsets.length + byteOffsets.length + syncByte.length + syncPrev.length);
+    }
+
+    @Override public int vertexCount() { return slotOffsets.length - 1; }
+    @Override public int edgeCount() { return slotOffsets[slotOffsets.length - 1]; }
+    @Override public int begin(int u) { return slotOffsets[u]; }
+    @Override public int end(int u) { return slotOffsets[u + 1]; }
+
+    @Override
+    public int target(int i) {
+        Cursor c = seek(i);
+        return c.target;
+    }
+
+    @Override
+    public int weight(int i) {
+        return uniform ? minWeight : seek(i).weight;
+    }
+
+    @Override
+    public EdgeCursor cursor() {
+        return new Cursor();
+    }
+
+    /** Decodes slot {@code i} starting from its list head or the nearest sync point inside its list. */
+    private Cursor seek(int i) {
+        if (i < 0 || i >= edgeCount()) throw new IndexOutOfBoundsException("slot " + i + " out of range [0, " + edgeCount() + ")");
+        int u = vertexOfSlot(i);
+        int sync = i >>> SYNC_SHIFT;
+        int slot = sync << SYNC_SHIFT;
+        Cursor c = new Cursor();
+        if (slot >= slotOffsets[u]) {
+            c.resume(u, ((long) syncByte[sync] << 32) | syncPrev[sync]);
+        } else {
+            c.reset(u);
+            slot = slotOffsets[u];
+        }
+        for (; slot <= i; slot++) c.next();
+        return c;
+    }
+
+    private int vertexOfSlot(int i) {
+        // Last u with slotOffsets[u] <= i; empty lists share an offset with their successor.
+        int lo = 0, hi = slotOffsets.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (slotOffsets[mid] <= i) lo = mid; else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private final class Cursor implements EdgeCursor {
+        int pos, end, prev;
+        int target, weight = minWeight;
+
+        @Override
+        public void reset(int u) {
+            pos = byteOffsets[u];
+            end = byteOffsets[u + 1];
+            prev = 0;
+        }
+
+        @Override
+        public boolean next() {
+            if (pos >= end) return false;
+            byte[] d = data;
+            int b = d[pos++];
+            int gap = b & 0x7f;
+            for (int shift = 7; b < 0; shift += 7) {
+                b = d[pos++];
+                gap |= (b & 0x7f) << shift;
+            }
+            target = prev += gap;
+            if (!uniform) {
+                b = d[pos++];
+                long w = b & 0x7f;
+                for (int shift = 7; b < 0; shift += 7) {
+                    b = d[pos++];
+                    w |= (long) (b & 0x7f) << shift;
+                }
+                weight = (int) (minWeight + w);
+            }
+            return true;
+        }
+
+        @Override public int target() { return target; }
+        @Override public int weight() { return weight; }
+        @Override public long position() { return ((long) pos << 32) | prev; }
+
+        @Override
+        public void resume(int u, long position) {
+            pos = (int) (position >>> 32);
+            prev = (int) position;
+            end = byteOffsets[u + 1];
+        }
+    }
+
+    /** Appends lists in vertex order; each list's targets must be non-decreasing. */
+    private static final class Encoder {
+        final int[] slotOffsets, byteOffsets, syncByte, syncPrev;
+        final boolean uniform;
+        final int minWeight;
+        byte[] data;
+        int size, slot, prev, vertex = -1;
+
+        Encoder(int n, int m, boolean uniform, int minWeight) {
+            this.slotOffsets = new int[n + 1];
+            this.byteOffsets = new int[n + 1];
+            int syncs = (m + SYNC - 1) >>> SYNC_SHIFT;
+            this.syncByte = new int[syncs];
+            this.syncPrev = new int[syncs];
+            this.uniform = uniform;
+            this.minWeight = minWeight;
+            this.data = new byte[(int) Math.min(MAX_BYTES, Math.max(16L, 2L * m))];
+        }
+
+        void startList(int u) {
+            for (int v = vertex + 1; v <= u; v++) {
+                slotOffsets[v] = slot;
+                byteOffsets[v] = size;
+            }
+            vertex = u;
+            prev = 0;
+        }
+
+        void edge(int target, int w) {
+            if ((slot & (SYNC - 1)) == 0) {
+                syncByte[slot >>> SYNC_SHIFT] = size;
+                syncPrev[slot >>> SYNC_SHIFT] = prev;
+            }
+            put(target - prev);
+            prev = target;
+            if (!uniform) put((long) w - minWeight);
+            slot++;
+        }
+
+        private void put(long x) {
+            if (size + 10 > data.length) {
+                if (data.length >= MAX_BYTES) throw new IllegalArgumentException("compressed adjacency exceeds 2 GiB");
+                data = Arrays.copyOf(data, (int) Math.min(MAX_BYTES, 2L * data.length));
+            }
+            while ((x & ~0x7fL) != 0) {
+                data[size++] = (byte) ((x & 0x7f) | 0x80);
+                x >>>= 7;
+            }
+            data[size++] = (byte) x;
+        }
+
+        CompressedAdjacency finish() {
+            startList(slotOffsets.length - 1);
+            return new CompressedAdjacency(slotOffsets, byteOffsets, Arrays.copyOf(data, size), syncByte, syncPrev,
+                    uniform, minWeight);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package graph.core;
+
+import java.util.Arrays;
+
+/**
+ * Compressed sparse row storage: {@code offsets} has n+1 entries and
+ * {@code targets}/{@code weights} hold one slot per edge.
+ */
+public final class CsrAdjacency implements Adjacency {
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    public CsrAdjacency(int[] offsets, int[] targets, int[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /** Builds CSR from the first {@code m} entries of parallel edge arrays (stable counting sort by source). */
+    public static CsrAdjacency fromEdges(int n, int[] src, int[] dst, int[] w, int m) {
+        int[] off = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            checkVertex(src[i], n);
+            checkVertex(dst[i], n);
+            off[src[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) off[u + 1] += off[u];
+
+        int[] pos = Arrays.copyOf(off, n);
+        int[] to = new int[m];
+        int[] wt = new int[m];
+        for (int i = 0; i < m; i++) {
+            int p = pos[src[i]]++;
+            to[p] = dst[i];
+            wt[p] = w[i];
+        }
+        return new CsrAdjacency(off, to, wt);
+    }
+
+    /** Slot-for-slot CSR copy of {@code adj}, read sequentially; {@code adj} itself if it is already CSR. */
+    public static CsrAdjacency copyOf(Adjacency adj) {
+        if (adj instanceof CsrAdjacency csr) return csr;
+        int n = adj.vertexCount();
+        int m = adj.edgeCount();
+        int[] off = new int[n + 1];
+        int[] to = new int[m];
+        int[] wt = new int[m];
+        EdgeCursor c = adj.cursor();
+        for (int u = 0; u < n; u++) {
+            int i = adj.begin(u);
+            off[u] = i;
+            c.reset(u);
+            while (c.next()) {
+                to[i] = c.target();
+                wt[i++] = c.weight();
+            }
+        }
+        off[n] = m;
+        return new CsrAdjacency(off, to, wt);
+    }
+
+    /** Reverses every edge; neighbor order within a row follows the source order. */
+    public CsrAdjacency transpose() {
+        int n = offsets.length - 1;
+        int m = targets.length;
+        int[] off = new int[n + 1];
+        for (int i = 0; i < m; i++) off[targets[i] + 1]++;
+        for (int v = 0; v < n; v++) off[v + 1] += off[v];
+
+        int[] pos = Arrays.copyOf(off, n);
+        int[] from = new int[m];
+        int[] wt = new int[m];
+        for (int u = 0; u < n; u++) {
+            for (int i = offsets[u], end = offsets[u + 1]; i < end; i++) {
+                int p = pos[targets[i]]++;
+                from[p] = u;
+                wt[p] = weights[i];
+            }
+        }
+        return new CsrAdjacency(off, from, wt);
+    }
+
+    private static void checkVertex(int v, int n) {
+        if (v < 0 || v >= n) throw new IndexOutOfBoundsException("vertex " + v + " out of range [0, " + n + ")");
+    }
+
+    @Override public int vertexCount() { return offsets.length - 1; }
+    @Override public int edgeCount() { return targets.length; }
+    @Override public int begin(int u) { return offsets[u]; }
+    @Override public int end(int u) { return offsets[u + 1]; }
+    @Override public int target(int i) { return targets[i]; }
+    @Override public int weight(int i) { return weights[i]; }
+
+    public int[] offsets() { return offsets; }
+    public int[] targets() { return targets; }
+    public int[] weights() { return weights; }
+}
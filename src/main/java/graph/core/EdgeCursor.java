@@ -0,0 +1,29 @@
+package graph.core;
+
+/**
+ * Sequential reader over one vertex's edges at a time, for storage that cannot serve random
+ * slot access cheaply. Obtain one per traversal from {@link Adjacency#cursor()}; a cursor is not
+ * thread-safe.
+ * <pre>
+ * cursor.reset(u);
+ * while (cursor.next()) visit(cursor.target(), cursor.weight());
+ * </pre>
+ * A DFS can park a vertex's scan with {@link #position()} and continue it later with
+ * {@link #resume(int, long)}.
+ */
+public interface EdgeCursor {
+    /** Positions the cursor before the first edge of {@code u}. */
+    void reset(int u);
+
+    /** Moves to the next edge of the current vertex; false once its list is exhausted. */
+    boolean next();
+
+    int target();
+    int weight();
+
+    /** Opaque state just after the current edge. */
+    long position();
+
+    /** Continues the scan of {@code u} from a value returned by {@link #position()}. */
+    void resume(int u, long position);
+}
@@ -4,45 +4,189 @@ import java.util.*;
 public class Graph {
     private final boolean directed;
     private final int n;
-    private final List<Edge> edges;
-    private final List<List<int[]>> adjOut;
-    private final List<List<int[]>> adjIn;
+    private final int m;
+    private final Adjacency out;
+    private volatile Adjacency in;
+    private volatile List<Edge> edges;
+    private volatile List<List<int[]>> adjOut;
+    private volatile List<List<int[]>> adjIn;
     private final Integer source;
     private final String weightModel;
 
     public Graph(boolean directed, int n, List<Edge> edges, Integer source, String weightModel) {
+        this(directed, n, toCsr(directed, n, edges), source, weightModel);
+    }
+
+    /** Wraps prebuilt outgoing storage; for undirected graphs {@code out} must already be symmetric. */
+    public Graph(boolean directed, int n, Adjacency out, Integer source, String weightModel) {
+        this(directed, n, directed ? out.edgeCount() : countUndirected(out), out, null, source, weightModel);
+    }
+
+    /**
+     * Wraps prebuilt storage with a known logical edge count {@code m}.
+     * {@code in} may be null, in which case the transpose is built on first use.
+     */
+    public Graph(boolean directed, int n, int m, Adjacency out, Adjacency in, Integer source, String weightModel) {
         this.directed = directed;
         this.n = n;
-        this.edges = Collections.unmodifiableList(new ArrayList<>(edges));
+        this.m = m;
+        this.out = out;
+        this.in = directed ? in : out;
         this.source = source;
         this.weightModel = weightModel;
+    }
+
+    public static Graph fromEdgeArrays(boolean directed, int n, int[] us, int[] vs, int[] ws, int m,
+                                       Integer source, String weightModel) {
+        return new Graph(directed, n, toCsr(directed, n, us, vs, ws, m), source, weightModel);
+    }
+
+    private static Adjacency toCsr(boolean directed, int n, List<Edge> edges) {
+        int m = edges.size();
+        int[] us = new int[m], vs = new int[m], ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            Edge e = edges.get(i);
+            us[i] = e.u; vs[i] = e.v; ws[i] = e.w;
+        }
+        return toCsr(directed, n, us, vs, ws, m);
+    }
+
+    private static Adjacency toCsr(boolean directed, int n, int[] us, int[] vs, int[] ws, int m) {
+        if (directed) return CsrAdjacency.fromEdges(n, us, vs, ws, m);
 
-        List<List<int[]>> out = new ArrayList<>(n);
-        List<List<int[]>> in  = new ArrayList<>(n);
-        for (int i = 0; i < n; i++) {
-            out.add(new ArrayList<>());
-            in.add(new ArrayList<>());
-        }
-        for (Edge e : edges) {
-            out.get(e.u).add(new int[]{e.v, e.w});
-            in.get(e.v).add(new int[]{e.u, e.w});
-            if (!directed) {
-                out.get(e.v).add(new int[]{e.u, e.w});
-                in.get(e.u).add(new int[]{e.v, e.w});
+        // Each edge is stored in both directions; a self-loop thus appears twice in its vertex's
+        // list (degree 2), as it did with the original adjacency lists.
+        int total = Math.multiplyExact(2, m);
+        int[] su = new int[total], sv = new int[total], sw = new int[total];
+        for (int i = 0, k = 0; i < m; i++, k += 2) {
+            su[k] = us[i]; sv[k] = vs[i]; sw[k] = ws[i];
+            su[k + 1] = vs[i]; sv[k + 1] = us[i]; sw[k + 1] = ws[i];
+        }
+        return CsrAdjacency.fromEdges(n, su, sv, sw, total);
+    }
+
+    private static int countUndirected(Adjacency adj) {
+        int count = 0, loops = 0;
+        EdgeCursor c = adj.cursor();
+        for (int u = 0; u < adj.vertexCount(); u++) {
+            c.reset(u);
+            while (c.next()) {
+                if (u < c.target()) count++;
+                else if (u == c.target()) loops++;
             }
         }
-        this.adjOut = Collections.unmodifiableList(out);
-        this.adjIn  = Collections.unmodifiableList(in);
+        return count + loops / 2;
     }
 
     public boolean isDirected() { return directed; }
     public int n() { return n; }
-    public List<Edge> edges() { return edges; }
-    public List<List<int[]>> adjOut() { return adjOut; }
-    public List<List<int[]>> adjIn() { return adjIn; }
+    public int m() { return m; }
     public Integer source() { return source; }
     public String weightModel() { return weightModel; }
 
-    public int outDegree(int u) { return adjOut.get(u).size(); }
-    public int inDegree(int v)  { return adjIn.get(v).size();  }
+    public Adjacency out() { return out; }
+
+    public Adjacency in() {
+        Adjacency a = in;
+        if (a == null) {
+            synchronized (this) {
+                a = in;
+                if (a == null) in = a = transposeOf(out);
+            }
+        }
+        return a;
+    }
+
+    private static Adjacency transposeOf(Adjacency adj) {
+        if (adj instanceof CsrAdjacency csr) return csr.transpose();
+        if (adj instanceof CompressedAdjacency packed) return packed.transpose();
+        int n = adj.vertexCount();
+        int m = adj.edgeCount();
+        int[] us = new int[m], vs = new int[m], ws = new int[m];
+        int k = 0;
+        EdgeCursor c = adj.cursor();
+        for (int u = 0; u < n; u++) {
+            c.reset(u);
+            while (c.next()) {
+                us[k] = c.target(); vs[k] = u; ws[k] = c.weight(); k++;
+            }
+        }
+        return CsrAdjacency.fromEdges(n, us, vs, ws, m);
+    }
+
+    public int outDegree(int u) { return out.degree(u); }
+    public int inDegree(int v)  { return in().degree(v); }
+
+    /**
+     * Edge list rebuilt from the adjacency on first use. It is grouped by source vertex, not in the
+     * order the edges were given: within a vertex, edges keep their input order. An undirected edge
+     * is listed once, from its smaller endpoint, so an input edge {@code (1, 0)} reads back as {@code (0, 1)}.
+     */
+    public List<Edge> edges() {
+        List<Edge> e = edges;
+        if (e == null) {
+            List<Edge> list = new ArrayList<>(m);
+            EdgeCursor c = out.cursor();
+            for (int u = 0; u < n; u++) {
+                c.reset(u);
+                int loopCopies = 0;
+                while (c.next()) {
+                    int v = c.target();
+                    if (!directed) {
+                        if (u > v) continue;
+                        // Undirected self-loops are stored twice, back to back; list every other copy.
+                        if (u == v && loopCopies++ % 2 == 1) continue;
+                    }
+                    list.add(new Edge(u, v, c.weight()));
+                }
+            }
+            edges = e = Collections.unmodifiableList(list);
+        }
+        return e;
+    }
+
+    /** Compatibility view; every {@code {to, w}} pair is allocated on access. */
+    public List<List<int[]>> adjOut() {
+        List<List<int[]>> a = adjOut;
+        if (a == null) adjOut = a = new AdjacencyView(out);
+        return a;
+    }
+
+    /** Compatibility view; every {@code {from, w}} pair is allocated on access. */
+    public List<List<int[]>> adjIn() {
+        List<List<int[]>> a = adjIn;
+        if (a == null) adjIn = a = new AdjacencyView(in());
+        return a;
+    }
+
+    private static final class AdjacencyView extends AbstractList<List<int[]>> implements RandomAccess {
+        private final Adjacency adj;
+
+        AdjacencyView(Adjacency adj) { this.adj = adj; }
+
+        @Override public int size() { return adj.vertexCount(); }
+
+        @Override
+        public List<int[]> get(int u) {
+            int begin = adj.begin(u);
+            int size = adj.end(u) - begin;
+            return new Row(adj, begin, size);
+        }
+    }
+
+    private static final class Row extends AbstractList<int[]> implements RandomAccess {
+        private final Adjacency adj;
+        private final int begin;
+        private final int size;
+
+        Row(Adjacency adj, int begin, int size) { this.adj = adj; this.begin = begin; this.size = size; }
+
+        @Override public int size() { return size; }
+
+        @Override
+        public int[] get(int k) {
+            Objects.checkIndex(k, size);
+            return new int[]{adj.target(begin + k), adj.weight(begin + k)};
+        }
+    }
 }
@@ -0,0 +1,58 @@
+package graph.core;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * CSR adjacency served directly from read-only memory-mapped file sections.
+ * Sections are mapped in chunks so a single section may exceed the 2 GiB buffer limit.
+ */
+public final class MappedAdjacency implements Adjacency {
+    private static final int CHUNK_SHIFT = 28;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final int n;
+    private final int slots;
+    private final IntBuffer[] offsets;
+    private final IntBuffer[] targets;
+    private final IntBuffer[] weights;
+
+    /** Maps {@code n + 1} offsets followed by {@code slots} targets and {@code slots} weights, starting at {@code position}. */
+    public MappedAdjacency(FileChannel ch, long position, int n, int slots) throws IOException {
+        this.n = n;
+        this.slots = slots;
+        this.offsets = map(ch, position, n + 1L);
+        this.targets = map(ch, position + 4L * (n + 1), slots);
+        this.weights = map(ch, position + 4L * (n + 1) + 4L * slots, slots);
+    }
+
+    public static long sectionBytes(int n, int slots) {
+        return 4L * (n + 1) + 8L * slots;
+    }
+
+    private static IntBuffer[] map(FileChannel ch, long position, long count) throws IOException {
+        int chunks = (int) ((count + CHUNK_MASK) >>> CHUNK_SHIFT);
+        IntBuffer[] out = new IntBuffer[Math.max(1, chunks)];
+        for (int k = 0; k < out.length; k++) {
+            long first = (long) k << CHUNK_SHIFT;
+            long len = Math.min(count - first, 1L << CHUNK_SHIFT);
+            out[k] = ch.map(FileChannel.MapMode.READ_ONLY, position + 4 * first, 4 * Math.max(0, len))
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+        }
+        return out;
+    }
+
+    private static int get(IntBuffer[] chunks, int i) {
+        return chunks[i >>> CHUNK_SHIFT].get(i & CHUNK_MASK);
+    }
+
+    @Override public int vertexCount() { return n; }
+    @Override public int edgeCount() { return slots; }
+    @Override public int begin(int u) { return get(offsets, u); }
+    @Override public int end(int u) { return get(offsets, u + 1); }
+    @Override public int target(int i) { return get(targets, i); }
+    @Override public int weight(int i) { return get(weights, i); }
+}
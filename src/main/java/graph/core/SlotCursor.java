@@ -0,0 +1,16 @@
+package graph.core;
+
+/** {@link EdgeCursor} over any {@link Adjacency} through its slots; positions are slot indices. */
+final class SlotCursor implements EdgeCursor {
+    private final Adjacency adj;
+    private int i, end;
+
+    SlotCursor(Adjacency adj) { this.adj = adj; }
+
+    @Override public void reset(int u) { i = adj.begin(u) - 1; end = adj.end(u); }
+    @Override public boolean next() { return ++i < end; }
+    @Override public int target() { return adj.target(i); }
+    @Override public int weight() { return adj.weight(i); }
+    @Override public long position() { return i + 1; }
+    @Override public void resume(int u, long position) { i = (int) position - 1; end = adj.end(u); }
+}
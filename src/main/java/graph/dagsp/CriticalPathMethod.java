@@ -0,0 +1,168 @@
+package graph.dagsp;
+
+import graph.core.Adjacency;
+import graph.core.Graph;
+import graph.scc.CondensationGraph;
+import graph.scc.SCCResult;
+import utils.Counter;
+import utils.Metrics;
+
+import java.util.*;
+
+/**
+ * Critical path method over a DAG, usually the condensation (see {@link #forCondensation}).
+ * <p>
+ * Every vertex is a task with a duration and every edge a precedence constraint with a lag:
+ * with weight model {@code "node"} durations come from {@code nodeDuration} and lags are 0;
+ * otherwise edge weights are the lags (so vertices are events, as in {@link DagLongestPath}) and
+ * {@code nodeDuration} is optional. One forward sweep computes earliest starts, one backward sweep
+ * over the same outgoing CSR computes latest finishes; no transpose is built. Only those two
+ * {@code long[]} arrays are stored, the other quantities are derived on access.
+ */
+public class CriticalPathMethod {
+
+    private final Graph g;
+    private final int[] duration;
+    private final boolean nodeModel;
+    private final Counter relaxations;
+    private final Counter timeNs;
+
+    public CriticalPathMethod(Graph g, Metrics metrics) {
+        this(g, null, metrics);
+    }
+
+    public CriticalPathMethod(Graph g, int[] nodeDuration, Metrics metrics) {
+        this.g = g;
+        this.nodeModel = "node".equals(g.weightModel());
+        if (nodeModel && nodeDuration == null) throw new IllegalArgumentException("weight model 'node' needs node durations");
+        if (nodeDuration != null && nodeDuration.length != g.n())
+            throw new IllegalArgumentException("durations for " + nodeDuration.length + " vertices, graph has " + g.n());
+        this.duration = nodeDuration;
+        this.relaxations = metrics.counter("relaxations_cpm");
+        this.timeNs = metrics.counter("time_ns_cpm");
+    }
+
+    /**
+     * Schedule over the condensation of {@code original}, indexed by component id, under the original
+     * graph's weight model. Component durations are the sums of {@code nodeDuration} over the members
+     * ({@code nodeDuration} may be null for the edge model); parallel cross edges keep their largest lag,
+     * and lags inside a component are ignored. Component ids are topological, so no sort is needed.
+     */
+    public static Schedule forCondensation(Graph original, SCCResult scc, int[] nodeDuration, Metrics metrics) {
+        Graph dag = new CondensationGraph(original, scc, CondensationGraph.EdgeWeight.MAX).buildCondensedGraph();
+        int[] durations = nodeDuration == null ? null : condensedDurations(scc, nodeDuration);
+        int[] order = new int[dag.n()];
+        for (int c = 0; c < order.length; c++) order[c] = c;
+        return new CriticalPathMethod(dag, durations, metrics).run(order);
+    }
+
+    /** Duration of each condensed vertex as the sum of its members' durations. */
+    public static int[] condensedDurations(SCCResult scc, int[] nodeDuration) {
+        int[] d = new int[scc.getCount()];
+        for (int c = 0; c < d.length; c++) {
+            long sum = 0;
+            for (int i = scc.memberBegin(c), end = scc.memberEnd(c); i < end; i++) sum += nodeDuration[scc.member(i)];
+            d[c] = (int) Math.min(Integer.MAX_VALUE, sum);
+        }
+        return d;
+    }
+
+    public static class Schedule {
+        public final long length;
+        private final Graph dag;
+        private final boolean nodeModel;
+        private final long[] es;
+        private final long[] lf;
+        private final int[] duration;
+
+        Schedule(Graph dag, boolean nodeModel, long length, long[] es, long[] lf, int[] duration) {
+            this.dag = dag; this.nodeModel = nodeModel;
+            this.length = length; this.es = es; this.lf = lf; this.duration = duration;
+        }
+
+        public int n() { return es.length; }
+        public long duration(int v) { return duration == null ? 0 : duration[v]; }
+        public long earliestStart(int v) { return es[v]; }
+        public long earliestFinish(int v) { return es[v] + duration(v); }
+        public long latestStart(int v) { return lf[v] - duration(v); }
+        public long latestFinish(int v) { return lf[v]; }
+        public long totalFloat(int v) { return lf[v] - duration(v) - es[v]; }
+        public boolean isCritical(int v) { return totalFloat(v) == 0; }
+
+        /** One zero-float chain from a task starting at 0 to a task finishing at {@link #length}. */
+        public List<Integer> criticalPath() {
+            List<Integer> path = new ArrayList<>();
+            int v = -1;
+            for (int s = 0; s < es.length && v < 0; s++) if (es[s] == 0 && isCritical(s)) v = s;
+            Adjacency out = dag.out();
+            while (v >= 0) {
+                path.add(v);
+                long ef = earliestFinish(v);
+                int nextV = -1;
+                for (int i = out.begin(v), end = out.end(v); i < end && nextV < 0; i++) {
+                    int t = out.target(i);
+                    if (isCritical(t) && ef + (nodeModel ? 0 : out.weight(i)) == es[t]) nextV = t;
+                }
+                v = nextV;
+            }
+            return path;
+        }
+    }
+
+    public Schedule run(List<Integer> topoOrder) {
+        int[] order = new int[topoOrder.size()];
+        for (int i = 0; i < order.length; i++) order[i] = topoOrder.get(i);
+        return run(order);
+    }
+
+    public Schedule run(int[] topoOrder) {
+        int n = g.n();
+        if (topoOrder.length != n) throw new IllegalArgumentException("topological order has " + topoOrder.length + " vertices, graph has " + n);
+        Adjacency out = g.out();
+        long[] es = new long[n];
+        long[] lf = new long[n];
+        BitSet done = new BitSet(n);
+        long relaxed = 0;
+        long t0 = System.nanoTime();
+
+        long length = 0;
+        for (int u : topoOrder) {
+            if (done.get(u)) throw new IllegalArgumentException("vertex " + u + " repeated in topological order");
+            done.set(u);
+            long ef = es[u] + dur(u);
+            if (ef > length) length = ef;
+            for (int i = out.begin(u), end = out.end(u); i < end; i++) {
+                int v = out.target(i);
+                if (done.get(v)) throw new IllegalArgumentException("edge " + u + "->" + v + " violates the topological order");
+                long cand = ef + lag(out, i);
+                if (cand > es[v]) es[v] = cand;
+            }
+            relaxed += out.end(u) - out.begin(u);
+        }
+
+        for (int k = n - 1; k >= 0; k--) {
+            int u = topoOrder[k];
+            long best = length;
+            for (int i = out.begin(u), end = out.end(u); i < end; i++) {
+                int v = out.target(i);
+                long cand = lf[v] - dur(v) - lag(out, i);
+                if (cand < best) best = cand;
+            }
+            lf[u] = best;
+            relaxed += out.end(u) - out.begin(u);
+        }
+
+        long t1 = System.nanoTime();
+        relaxations.add(relaxed);
+        timeNs.add(t1 - t0);
+        return new Schedule(g, nodeModel, length, es, lf, duration);
+    }
+
+    private long dur(int v) {
+        return duration == null ? 0 : duration[v];
+    }
+
+    private long lag(Adjacency out, int i) {
+        return nodeModel ? 0 : out.weight(i);
+    }
+}
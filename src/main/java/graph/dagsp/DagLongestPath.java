@@ -1,14 +1,21 @@
 package graph.dagsp;
 
+import graph.core.EdgeCursor;
 import graph.core.Graph;
+import utils.Counter;
 import utils.Metrics;
 import java.util.*;
 
 public class DagLongestPath {
     private final Graph g;
-    private final Metrics metrics;
+    private final Counter relaxations;
+    private final Counter timeNs;
 
-    public DagLongestPath(Graph g, Metrics metrics) { this.g = g; this.metrics = metrics; }
+    public DagLongestPath(Graph g, Metrics metrics) {
+        this.g = g;
+        this.relaxations = metrics.counter("relaxations_lp");
+        this.timeNs = metrics.counter("time_ns_dag_longest");
+    }
 
     public static class Result {
         public final int source;
@@ -40,18 +47,22 @@ public class DagLongestPath {
         Arrays.fill(parent, -1);
         best[source] = 0;
 
+        EdgeCursor out = g.out().cursor();
+        long relaxed = 0;
         long t0 = System.nanoTime();
         for (int u : topoOrder) {
             if (best[u] == NEG) continue;
-            for (int[] e : g.adjOut().get(u)) {
-                int v = e[0], w = e[1];
+            out.reset(u);
+            while (out.next()) {
+                int v = out.target(), w = out.weight();
                 long cand = best[u] + w;
-                metrics.inc("relaxations_lp", 1);
+                relaxed++;
                 if (cand > best[v]) { best[v] = cand; parent[v] = u; }
             }
         }
         long t1 = System.nanoTime();
-        metrics.inc("time_ns_dag_longest", (t1 - t0));
+        relaxations.add(relaxed);
+        timeNs.add(t1 - t0);
         return new Result(source, best, parent);
     }
 }
@@ -0,0 +1,182 @@
+package graph.dagsp;
+
+import graph.core.Adjacency;
+import graph.core.Graph;
+import utils.Counter;
+import utils.Metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Shortest or longest distances from many sources over one DAG.
+ * <p>
+ * The graph is relabeled once into topological positions so every sweep is a forward scan.
+ * Sources are solved in blocks that share one sweep: distances are stored vertex-major
+ * ({@code work[pos * lanes + lane]}) so each edge updates a contiguous run of lanes, and a
+ * block starts at the earliest position among its sources instead of at the top of the order.
+ * Unreachable entries use the single-source sentinels: {@code Long.MAX_VALUE} for shortest and
+ * {@code Long.MIN_VALUE / 2} for longest paths.
+ */
+public class DagMultiSourcePaths {
+
+    public enum Objective { SHORTEST, LONGEST }
+
+    /** Receives one source's distances, indexed by original vertex id; the array is reused after return. */
+    @FunctionalInterface
+    public interface SourceConsumer {
+        void accept(int source, long[] dist);
+    }
+
+    private static final int MAX_BLOCK = 16;
+    // Upper bound on workspace longs per worker (32 MiB).
+    private static final int WORKSPACE_LONGS = 1 << 22;
+
+    private final int n;
+    private final int[] position;
+    private final int[] order;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int block;
+    private final Counter relaxations;
+
+    public DagMultiSourcePaths(Graph g, List<Integer> topoOrder, Metrics metrics) {
+        this.n = g.n();
+        if (topoOrder.size() != n) throw new IllegalArgumentException("topological order has " + topoOrder.size() + " vertices, graph has " + n);
+        this.order = new int[n];
+        this.position = new int[n];
+        Arrays.fill(position, -1);
+        for (int p = 0; p < n; p++) {
+            int v = topoOrder.get(p);
+            if (position[v] != -1) throw new IllegalArgumentException("vertex " + v + " repeated in topological order");
+            order[p] = v;
+            position[v] = p;
+        }
+
+        Adjacency out = g.out();
+        this.offsets = new int[n + 1];
+        for (int p = 0; p < n; p++) offsets[p + 1] = offsets[p] + out.degree(order[p]);
+        this.targets = new int[offsets[n]];
+        this.weights = new int[offsets[n]];
+        for (int p = 0; p < n; p++) {
+            int u = order[p];
+            for (int i = out.begin(u), k = offsets[p], end = out.end(u); i < end; i++, k++) {
+                targets[k] = position[out.target(i)];
+                weights[k] = out.weight(i);
+                if (targets[k] <= p) throw new IllegalArgumentException("edge " + u + "->" + out.target(i) + " violates the topological order");
+            }
+        }
+        this.block = Math.max(1, Math.min(MAX_BLOCK, WORKSPACE_LONGS / Math.max(1, n)));
+        this.relaxations = metrics.counter("relaxations_multi");
+    }
+
+    /** Row-major {@code sources.length x n} matrix; row {@code k} holds distances from {@code sources[k]}. */
+    public long[] distanceMatrix(int[] sources, Objective objective) {
+        long cells = (long) sources.length * n;
+        if (cells > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("distance matrix too large: " + cells + " cells");
+        long[] matrix = new long[(int) cells];
+        run(sources, objective, true, (k, s, dist) -> System.arraycopy(dist, 0, matrix, k * n, n));
+        return matrix;
+    }
+
+    /** Distances from {@code source}, indexed by vertex id; scratch space is a single lane of {@code n} longs. */
+    public long[] distances(int source, Objective objective) {
+        long[][] row = new long[1][];
+        // The workspace belongs to this call only, so its row can be handed out without a copy.
+        run(new int[]{source}, objective, false, (k, s, dist) -> row[0] = dist);
+        return row[0];
+    }
+
+    public void forEachSource(int[] sources, Objective objective, SourceConsumer consumer) {
+        run(sources, objective, false, (k, s, dist) -> consumer.accept(s, dist));
+    }
+
+    /** Blocks run on the common ForkJoin pool; {@code consumer} is called concurrently and must be thread-safe. */
+    public void forEachSourceParallel(int[] sources, Objective objective, SourceConsumer consumer) {
+        run(sources, objective, true, (k, s, dist) -> consumer.accept(s, dist));
+    }
+
+    @FunctionalInterface
+    private interface RowSink {
+        void accept(int index, int source, long[] dist);
+    }
+
+    private void run(int[] sources, Objective objective, boolean parallel, RowSink sink) {
+        for (int s : sources) {
+            if (s < 0 || s >= n) throw new IndexOutOfBoundsException("source " + s + " out of range [0, " + n + ")");
+        }
+        if (sources.length == 0) return;
+        int lanes = Math.min(block, sources.length);
+        int blocks = (sources.length + lanes - 1) / lanes;
+        LongAdder relaxed = new LongAdder();
+        // Workspaces live only for this call; one per concurrently running block at most.
+        Queue<Workspace> free = new ConcurrentLinkedQueue<>();
+        IntStream ids = IntStream.range(0, blocks);
+        (parallel ? ids.parallel() : ids).forEach(b -> {
+            int from = b * lanes;
+            int count = Math.min(lanes, sources.length - from);
+            Workspace ws = free.poll();
+            if (ws == null) ws = new Workspace(lanes);
+            try {
+                relaxed.add(solveBlock(sources, from, count, objective, ws, sink));
+            } finally {
+                free.add(ws);
+            }
+        });
+        relaxations.add(relaxed.sum());
+    }
+
+    private final class Workspace {
+        final int lanes;
+        final long[] work;
+        final long[] row = new long[n];
+
+        Workspace(int lanes) {
+            this.lanes = lanes;
+            this.work = new long[Math.multiplyExact(n, lanes)];
+        }
+    }
+
+    private long solveBlock(int[] sources, int from, int count, Objective objective, Workspace ws, RowSink sink) {
+        boolean shortest = objective == Objective.SHORTEST;
+        long none = shortest ? Long.MAX_VALUE : Long.MIN_VALUE / 2;
+        long[] work = ws.work;
+        int b = ws.lanes;
+
+        int start = n;
+        for (int k = 0; k < count; k++) start = Math.min(start, position[sources[from + k]]);
+        Arrays.fill(work, start * b, n * b, none);
+        for (int k = 0; k < count; k++) work[position[sources[from + k]] * b + k] = 0;
+
+        long relaxed = 0;
+        for (int p = start; p < n; p++) {
+            int base = p * b;
+            for (int e = offsets[p], end = offsets[p + 1]; e < end; e++) {
+                int qb = targets[e] * b;
+                long w = weights[e];
+                for (int k = 0; k < count; k++) {
+                    long d = work[base + k];
+                    if (d == none) continue;
+                    relaxed++;
+                    long cand = d + w;
+                    if (shortest ? cand < work[qb + k] : cand > work[qb + k]) work[qb + k] = cand;
+                }
+            }
+        }
+
+        long[] row = ws.row;
+        for (int k = 0; k < count; k++) {
+            for (int v = 0; v < n; v++) {
+                int p = position[v];
+                row[v] = p < start ? none : work[p * b + k];
+            }
+            sink.accept(from + k, sources[from + k], row);
+        }
+        return relaxed;
+    }
+}
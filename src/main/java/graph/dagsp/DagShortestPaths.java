@@ -1,16 +1,20 @@
 package graph.dagsp;
 
+import graph.core.EdgeCursor;
 import graph.core.Graph;
+import utils.Counter;
 import utils.Metrics;
 import java.util.*;
 
 public class DagShortestPaths {
     private final Graph g;
-    private final Metrics metrics;
+    private final Counter relaxations;
+    private final Counter timeNs;
 
     public DagShortestPaths(Graph g, Metrics metrics) {
         this.g = g;
-        this.metrics = metrics;
+        this.relaxations = metrics.counter("relaxations_sp");
+        this.timeNs = metrics.counter("time_ns_dag_sp");
     }
 
     public static class Result {
@@ -36,18 +40,22 @@ public class DagShortestPaths {
         Arrays.fill(parent, -1);
         dist[source] = 0;
 
+        EdgeCursor out = g.out().cursor();
+        long relaxed = 0;
         long t0 = System.nanoTime();
         for (int u : topoOrder) {
             if (dist[u] == Long.MAX_VALUE) continue;
-            for (int[] e : g.adjOut().get(u)) {
-                int v = e[0], w = e[1];
+            out.reset(u);
+            while (out.next()) {
+                int v = out.target(), w = out.weight();
                 long cand = dist[u] + w;
-                metrics.inc("relaxations_sp", 1);
+                relaxed++;
                 if (cand < dist[v]) { dist[v] = cand; parent[v] = u; }
             }
         }
         long t1 = System.nanoTime();
-        metrics.inc("time_ns_dag_sp", (t1 - t0));
+        relaxations.add(relaxed);
+        timeNs.add(t1 - t0);
         return new Result(source, dist, parent);
     }
 }
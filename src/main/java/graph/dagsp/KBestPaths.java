@@ -0,0 +1,310 @@
+package graph.dagsp;
+
+import graph.core.Adjacency;
+import graph.core.CompressedAdjacency;
+import graph.core.CsrAdjacency;
+import graph.core.Graph;
+import utils.Counter;
+import utils.Metrics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * K shortest or K longest {@code s -> t} paths in a DAG (Eppstein's sidetrack formulation).
+ * <p>
+ * One backward sweep gives every vertex's best distance to {@code t} and a best-path tree. Any
+ * other path is the tree path plus a sequence of sidetrack edges, each costing its detour
+ * {@code delta(u->v) = w + d(v) - d(u)} (negated weights for longest). Sidetracks available from
+ * {@code v} onwards live in a persistent leftist heap {@code H(v)} that shares structure with
+ * {@code H(next(v))}, so building all heaps costs O(m log n) and extracting K paths costs
+ * O(K log K) with no enumeration.
+ * <p>
+ * Paths come back as a trie: path {@code i > 0} is path {@code prefix(i)} plus one more sidetrack
+ * edge, so K paths take two ints and one long each; {@link Paths#path(int)} expands one on demand.
+ */
+public class KBestPaths {
+
+    private final Graph g;
+    // Sidetracks are named by edge slot, so compressed input is read once into a CSR with the same slots.
+    private final Adjacency out;
+    private final int[] order;
+    private final int[] tail;
+    private final Counter heapNodes;
+    private final Counter popped;
+
+    // Persistent leftist heap nodes, shared by all H(v) of one query.
+    private long[] hKey;
+    private int[] hEdge;
+    private int[] hLeft;
+    private int[] hRight;
+    private int[] hRank;
+    private int hSize;
+
+    public KBestPaths(Graph g, List<Integer> topoOrder, Metrics metrics) {
+        this.g = g;
+        int n = g.n();
+        if (topoOrder.size() != n) throw new IllegalArgumentException("topological order has " + topoOrder.size() + " vertices, graph has " + n);
+        this.order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = topoOrder.get(i);
+
+        this.out = g.out() instanceof CompressedAdjacency ? CsrAdjacency.copyOf(g.out()) : g.out();
+        this.tail = new int[out.edgeCount()];
+        for (int u = 0; u < n; u++)
+            for (int i = out.begin(u), end = out.end(u); i < end; i++) tail[i] = u;
+        this.heapNodes = metrics.counter("kbest_heap_nodes");
+        this.popped = metrics.counter("kbest_popped");
+    }
+
+    public static final class Paths {
+        private final Adjacency out;
+        private final int[] tail;
+        private final int[] next;
+        private final int source, target;
+        private final int size;
+        private final long[] lengths;
+        private final int[] prefix;
+        private final int[] sidetrack;
+
+        Paths(Adjacency out, int[] tail, int[] next, int source, int target, int size, long[] lengths, int[] prefix, int[] sidetrack) {
+            this.out = out; this.tail = tail; this.next = next;
+            this.source = source; this.target = target;
+            this.size = size; this.lengths = lengths; this.prefix = prefix; this.sidetrack = sidetrack;
+        }
+
+        /** Number of paths found, at most K. */
+        public int size() { return size; }
+
+        /** Total weight of path {@code i}; non-decreasing in {@code i} for shortest, non-increasing for longest. */
+        public long length(int i) { return lengths[checkIndex(i)]; }
+
+        /** Path this one extends by one sidetrack; -1 for path 0, the best path. */
+        public int prefix(int i) { return prefix[checkIndex(i)]; }
+
+        /** Edge index (into {@code g.out()}) of the last sidetrack of path {@code i}; -1 for path 0. */
+        public int sidetrack(int i) { return sidetrack[checkIndex(i)]; }
+
+        /** Edge indices (into {@code g.out()}) of path {@code i} from source to target; tells parallel edges apart. */
+        public int[] edges(int i) {
+            int count = 0;
+            for (int p = checkIndex(i); p > 0; p = prefix[p]) count++;
+            int[] side = new int[count];
+            for (int p = i; p > 0; p = prefix[p]) side[--count] = sidetrack[p];
+
+            int[] buf = new int[16];
+            int len = 0;
+            int v = source;
+            for (int e : side) {
+                while (v != tail[e]) {
+                    buf = push(buf, len++, next[v]);
+                    v = out.target(next[v]);
+                }
+                buf = push(buf, len++, e);
+                v = out.target(e);
+            }
+            while (v != target) {
+                buf = push(buf, len++, next[v]);
+                v = out.target(next[v]);
+            }
+            return Arrays.copyOf(buf, len);
+        }
+
+        /** Vertices of path {@code i} from source to target. */
+        public int[] path(int i) {
+            int[] edges = edges(i);
+            int[] path = new int[edges.length + 1];
+            path[0] = source;
+            for (int j = 0; j < edges.length; j++) path[j + 1] = out.target(edges[j]);
+            return path;
+        }
+
+        private int checkIndex(int i) {
+            if (i < 0 || i >= size) throw new IndexOutOfBoundsException("path " + i + " out of range [0, " + size + ")");
+            return i;
+        }
+    }
+
+    public Paths shortest(int source, int target, int k) {
+        return run(source, target, k, 1);
+    }
+
+    public Paths longest(int source, int target, int k) {
+        return run(source, target, k, -1);
+    }
+
+    private Paths run(int s, int t, int k, int sign) {
+        int n = g.n();
+        if (s < 0 || s >= n) throw new IndexOutOfBoundsException("source " + s + " out of range [0, " + n + ")");
+        if (t < 0 || t >= n) throw new IndexOutOfBoundsException("target " + t + " out of range [0, " + n + ")");
+        if (k < 0) throw new IllegalArgumentException("k must be non-negative");
+        final long none = Long.MAX_VALUE;
+
+        // Best (sign-adjusted) distance to t and the tree edge taking it.
+        long[] d = new long[n];
+        int[] next = new int[n];
+        Arrays.fill(d, none);
+        Arrays.fill(next, -1);
+        d[t] = 0;
+        for (int idx = n - 1; idx >= 0; idx--) {
+            int u = order[idx];
+            if (u == t) continue;
+            for (int i = out.begin(u), end = out.end(u); i < end; i++) {
+                long dv = d[out.target(i)];
+                if (dv == none) continue;
+                long cand = sign * (long) out.weight(i) + dv;
+                if (cand < d[u]) { d[u] = cand; next[u] = i; }
+            }
+        }
+
+        long[] lengths = new long[Math.min(k, 16)];
+        int[] prefix = new int[lengths.length];
+        int[] sidetrack = new int[lengths.length];
+        if (k == 0 || d[s] == none) return new Paths(out, tail, next, s, t, 0, lengths, prefix, sidetrack);
+
+        // H(v) = H(next(v)) merged with v's own sidetracks, built from t outwards.
+        hKey = new long[Math.max(16, n)];
+        hEdge = new int[hKey.length];
+        hLeft = new int[hKey.length];
+        hRight = new int[hKey.length];
+        hRank = new int[hKey.length];
+        hSize = 0;
+        int[] heap = new int[n];
+        Arrays.fill(heap, -1);
+        for (int idx = n - 1; idx >= 0; idx--) {
+            int u = order[idx];
+            if (d[u] == none) continue;
+            int h = u == t ? -1 : heap[out.target(next[u])];
+            for (int i = out.begin(u), end = out.end(u); i < end; i++) {
+                long dv = d[out.target(i)];
+                if (i == next[u] || dv == none) continue;
+                long delta = sign * (long) out.weight(i) + dv - d[u];
+                h = merge(h, node(delta, i, -1, -1));
+            }
+            heap[u] = h;
+        }
+
+        // Best-first over (path, heap node) candidates; popping one yields the next path.
+        lengths[0] = d[s];
+        prefix[0] = -1;
+        sidetrack[0] = -1;
+        int found = 1;
+        CandidateQueue queue = new CandidateQueue();
+        if (heap[s] >= 0) queue.push(d[s] + hKey[heap[s]], heap[s], 0);
+        while (found < k && queue.size > 0) {
+            long cost = queue.topCost();
+            int h = queue.topNode();
+            int parent = queue.topParent();
+            queue.pop();
+            if (found == lengths.length) {
+                int cap = (int) Math.min(k, 2L * found);
+                lengths = Arrays.copyOf(lengths, cap);
+                prefix = Arrays.copyOf(prefix, cap);
+                sidetrack = Arrays.copyOf(sidetrack, cap);
+            }
+            int id = found++;
+            lengths[id] = cost;
+            prefix[id] = parent;
+            sidetrack[id] = hEdge[h];
+
+            if (hLeft[h] >= 0) queue.push(cost - hKey[h] + hKey[hLeft[h]], hLeft[h], parent);
+            if (hRight[h] >= 0) queue.push(cost - hKey[h] + hKey[hRight[h]], hRight[h], parent);
+            int after = heap[out.target(hEdge[h])];
+            if (after >= 0) queue.push(cost + hKey[after], after, id);
+        }
+        if (sign < 0) for (int i = 0; i < found; i++) lengths[i] = -lengths[i];
+
+        heapNodes.add(hSize);
+        popped.add(found - 1);
+        hKey = null; hEdge = null; hLeft = null; hRight = null; hRank = null;
+        return new Paths(out, tail, next, s, t, found, lengths, prefix, sidetrack);
+    }
+
+    private int rank(int h) {
+        return h < 0 ? 0 : hRank[h];
+    }
+
+    /** Persistent merge: copies the nodes on the merged right spine, never mutates existing ones. */
+    private int merge(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        if (hKey[b] < hKey[a]) { int x = a; a = b; b = x; }
+        int right = merge(hRight[a], b);
+        int left = hLeft[a];
+        if (rank(left) < rank(right)) { int x = left; left = right; right = x; }
+        return node(hKey[a], hEdge[a], left, right);
+    }
+
+    private int node(long key, int edge, int left, int right) {
+        if (hSize == hKey.length) {
+            int cap = hSize * 2;
+            hKey = Arrays.copyOf(hKey, cap);
+            hEdge = Arrays.copyOf(hEdge, cap);
+            hLeft = Arrays.copyOf(hLeft, cap);
+            hRight = Arrays.copyOf(hRight, cap);
+            hRank = Arrays.copyOf(hRank, cap);
+        }
+        int h = hSize++;
+        hKey[h] = key;
+        hEdge[h] = edge;
+        hLeft[h] = left;
+        hRight[h] = right;
+        hRank[h] = rank(right) + 1;
+        return h;
+    }
+
+    /** Binary min-heap of candidates keyed by cost, in parallel primitive arrays. */
+    private static final class CandidateQueue {
+        long[] cost = new long[64];
+        int[] node = new int[64];
+        int[] parent = new int[64];
+        int size;
+
+        long topCost() { return cost[0]; }
+        int topNode() { return node[0]; }
+        int topParent() { return parent[0]; }
+
+        void push(long c, int h, int p) {
+            if (size == cost.length) {
+                cost = Arrays.copyOf(cost, size * 2);
+                node = Arrays.copyOf(node, size * 2);
+                parent = Arrays.copyOf(parent, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int up = (i - 1) >>> 1;
+                if (cost[up] <= c) break;
+                set(i, cost[up], node[up], parent[up]);
+                i = up;
+            }
+            set(i, c, h, p);
+        }
+
+        void pop() {
+            size--;
+            long c = cost[size];
+            int h = node[size], p = parent[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && cost[child + 1] < cost[child]) child++;
+                if (cost[child] >= c) break;
+                set(i, cost[child], node[child], parent[child]);
+                i = child;
+            }
+            if (size > 0) set(i, c, h, p);
+        }
+
+        private void set(int i, long c, int h, int p) {
+            cost[i] = c;
+            node[i] = h;
+            parent[i] = p;
+        }
+    }
+
+    private static int[] push(int[] a, int i, int x) {
+        if (i == a.length) a = Arrays.copyOf(a, a.length * 2);
+        a[i] = x;
+        return a;
+    }
+}
@@ -0,0 +1,134 @@
+package graph.dagsp;
+
+import graph.core.Adjacency;
+import graph.core.EdgeCursor;
+import graph.core.Graph;
+import graph.topo.ParallelTopologicalSort;
+import utils.Counter;
+import utils.Metrics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Single-source shortest and longest paths on a DAG, relaxed one topological level at a time on a
+ * ForkJoin pool.
+ * <p>
+ * All predecessors of a vertex sit on earlier levels, so every vertex of a level can be finalized
+ * independently by pulling over its incoming edges; each slot of {@code dist}/{@code best} and
+ * {@code parent} has a single writer and no atomics are needed. Ties go to the predecessor that
+ * comes first in the given topological order, which is what the sequential solvers' first strict
+ * improvement keeps, so results and parent arrays are identical to {@link DagShortestPaths} and
+ * {@link DagLongestPath} for the same order. Counters use the same keys as those solvers.
+ */
+public class ParallelDagPaths {
+
+    private static final int GRAIN = 1024;
+    private static final long NEG = Long.MIN_VALUE / 2;
+
+    private final Graph g;
+    private final Adjacency in;
+    private final ForkJoinPool pool;
+    private final int[] position;
+    private final ParallelTopologicalSort.Levels levels;
+    private final Counter relaxSp, timeSp;
+    private final Counter relaxLp, timeLp;
+
+    public ParallelDagPaths(Graph g, List<Integer> topoOrder, Metrics metrics) {
+        this(g, topoOrder, metrics, ForkJoinPool.commonPool());
+    }
+
+    public ParallelDagPaths(Graph g, List<Integer> topoOrder, Metrics metrics, ForkJoinPool pool) {
+        int n = g.n();
+        if (topoOrder.size() != n) throw new IllegalArgumentException("topological order has " + topoOrder.size() + " vertices, graph has " + n);
+        this.g = g;
+        this.in = g.in();
+        this.pool = pool;
+        this.position = new int[n];
+        for (int p = 0; p < n; p++) position[topoOrder.get(p)] = p;
+        this.levels = new ParallelTopologicalSort(g, Metrics.NOOP, pool).run();
+        this.relaxSp = metrics.counter("relaxations_sp");
+        this.timeSp = metrics.counter("time_ns_dag_sp");
+        this.relaxLp = metrics.counter("relaxations_lp");
+        this.timeLp = metrics.counter("time_ns_dag_longest");
+    }
+
+    public DagShortestPaths.Result shortest(int source) {
+        long[] dist = new long[g.n()];
+        int[] parent = new int[g.n()];
+        long t0 = System.nanoTime();
+        relaxSp.add(run(source, dist, parent, Long.MAX_VALUE, true));
+        timeSp.add(System.nanoTime() - t0);
+        return new DagShortestPaths.Result(source, dist, parent);
+    }
+
+    public DagLongestPath.Result longest(int source) {
+        long[] best = new long[g.n()];
+        int[] parent = new int[g.n()];
+        long t0 = System.nanoTime();
+        relaxLp.add(run(source, best, parent, NEG, false));
+        timeLp.add(System.nanoTime() - t0);
+        return new DagLongestPath.Result(source, best, parent);
+    }
+
+    private long run(int source, long[] d, int[] parent, long none, boolean min) {
+        Arrays.fill(d, none);
+        Arrays.fill(parent, -1);
+        d[source] = 0;
+        // Nothing on the source's level or above is reachable from it.
+        long relaxed = 0;
+        for (int l = levels.level(source) + 1; l < levels.levelCount(); l++) {
+            Pull task = new Pull(d, parent, none, min, levels.levelBegin(l), levels.levelEnd(l));
+            relaxed += levels.width(l) > GRAIN ? pool.invoke(task) : task.compute();
+        }
+        return relaxed;
+    }
+
+    /** Finalizes the vertices at level positions {@code [lo, hi)}; returns the edges relaxed. */
+    private final class Pull extends RecursiveTask<Long> {
+        private final long[] d;
+        private final int[] parent;
+        private final long none;
+        private final boolean min;
+        private final int lo, hi;
+
+        Pull(long[] d, int[] parent, long none, boolean min, int lo, int hi) {
+            this.d = d; this.parent = parent; this.none = none; this.min = min; this.lo = lo; this.hi = hi;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                Pull left = new Pull(d, parent, none, min, lo, mid);
+                left.fork();
+                long right = new Pull(d, parent, none, min, mid, hi).compute();
+                return left.join() + right;
+            }
+            long relaxed = 0;
+            EdgeCursor preds = in.cursor();
+            for (int k = lo; k < hi; k++) {
+                int v = levels.vertexAt(k);
+                long bestD = none;
+                int bestU = -1, bestPos = Integer.MAX_VALUE;
+                preds.reset(v);
+                while (preds.next()) {
+                    int u = preds.target();
+                    long du = d[u];
+                    if (du == none) continue;
+                    relaxed++;
+                    long cand = du + preds.weight();
+                    boolean better = min ? cand < bestD : cand > bestD;
+                    if (better || (cand == bestD && bestU != -1 && position[u] < bestPos)) {
+                        bestD = cand; bestU = u; bestPos = position[u];
+                    }
+                }
+                d[v] = bestD;
+                parent[v] = bestU;
+            }
+            return relaxed;
+        }
+    }
+}
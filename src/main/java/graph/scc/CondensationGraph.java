@@ -1,53 +1,123 @@
 package graph.scc;
 
+import graph.core.EdgeCursor;
+import graph.core.CsrAdjacency;
 import graph.core.Graph;
 import graph.core.Edge;
-import java.util.*;
+
+import java.util.Arrays;
 
 public class CondensationGraph {
 
+    /**
+     * How the weights of parallel cross edges are folded into one condensed edge. A {@code SUM} that
+     * does not fit in an int makes {@link #buildCondensedGraph()} throw {@link ArithmeticException}.
+     */
+    public enum EdgeWeight { UNIT, MIN, MAX, SUM }
+
     private final Graph original;
     private final SCCResult sccResult;
+    private final EdgeWeight edgeWeight;
 
     public CondensationGraph(Graph original, SCCResult sccResult) {
+        this(original, sccResult, EdgeWeight.UNIT);
+    }
+
+    public CondensationGraph(Graph original, SCCResult sccResult, EdgeWeight edgeWeight) {
         this.original = original;
         this.sccResult = sccResult;
+        this.edgeWeight = edgeWeight;
     }
 
     public Graph buildCondensedGraph() {
         int sccCount = sccResult.getCount();
-        Map<Integer, Integer> vertexToSCC = new HashMap<>();
+        int[] comp = sccResult.componentOf();
+        EdgeCursor out = original.out().cursor();
+        int n = original.n();
 
-        for (int i = 0; i < sccCount; i++) {
-            for (int v : sccResult.getComponents().get(i)) {
-                vertexToSCC.put(v, i);
+        // Bucket cross edges by source component (counting sort), then dedupe each bucket
+        // with a stamp array indexed by target component.
+        int[] bucket = new int[sccCount + 1];
+        for (int u = 0; u < n; u++) {
+            int cu = comp[u];
+            out.reset(u);
+            while (out.next()) {
+                if (comp[out.target()] != cu) bucket[cu + 1]++;
             }
         }
+        for (int c = 0; c < sccCount; c++) bucket[c + 1] += bucket[c];
 
-        Set<String> seen = new HashSet<>();
-        List<Edge> dagEdges = new ArrayList<>();
-
-        for (int u = 0; u < original.n(); u++) {
-            for (int[] vw : original.adjOut().get(u)) {
-                int v = vw[0];
-                int sccU = vertexToSCC.get(u);
-                int sccV = vertexToSCC.get(v);
-                if (sccU != sccV) {
-                    String key = sccU + "->" + sccV;
-                    if (seen.add(key)) {
-                        dagEdges.add(new Edge(sccU, sccV, 1));
-                    }
+        int cross = bucket[sccCount];
+        int[] pos = Arrays.copyOf(bucket, sccCount);
+        int[] crossTo = new int[cross];
+        int[] crossW = new int[cross];
+        for (int u = 0; u < n; u++) {
+            int cu = comp[u];
+            out.reset(u);
+            while (out.next()) {
+                int cv = comp[out.target()];
+                if (cv != cu) {
+                    int p = pos[cu]++;
+                    crossTo[p] = cv;
+                    crossW[p] = out.weight();
                 }
             }
         }
 
-        return new Graph(true, sccCount, dagEdges, null, "unit");
+        int[] offsets = new int[sccCount + 1];
+        int[] stamp = new int[sccCount];
+        int[] slot = new int[sccCount];
+        long[] acc = new long[cross];
+        Arrays.fill(stamp, -1);
+        int k = 0;
+        for (int cu = 0; cu < sccCount; cu++) {
+            offsets[cu] = k;
+            for (int p = bucket[cu]; p < bucket[cu + 1]; p++) {
+                int cv = crossTo[p];
+                long w = crossW[p];
+                if (stamp[cv] != cu) {
+                    stamp[cv] = cu;
+                    slot[cv] = k;
+                    crossTo[k] = cv;
+                    acc[k++] = w;
+                } else {
+                    int s = slot[cv];
+                    acc[s] = switch (edgeWeight) {
+                        case UNIT -> 1;
+                        case MIN -> Math.min(acc[s], w);
+                        case MAX -> Math.max(acc[s], w);
+                        case SUM -> acc[s] + w;
+                    };
+                }
+            }
+        }
+        offsets[sccCount] = k;
+
+        int[] targets = Arrays.copyOf(crossTo, k);
+        int[] weights = new int[k];
+        for (int cu = 0; cu < sccCount; cu++) {
+            for (int e = offsets[cu]; e < offsets[cu + 1]; e++) {
+                long w = edgeWeight == EdgeWeight.UNIT ? 1 : acc[e];
+                if (w != (int) w) {
+                    throw new ArithmeticException("condensed weight of " + cu + "->" + targets[e] + " overflows int: " + w);
+                }
+                weights[e] = (int) w;
+            }
+        }
+
+        String weightModel = edgeWeight == EdgeWeight.UNIT ? "unit" : original.weightModel();
+        return new Graph(true, sccCount, new CsrAdjacency(offsets, targets, weights), null, weightModel);
     }
 
     public void printCondensationSummary(Graph dag) {
         System.out.println("Condensation graph has " + dag.n() + " nodes (SCCs).");
         for (int i = 0; i < sccResult.getCount(); i++) {
-            System.out.println("SCC " + i + ": " + sccResult.getComponents().get(i));
+            StringBuilder sb = new StringBuilder("SCC ").append(i).append(": [");
+            for (int k = sccResult.memberBegin(i), end = sccResult.memberEnd(i); k < end; k++) {
+                if (k > sccResult.memberBegin(i)) sb.append(", ");
+                sb.append(sccResult.member(k));
+            }
+            System.out.println(sb.append(']'));
         }
         System.out.println("DAG edges:");
         for (Edge e : dag.edges()) {
@@ -0,0 +1,522 @@
+package graph.scc;
+
+import graph.core.Adjacency;
+import graph.core.CsrAdjacency;
+import graph.core.Graph;
+import utils.Counter;
+import utils.Metrics;
+
+import java.util.*;
+
+/**
+ * Strongly connected components and their condensation kept up to date while edges change.
+ * <p>
+ * Components are union-find sets over vertex ids; the root vertex names the component. Each
+ * component keeps its cross edges as raw endpoint lists (resolved through {@code find} when read,
+ * internal leftovers are dropped lazily) and a position in a topological order of the
+ * condensation. An insertion that goes against that order runs the Pearce-Kelly search between
+ * the two positions only: if it closes a cycle, the components on it are unioned in place,
+ * otherwise the visited components are reordered among their own slots. Positions may have holes
+ * after merges; they are only compared, never used as dense ids.
+ * <p>
+ * Deletions are batched: cross edges are just dropped, and every component that lost an internal
+ * edge is re-split with Tarjan over its own members. Only when something actually split are the
+ * positions compacted.
+ */
+public class DynamicSCC {
+
+    private final int n;
+    private int edgeCount;
+
+    private final int[][] vOut;
+    private final int[] vOutSize;
+    private final int[][] vIn;
+    private final int[] vInSize;
+
+    private final int[] parent;
+    private final int[] size;
+    private final int[] head;
+    private final int[] tail;
+    private final int[] next;
+    private final int[][] cOut;
+    private final int[] cOutSize;
+    private final int[][] cIn;
+    private final int[] cInSize;
+
+    private final int[] ord;
+    private final int[] node;
+    private int positions;
+    private int components;
+
+    private final int[] markF;
+    private final int[] markB;
+    private int stamp;
+    private int[] stack = new int[16];
+    private int[] fwd = new int[16];
+    private int[] bwd = new int[16];
+    private int[] index;
+    private int[] low;
+    private int[] cursor;
+
+    private final Counter visited;
+    private final Counter merges;
+    private final Counter splits;
+
+    /** {@code n} isolated vertices. */
+    public DynamicSCC(int n, Metrics metrics) {
+        this.n = n;
+        this.vOut = new int[n][];
+        this.vOutSize = new int[n];
+        this.vIn = new int[n][];
+        this.vInSize = new int[n];
+        this.parent = new int[n];
+        this.size = new int[n];
+        this.head = new int[n];
+        this.tail = new int[n];
+        this.next = new int[n];
+        this.cOut = new int[n][];
+        this.cOutSize = new int[n];
+        this.cIn = new int[n][];
+        this.cInSize = new int[n];
+        this.ord = new int[n];
+        this.node = new int[n];
+        this.markF = new int[n];
+        this.markB = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+            head[v] = tail[v] = v;
+            next[v] = -1;
+            ord[v] = node[v] = v;
+        }
+        this.positions = n;
+        this.components = n;
+        this.visited = metrics.counter("dscc_visited");
+        this.merges = metrics.counter("dscc_merges");
+        this.splits = metrics.counter("dscc_splits");
+    }
+
+    /** Starts from a static graph, decomposed once with {@link TarjanSCC}. */
+    public DynamicSCC(Graph g, Metrics metrics) {
+        this(g.n(), metrics);
+        SCCResult scc = new TarjanSCC(g, Metrics.NOOP).run();
+        for (int c = 0; c < scc.getCount(); c++) {
+            int rep = scc.member(scc.memberBegin(c));
+            for (int i = scc.memberBegin(c) + 1, end = scc.memberEnd(c); i < end; i++) {
+                int x = scc.member(i);
+                parent[x] = rep;
+                next[tail[rep]] = x;
+                tail[rep] = x;
+            }
+            size[rep] = scc.size(c);
+            ord[rep] = c;
+            node[c] = rep;
+        }
+        positions = components = scc.getCount();
+
+        Adjacency out = g.out();
+        for (int u = 0; u < n; u++) {
+            for (int i = out.begin(u), end = out.end(u); i < end; i++) {
+                int v = out.target(i);
+                link(u, v);
+                int cu = parent[u], cv = parent[v];
+                if (cu != cv) {
+                    cOut[cu] = push(cOut[cu], cOutSize[cu]++, v);
+                    cIn[cv] = push(cIn[cv], cInSize[cv]++, u);
+                }
+            }
+        }
+    }
+
+    public int n() { return n; }
+    public int edgeCount() { return edgeCount; }
+    public int componentCount() { return components; }
+
+    /** Root vertex of {@code v}'s component; stable until the next change that touches it. */
+    public int component(int v) { return find(v); }
+
+    public boolean sameComponent(int u, int v) { return find(u) == find(v); }
+
+    public int componentSize(int v) { return size[find(v)]; }
+
+    /** Position of {@code v}'s component in the condensation order; comparable, not dense. */
+    public int position(int v) { return ord[find(v)]; }
+
+    /**
+     * Inserts {@code u -> v} and returns true if it merged components.
+     */
+    public boolean addEdge(int u, int v) {
+        Objects.checkIndex(u, n);
+        Objects.checkIndex(v, n);
+        link(u, v);
+        int cu = find(u), cv = find(v);
+        if (cu == cv) return false;
+        cOut[cu] = push(cOut[cu], cOutSize[cu]++, v);
+        cIn[cv] = push(cIn[cv], cInSize[cv]++, u);
+        int lb = ord[cv], ub = ord[cu];
+        if (ub < lb) return false;
+
+        int sF = ++stamp;
+        int nf = forward(cv, ub, sF);
+        int sB = ++stamp;
+        int nb = backward(cu, lb, sB);
+        if (markF[cu] != sF) {
+            reorder(nf, nb, sF, sB, -1);
+            return false;
+        }
+        merge(nf, nb, sF, sB);
+        return true;
+    }
+
+    /** Removes one {@code u -> v} edge; see {@link #removeEdges}. */
+    public boolean removeEdge(int u, int v) {
+        return removeEdges(new int[]{u}, new int[]{v}) == 1;
+    }
+
+    /**
+     * Removes one occurrence of each {@code us[k] -> vs[k]} and returns how many existed.
+     * Components that lost an internal edge are re-split once for the whole batch.
+     */
+    public int removeEdges(int[] us, int[] vs) {
+        if (us.length != vs.length) throw new IllegalArgumentException("us and vs differ in length");
+        int s = ++stamp;
+        int affected = 0;
+        int removed = 0;
+        for (int k = 0; k < us.length; k++) {
+            int u = us[k], v = vs[k];
+            Objects.checkIndex(u, n);
+            Objects.checkIndex(v, n);
+            if (!removeFrom(vOut, vOutSize, u, v)) continue;
+            removeFrom(vIn, vInSize, v, u);
+            edgeCount--;
+            removed++;
+            int cu = find(u), cv = find(v);
+            if (cu != cv) {
+                removeFrom(cOut, cOutSize, cu, v);
+                removeFrom(cIn, cInSize, cv, u);
+            } else if (markB[cu] != s) {
+                markB[cu] = s;
+                fwd = push(fwd, affected++, cu);
+            }
+        }
+
+        Map<Integer, int[]> parts = new HashMap<>();
+        int[] roots = Arrays.copyOf(fwd, affected);
+        for (int c : roots) {
+            int[] p = split(c);
+            if (p.length > 1) parts.put(c, p);
+            else if (p[0] != c) {
+                ord[p[0]] = ord[c];
+                node[ord[c]] = p[0];
+            }
+        }
+        if (!parts.isEmpty()) relabel(parts);
+        return removed;
+    }
+
+    /** Component roots in topological order of the condensation. */
+    public int[] componentOrder() {
+        int[] order = new int[components];
+        for (int p = 0, k = 0; p < positions; p++) if (node[p] >= 0) order[k++] = node[p];
+        return order;
+    }
+
+    /** Current decomposition with dense ids in topological order, like the static algorithms. */
+    public SCCResult snapshot() {
+        int[] id = denseIds();
+        int[] comp = new int[n];
+        for (int v = 0; v < n; v++) comp[v] = id[find(v)];
+        return SCCResult.fromComponentIds(comp, components);
+    }
+
+    /** Condensation with the ids of {@link #snapshot()} and unit weights, built from the cross lists only. */
+    public Graph condensation() {
+        int[] id = denseIds();
+        int[] order = componentOrder();
+        int[] offsets = new int[components + 1];
+        int[] seen = new int[components];
+        Arrays.fill(seen, -1);
+        int total = 0;
+        for (int c : order) total += cOutSize[c];
+        int[] targets = new int[total];
+        int k = 0;
+        for (int i = 0; i < order.length; i++) {
+            int c = order[i];
+            offsets[i] = k;
+            int[] a = cOut[c];
+            for (int j = 0, end = cOutSize[c]; j < end; j++) {
+                int t = id[find(a[j])];
+                if (t != i && seen[t] != i) {
+                    seen[t] = i;
+                    targets[k++] = t;
+                }
+            }
+        }
+        offsets[components] = k;
+        int[] weights = new int[k];
+        Arrays.fill(weights, 1);
+        return new Graph(true, components, new CsrAdjacency(offsets, Arrays.copyOf(targets, k), weights), null, "unit");
+    }
+
+    private int[] denseIds() {
+        int[] id = new int[n];
+        for (int p = 0, k = 0; p < positions; p++) if (node[p] >= 0) id[node[p]] = k++;
+        return id;
+    }
+
+    private int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /** Components reachable from {@code from} with position {@code <= ub} into {@link #fwd}. */
+    private int forward(int from, int ub, int s) {
+        int count = 0, sp = 0;
+        markF[from] = s;
+        stack = push(stack, sp++, from);
+        while (sp > 0) {
+            int x = stack[--sp];
+            fwd = push(fwd, count++, x);
+            int[] a = cOut[x];
+            int keep = 0;
+            for (int i = 0, end = cOutSize[x]; i < end; i++) {
+                int y = find(a[i]);
+                if (y == x) continue;
+                a[keep++] = a[i];
+                if (markF[y] != s && ord[y] <= ub) {
+                    markF[y] = s;
+                    stack = push(stack, sp++, y);
+                }
+            }
+            cOutSize[x] = keep;
+        }
+        visited.add(count);
+        return count;
+    }
+
+    /** Components reaching {@code from} with position {@code >= lb} into {@link #bwd}. */
+    private int backward(int from, int lb, int s) {
+        int count = 0, sp = 0;
+        markB[from] = s;
+        stack = push(stack, sp++, from);
+        while (sp > 0) {
+            int x = stack[--sp];
+            bwd = push(bwd, count++, x);
+            int[] a = cIn[x];
+            int keep = 0;
+            for (int i = 0, end = cInSize[x]; i < end; i++) {
+                int y = find(a[i]);
+                if (y == x) continue;
+                a[keep++] = a[i];
+                if (markB[y] != s && ord[y] >= lb) {
+                    markB[y] = s;
+                    stack = push(stack, sp++, y);
+                }
+            }
+            cInSize[x] = keep;
+        }
+        visited.add(count);
+        return count;
+    }
+
+    /**
+     * Pools the slots of the backward and forward sets; backward-only components take the lowest,
+     * forward-only ones the highest, and {@code merged} (if any) the slot right after the backward ones.
+     * Leftover slots become holes.
+     */
+    private void reorder(int nf, int nb, int sF, int sB, int merged) {
+        sortByOrd(fwd, nf);
+        sortByOrd(bwd, nb);
+        int[] slots = new int[nf + nb];
+        int total = 0;
+        for (int i = 0; i < nf; i++) slots[total++] = ord[fwd[i]];
+        for (int i = 0; i < nb; i++) if (markF[bwd[i]] != sF) slots[total++] = ord[bwd[i]];
+        Arrays.sort(slots, 0, total);
+        for (int i = 0; i < total; i++) node[slots[i]] = -1;
+
+        int lo = 0;
+        for (int i = 0; i < nb; i++) if (markF[bwd[i]] != sF) place(bwd[i], slots[lo++]);
+        if (merged >= 0) place(merged, slots[lo]);
+        int hi = total;
+        for (int i = nf - 1; i >= 0; i--) if (markB[fwd[i]] != sB) place(fwd[i], slots[--hi]);
+    }
+
+    private void merge(int nf, int nb, int sF, int sB) {
+        int root = -1;
+        for (int i = 0; i < nf; i++) {
+            int c = fwd[i];
+            if (markB[c] == sB && (root < 0 || cOutSize[c] + cInSize[c] > cOutSize[root] + cInSize[root])) root = c;
+        }
+        int merged = 0;
+        for (int i = 0; i < nf; i++) {
+            int c = fwd[i];
+            if (markB[c] != sB || c == root) continue;
+            parent[c] = root;
+            size[root] += size[c];
+            next[tail[root]] = head[c];
+            tail[root] = tail[c];
+            cOut[root] = append(cOut[root], cOutSize[root], cOut[c], cOutSize[c]);
+            cOutSize[root] += cOutSize[c];
+            cIn[root] = append(cIn[root], cInSize[root], cIn[c], cInSize[c]);
+            cInSize[root] += cInSize[c];
+            cOut[c] = cIn[c] = null;
+            cOutSize[c] = cInSize[c] = 0;
+            merged++;
+        }
+        reorder(nf, nb, sF, sB, root);
+        components -= merged;
+        merges.add(merged);
+    }
+
+    /** Re-decomposes component {@code c} over its own members; returns the new roots in topological order. */
+    private int[] split(int c) {
+        int count = 0;
+        for (int x = head[c]; x >= 0; x = next[x]) stack = push(stack, count++, x);
+        int[] members = Arrays.copyOf(stack, count);
+        if (index == null) {
+            index = new int[n];
+            low = new int[n];
+            cursor = new int[n];
+        }
+        int s = ++stamp;
+        for (int x : members) {
+            markF[x] = s;
+            index[x] = -1;
+            parent[x] = x;
+            cOut[x] = cIn[x] = null;
+            cOutSize[x] = cInSize[x] = 0;
+        }
+
+        // Tarjan restricted to the members; parent[] doubles as the "assigned" flag (root != x once done).
+        int[] call = new int[count];
+        int[] scc = new int[count];
+        int[] roots = new int[count];
+        int parts = 0, nextIndex = 0;
+        for (int start : members) {
+            if (index[start] != -1) continue;
+            index[start] = low[start] = nextIndex++;
+            cursor[start] = 0;
+            int sp = 0, tp = 0;
+            call[sp++] = start;
+            scc[tp++] = start;
+            markB[start] = s;
+            while (sp > 0) {
+                int x = call[sp - 1];
+                if (cursor[x] < vOutSize[x]) {
+                    int y = vOut[x][cursor[x]++];
+                    if (markF[y] != s) continue;
+                    if (index[y] == -1) {
+                        index[y] = low[y] = nextIndex++;
+                        cursor[y] = 0;
+                        call[sp++] = y;
+                        scc[tp++] = y;
+                        markB[y] = s;
+                    } else if (markB[y] == s && index[y] < low[x]) {
+                        low[x] = index[y];
+                    }
+                    continue;
+                }
+                sp--;
+                if (sp > 0 && low[x] < low[call[sp - 1]]) low[call[sp - 1]] = low[x];
+                if (low[x] == index[x]) {
+                    int y;
+                    head[x] = tail[x] = x;
+                    next[x] = -1;
+                    size[x] = 0;
+                    do {
+                        y = scc[--tp];
+                        markB[y] = 0;
+                        parent[y] = x;
+                        size[x]++;
+                        if (y != x) {
+                            next[y] = -1;
+                            next[tail[x]] = y;
+                            tail[x] = y;
+                        }
+                    } while (y != x);
+                    roots[parts++] = x;
+                }
+            }
+        }
+
+        for (int x : members) {
+            int cx = parent[x];
+            for (int i = 0, end = vOutSize[x]; i < end; i++) {
+                int y = vOut[x][i];
+                if (find(y) != cx) cOut[cx] = push(cOut[cx], cOutSize[cx]++, y);
+            }
+            for (int i = 0, end = vInSize[x]; i < end; i++) {
+                int y = vIn[x][i];
+                if (find(y) != cx) cIn[cx] = push(cIn[cx], cInSize[cx]++, y);
+            }
+        }
+
+        // Tarjan completes sinks first.
+        int[] order = new int[parts];
+        for (int i = 0; i < parts; i++) order[i] = roots[parts - 1 - i];
+        if (parts > 1) {
+            components += parts - 1;
+            splits.add(parts - 1);
+        }
+        return order;
+    }
+
+    /** Compacts positions, expanding each split component into its parts. */
+    private void relabel(Map<Integer, int[]> parts) {
+        int[] old = Arrays.copyOf(node, positions);
+        int k = 0;
+        for (int c : old) {
+            if (c < 0) continue;
+            int[] p = parts.get(c);
+            if (p == null) place(c, k++);
+            else for (int x : p) place(x, k++);
+        }
+        positions = k;
+    }
+
+    private void place(int c, int p) {
+        ord[c] = p;
+        node[p] = c;
+    }
+
+    private void sortByOrd(int[] cs, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) keys[i] = ((long) ord[cs[i]] << 32) | cs[i];
+        Arrays.sort(keys);
+        for (int i = 0; i < count; i++) cs[i] = (int) keys[i];
+    }
+
+    private void link(int u, int v) {
+        vOut[u] = push(vOut[u], vOutSize[u]++, v);
+        vIn[v] = push(vIn[v], vInSize[v]++, u);
+        edgeCount++;
+    }
+
+    private static boolean removeFrom(int[][] lists, int[] sizes, int u, int v) {
+        int[] a = lists[u];
+        for (int i = 0; i < sizes[u]; i++) {
+            if (a[i] == v) {
+                a[i] = a[--sizes[u]];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] append(int[] a, int size, int[] b, int bSize) {
+        if (bSize == 0) return a;
+        if (a == null || size + bSize > a.length) a = Arrays.copyOf(a == null ? new int[0] : a, Math.max(size + bSize, size * 2));
+        System.arraycopy(b, 0, a, size, bSize);
+        return a;
+    }
+
+    private static int[] push(int[] a, int i, int x) {
+        if (a == null) a = new int[2];
+        else if (i == a.length) a = Arrays.copyOf(a, a.length * 2);
+        a[i] = x;
+        return a;
+    }
+}
@@ -1,10 +1,12 @@
 package graph.scc;
 
+import graph.core.EdgeCursor;
 import graph.core.Graph;
 import utils.Metrics;
-import java.util.*;
 
-public class KosarajuSCC {
+import java.util.Arrays;
+
+public class KosarajuSCC implements SCCAlgorithm {
 
     private final Graph g;
     private final Metrics metrics;
@@ -14,47 +16,90 @@ public class KosarajuSCC {
         this.metrics = metrics;
     }
 
+    @Override
     public SCCResult run() {
         int n = g.n();
-        boolean[] visited = new boolean[n];
-        Deque<Integer> order = new ArrayDeque<>();
-
-        for (int i = 0; i < n; i++) {
-            if (!visited[i]) dfs1(i, visited, order);
-        }
-
-        Arrays.fill(visited, false);
-        List<List<Integer>> comps = new ArrayList<>();
+        int[] stack = new int[n];
+        // Per-vertex scan state, so storage that is only readable sequentially works too.
+        long[] cursor = new long[n];
+        int[] order = new int[n];
+        int orderLen = dfs1(stack, cursor, order);
 
-        while (!order.isEmpty()) {
-            int v = order.pop();
-            if (!visited[v]) {
-                List<Integer> comp = new ArrayList<>();
-                dfs2(v, visited, comp);
-                comps.add(comp);
-            }
+        int[] comp = new int[n];
+        Arrays.fill(comp, -1);
+        int count = 0;
+        for (int k = orderLen - 1; k >= 0; k--) {
+            int v = order[k];
+            if (comp[v] == -1) dfs2(v, count++, comp, stack, cursor);
         }
+        metrics.inc("dfs2_calls", n);
 
-        return new SCCResult(comps);
+        return SCCResult.fromComponentIds(comp, count);
     }
 
-    private void dfs1(int v, boolean[] visited, Deque<Integer> order) {
-        visited[v] = true;
-        metrics.inc("dfs1_calls", 1);
-        for (int[] e : g.adjOut().get(v)) {
-            int to = e[0];
-            if (!visited[to]) dfs1(to, visited, order);
+    private int dfs1(int[] stack, long[] cursor, int[] order) {
+        EdgeCursor out = g.out().cursor();
+        int n = g.n();
+        boolean[] visited = new boolean[n];
+        int orderLen = 0;
+
+        for (int s = 0; s < n; s++) {
+            if (visited[s]) continue;
+            visited[s] = true;
+            out.reset(s);
+            cursor[s] = out.position();
+            int sp = 0;
+            stack[sp++] = s;
+            while (sp > 0) {
+                int v = stack[sp - 1];
+                out.resume(v, cursor[v]);
+                boolean descended = false;
+                while (out.next()) {
+                    int to = out.target();
+                    if (!visited[to]) {
+                        visited[to] = true;
+                        cursor[v] = out.position();
+                        out.reset(to);
+                        cursor[to] = out.position();
+                        stack[sp++] = to;
+                        descended = true;
+                        break;
+                    }
+                }
+                if (!descended) {
+                    sp--;
+                    order[orderLen++] = v;
+                }
+            }
         }
-        order.push(v);
+        metrics.inc("dfs1_calls", n);
+        return orderLen;
     }
 
-    private void dfs2(int v, boolean[] visited, List<Integer> comp) {
-        visited[v] = true;
-        comp.add(v);
-        metrics.inc("dfs2_calls", 1);
-        for (int[] e : g.adjIn().get(v)) {
-            int from = e[0];
-            if (!visited[from]) dfs2(from, visited, comp);
+    private void dfs2(int root, int id, int[] comp, int[] stack, long[] cursor) {
+        EdgeCursor in = g.in().cursor();
+        comp[root] = id;
+        in.reset(root);
+        cursor[root] = in.position();
+        int sp = 0;
+        stack[sp++] = root;
+        while (sp > 0) {
+            int v = stack[sp - 1];
+            in.resume(v, cursor[v]);
+            boolean descended = false;
+            while (in.next()) {
+                int from = in.target();
+                if (comp[from] == -1) {
+                    comp[from] = id;
+                    cursor[v] = in.position();
+                    in.reset(from);
+                    cursor[from] = in.position();
+                    stack[sp++] = from;
+                    descended = true;
+                    break;
+                }
+            }
+            if (!descended) sp--;
         }
     }
 }
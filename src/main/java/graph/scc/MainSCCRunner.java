@@ -2,22 +2,15 @@ package graph.scc;
 
 import graph.core.Graph;
 import utils.GraphReader;
-import utils.Metrics;
+import utils.SimpleMetrics;
 
 import java.nio.file.Path;
-import java.util.*;
 
 public class MainSCCRunner {
 
-    static class DummyMetrics implements Metrics {
-        private final Map<String, Long> map = new HashMap<>();
-        public void inc(String k, long d) { map.put(k, map.getOrDefault(k, 0L) + d); }
-        public long get(String k) { return map.getOrDefault(k, 0L); }
-    }
-
     public static void main(String[] args) throws Exception {
         Graph g = GraphReader.fromJsonFile(Path.of("data/small_cyclic.json"));
-        DummyMetrics m = new DummyMetrics();
+        SimpleMetrics m = new SimpleMetrics();
 
         KosarajuSCC scc = new KosarajuSCC(g, m);
         SCCResult res = scc.run();
@@ -33,7 +26,7 @@ public class MainSCCRunner {
 
         System.out.println("\nCondensation DAG");
         System.out.println("DAG nodes (SCCs): " + dag.n());
-        System.out.println("DAG edges: " + dag.edges().size());
+        System.out.println("DAG edges: " + dag.m());
         cg.printCondensationSummary(dag);
     }
 }
@@ -0,0 +1,392 @@
+package graph.scc;
+
+import graph.core.Adjacency;
+import graph.core.EdgeCursor;
+import graph.core.Graph;
+import utils.Metrics;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Forward-backward SCC decomposition on a ForkJoin pool.
+ * <p>
+ * Vertices with no live predecessor or successor are trimmed first as trivial components.
+ * The remaining vertices are split around a pivot into its SCC, the forward-only set,
+ * the backward-only set and the rest; the three sets are solved independently.
+ * Small sets fall back to a sequential Tarjan. Component ids follow the same
+ * topological numbering as {@link KosarajuSCC}. Every scan goes through an {@link EdgeCursor}
+ * (one per task), so compressed adjacencies are decoded sequentially.
+ */
+public class ParallelSCC implements SCCAlgorithm {
+
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+    private static final int GRAIN = 1024;
+    private static final int ROOT = 0;
+    private static final int TRIMMED = -1;
+    private static final int FINISHED = -2;
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private final Graph g;
+    private final Metrics metrics;
+    private final ForkJoinPool pool;
+
+    private Adjacency out;
+    private Adjacency in;
+    private AtomicIntegerArray color;
+    private final AtomicInteger nextColor = new AtomicInteger(ROOT + 1);
+    private int[] index;
+    private int[] low;
+    private long[] cursor;
+
+    public ParallelSCC(Graph g, Metrics metrics) {
+        this(g, metrics, ForkJoinPool.commonPool());
+    }
+
+    public ParallelSCC(Graph g, Metrics metrics, ForkJoinPool pool) {
+        this.g = g;
+        this.metrics = metrics;
+        this.pool = pool;
+    }
+
+    @Override
+    public SCCResult run() {
+        int n = g.n();
+        out = g.out();
+        in = g.in();
+        color = new AtomicIntegerArray(n);
+        index = new int[n];
+        low = new int[n];
+        cursor = new long[n];
+
+        long t0 = System.nanoTime();
+        IntBuffer trimmed = trim();
+        long t1 = System.nanoTime();
+
+        IntBuffer rest = new IntBuffer(n - trimmed.size);
+        for (int v = 0; v < n; v++) if (color.get(v) == ROOT) rest.add(v);
+        Part root = rest.size == 0 ? Part.EMPTY : pool.invoke(new Solve(rest.toArray(), ROOT));
+        long t2 = System.nanoTime();
+
+        int[] comp = new int[n];
+        int count = 0;
+        for (int k = 0; k < trimmed.size; k++) {
+            int x = trimmed.data[k];
+            if (x >= 0) comp[x] = count++;
+        }
+        Deque<Part> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Part p = stack.pop();
+            if (p.members != null) {
+                for (int v : p.members) comp[v] = count;
+                count++;
+            } else {
+                for (int k = p.children.length - 1; k >= 0; k--) stack.push(p.children[k]);
+            }
+        }
+        for (int k = trimmed.size - 1; k >= 0; k--) {
+            int x = trimmed.data[k];
+            if (x < 0) comp[~x] = count++;
+        }
+        long t3 = System.nanoTime();
+
+        metrics.inc("time_ns_scc_trim", t1 - t0);
+        metrics.inc("time_ns_scc_fwbw", t2 - t1);
+        metrics.inc("time_ns_scc_assemble", t3 - t2);
+        metrics.inc("scc_trimmed", trimmed.size);
+        metrics.inc("scc_threads", pool.getParallelism());
+        return SCCResult.fromComponentIds(comp, count);
+    }
+
+    /**
+     * Peels vertices whose live in- or out-degree drops to zero. Sources are recorded
+     * as {@code v}, sinks as {@code ~v}, both in removal order. Each round is sorted by
+     * vertex id and classified once it is complete, so the numbering does not depend on
+     * which thread trimmed a vertex first.
+     */
+    private IntBuffer trim() {
+        int n = g.n();
+        AtomicIntegerArray indeg = new AtomicIntegerArray(n);
+        AtomicIntegerArray outdeg = new AtomicIntegerArray(n);
+        IntBuffer frontier = pool.invoke(new Seed(indeg, outdeg, 0, n));
+        IntBuffer removed = new IntBuffer(Math.max(16, frontier.size));
+        while (frontier.size > 0) {
+            removed.addAll(frontier);
+            frontier = pool.invoke(new Peel(indeg, outdeg, frontier.data, 0, frontier.size));
+            canonicalize(frontier, indeg);
+        }
+        return removed;
+    }
+
+    /** Sorts a finished round by vertex and marks a vertex as a source iff no live predecessor is left. */
+    private static void canonicalize(IntBuffer round, AtomicIntegerArray indeg) {
+        int[] a = round.data;
+        for (int k = 0; k < round.size; k++) if (a[k] < 0) a[k] = ~a[k];
+        Arrays.sort(a, 0, round.size);
+        for (int k = 0; k < round.size; k++) if (indeg.get(a[k]) != 0) a[k] = ~a[k];
+    }
+
+    private final class Seed extends RecursiveTask<IntBuffer> {
+        private final AtomicIntegerArray indeg, outdeg;
+        private final int lo, hi;
+
+        Seed(AtomicIntegerArray indeg, AtomicIntegerArray outdeg, int lo, int hi) {
+            this.indeg = indeg; this.outdeg = outdeg; this.lo = lo; this.hi = hi;
+        }
+
+        @Override
+        protected IntBuffer compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                Seed left = new Seed(indeg, outdeg, lo, mid);
+                left.fork();
+                IntBuffer right = new Seed(indeg, outdeg, mid, hi).compute();
+                return left.join().addAll(right);
+            }
+            IntBuffer buf = new IntBuffer(16);
+            for (int v = lo; v < hi; v++) {
+                int din = in.degree(v), dout = out.degree(v);
+                indeg.set(v, din);
+                outdeg.set(v, dout);
+                if (din == 0) { color.set(v, TRIMMED); buf.add(v); }
+                else if (dout == 0) { color.set(v, TRIMMED); buf.add(~v); }
+            }
+            return buf;
+        }
+    }
+
+    private final class Peel extends RecursiveTask<IntBuffer> {
+        private final AtomicIntegerArray indeg, outdeg;
+        private final int[] frontier;
+        private final int lo, hi;
+
+        Peel(AtomicIntegerArray indeg, AtomicIntegerArray outdeg, int[] frontier, int lo, int hi) {
+            this.indeg = indeg; this.outdeg = outdeg; this.frontier = frontier; this.lo = lo; this.hi = hi;
+        }
+
+        @Override
+        protected IntBuffer compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                Peel left = new Peel(indeg, outdeg, frontier, lo, mid);
+                left.fork();
+                IntBuffer right = new Peel(indeg, outdeg, frontier, mid, hi).compute();
+                return left.join().addAll(right);
+            }
+            IntBuffer buf = new IntBuffer(16);
+            EdgeCursor succ = out.cursor(), pred = in.cursor();
+            for (int k = lo; k < hi; k++) {
+                int u = frontier[k] >= 0 ? frontier[k] : ~frontier[k];
+                succ.reset(u);
+                while (succ.next()) {
+                    int w = succ.target();
+                    // Decrement even if w was already trimmed this round: canonicalize reads indeg.
+                    if (indeg.decrementAndGet(w) == 0 && color.compareAndSet(w, ROOT, TRIMMED)) buf.add(w);
+                }
+                pred.reset(u);
+                while (pred.next()) {
+                    int w = pred.target();
+                    if (outdeg.decrementAndGet(w) == 0 && color.compareAndSet(w, ROOT, TRIMMED)) buf.add(~w);
+                }
+            }
+            return buf;
+        }
+    }
+
+    /** Solves the subproblem made of {@code verts}, all currently colored {@code c}. */
+    private final class Solve extends RecursiveTask<Part> {
+        private final int[] verts;
+        private final int c;
+
+        Solve(int[] verts, int c) { this.verts = verts; this.c = c; }
+
+        @Override
+        protected Part compute() {
+            if (verts.length == 1) return new Part(verts);
+            if (verts.length <= SEQUENTIAL_THRESHOLD) return tarjan(verts, c);
+
+            int pivot = verts[0];
+            int fw = nextColor.getAndIncrement();
+            int scc = nextColor.getAndIncrement();
+            int bw = nextColor.getAndIncrement();
+
+            color.set(pivot, fw);
+            reach(pivot, out, c, fw, NONE, NONE);
+            color.set(pivot, scc);
+            reach(pivot, in, fw, scc, c, bw);
+
+            int nf = 0, nb = 0, ns = 0, nr = 0;
+            for (int v : verts) {
+                int cv = color.get(v);
+                if (cv == fw) nf++;
+                else if (cv == bw) nb++;
+                else if (cv == scc) ns++;
+                else nr++;
+            }
+            int[] fwV = new int[nf], bwV = new int[nb], sccV = new int[ns], restV = new int[nr];
+            nf = nb = ns = nr = 0;
+            for (int v : verts) {
+                int cv = color.get(v);
+                if (cv == fw) fwV[nf++] = v;
+                else if (cv == bw) bwV[nb++] = v;
+                else if (cv == scc) sccV[ns++] = v;
+                else restV[nr++] = v;
+            }
+            for (int v : sccV) color.set(v, FINISHED);
+
+            Solve bwTask = new Solve(bwV, bw), restTask = new Solve(restV, c), fwTask = new Solve(fwV, fw);
+            if (nb > 0) bwTask.fork();
+            if (nr > 0) restTask.fork();
+            Part fwPart = nf > 0 ? fwTask.compute() : Part.EMPTY;
+            Part restPart = nr > 0 ? restTask.join() : Part.EMPTY;
+            Part bwPart = nb > 0 ? bwTask.join() : Part.EMPTY;
+            // No edge leads from rest into bw/scc, nor from scc/fw into rest.
+            return new Part(bwPart, new Part(sccV), restPart, fwPart);
+        }
+    }
+
+    /** Level-synchronous BFS that recolors {@code from1 -> to1} (else {@code from2 -> to2}) as it goes. */
+    private void reach(int root, Adjacency adj, int from1, int to1, int from2, int to2) {
+        int[] frontier = {root};
+        int size = 1;
+        while (size > 0) {
+            IntBuffer next = new Expand(adj, frontier, 0, size, from1, to1, from2, to2).compute();
+            frontier = next.data;
+            size = next.size;
+        }
+    }
+
+    private final class Expand extends RecursiveTask<IntBuffer> {
+        private final Adjacency adj;
+        private final int[] frontier;
+        private final int lo, hi;
+        private final int from1, to1, from2, to2;
+
+        Expand(Adjacency adj, int[] frontier, int lo, int hi, int from1, int to1, int from2, int to2) {
+            this.adj = adj; this.frontier = frontier; this.lo = lo; this.hi = hi;
+            this.from1 = from1; this.to1 = to1; this.from2 = from2; this.to2 = to2;
+        }
+
+        @Override
+        protected IntBuffer compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                Expand left = new Expand(adj, frontier, lo, mid, from1, to1, from2, to2);
+                left.fork();
+                IntBuffer right = new Expand(adj, frontier, mid, hi, from1, to1, from2, to2).compute();
+                return left.join().addAll(right);
+            }
+            IntBuffer buf = new IntBuffer(16);
+            EdgeCursor c = adj.cursor();
+            for (int k = lo; k < hi; k++) {
+                int u = frontier[k];
+                c.reset(u);
+                while (c.next()) {
+                    int w = c.target();
+                    int cw = color.get(w);
+                    if ((cw == from1 && color.compareAndSet(w, from1, to1))
+                            || (cw == from2 && color.compareAndSet(w, from2, to2))) buf.add(w);
+                }
+            }
+            return buf;
+        }
+    }
+
+    /** Iterative Tarjan restricted to vertices colored {@code c}; returns components in topological order. */
+    private Part tarjan(int[] verts, int c) {
+        int len = verts.length;
+        for (int v : verts) index[v] = -1;
+        int[] callStack = new int[len];
+        int[] sccStack = new int[len];
+        Part[] found = new Part[len];
+        int nFound = 0, nextIndex = 0, tp = 0;
+        EdgeCursor edges = out.cursor();
+
+        for (int s : verts) {
+            if (index[s] != -1) continue;
+            index[s] = low[s] = nextIndex++;
+            edges.reset(s);
+            cursor[s] = edges.position();
+            sccStack[tp++] = s;
+            int sp = 0;
+            callStack[sp++] = s;
+
+            while (sp > 0) {
+                int v = callStack[sp - 1];
+                edges.resume(v, cursor[v]);
+                boolean descended = false;
+                while (edges.next()) {
+                    int w = edges.target();
+                    if (color.get(w) != c) continue;
+                    if (index[w] == -1) {
+                        cursor[v] = edges.position();
+                        index[w] = low[w] = nextIndex++;
+                        edges.reset(w);
+                        cursor[w] = edges.position();
+                        sccStack[tp++] = w;
+                        callStack[sp++] = w;
+                        descended = true;
+                        break;
+                    } else if (index[w] < low[v]) {
+                        low[v] = index[w];
+                    }
+                }
+                if (descended) continue;
+                sp--;
+                if (sp > 0) {
+                    int parent = callStack[sp - 1];
+                    if (low[v] < low[parent]) low[parent] = low[v];
+                }
+                if (low[v] == index[v]) {
+                    int start = tp;
+                    do { tp--; } while (sccStack[tp] != v);
+                    int[] members = Arrays.copyOfRange(sccStack, tp, start);
+                    for (int w : members) color.set(w, FINISHED);
+                    found[nFound++] = new Part(members);
+                }
+            }
+        }
+
+        Part[] ordered = new Part[nFound];
+        for (int k = 0; k < nFound; k++) ordered[k] = found[nFound - 1 - k];
+        return new Part(ordered);
+    }
+
+    /** Ordered tree of components; leaves hold the members of one component. */
+    private static final class Part {
+        static final Part EMPTY = new Part(new Part[0]);
+
+        final int[] members;
+        final Part[] children;
+
+        Part(int[] members) { this.members = members; this.children = null; }
+        Part(Part... children) { this.members = null; this.children = children; }
+    }
+
+    private static final class IntBuffer {
+        int[] data;
+        int size;
+
+        IntBuffer(int capacity) { data = new int[Math.max(1, capacity)]; }
+
+        void add(int x) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = x;
+        }
+
+        IntBuffer addAll(IntBuffer other) {
+            if (size + other.size > data.length) data = Arrays.copyOf(data, Math.max(size + other.size, size * 2));
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        int[] toArray() { return Arrays.copyOf(data, size); }
+    }
+}
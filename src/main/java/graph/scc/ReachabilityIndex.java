@@ -0,0 +1,298 @@
+package graph.scc;
+
+import graph.core.CsrAdjacency;
+import graph.core.Graph;
+import utils.ArrayIO;
+import utils.Metrics;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Answers "does {@code u} reach {@code v}?" over the condensation of a graph.
+ * <p>
+ * Vertices in one SCC reach each other; otherwise the question is asked of their components in
+ * the condensation DAG, whose components are numbered by topological position so a later
+ * component never reaches an earlier one. Small condensations get a full bit-parallel
+ * transitive closure (one bit test per query). Larger ones get GRAIL interval labels: each of
+ * {@code k} randomized post-order traversals gives every component an interval that contains the
+ * intervals of everything it reaches, so a non-contained interval proves unreachability in
+ * O(k); only contained pairs fall back to a DFS that is pruned by the same labels.
+ * <p>
+ * The index is immutable and safe for concurrent queries. {@link #write(Path)} and
+ * {@link #read(Path)} store it in a compact binary file so it need not be rebuilt on startup.
+ */
+public final class ReachabilityIndex {
+
+    public static final String EXTENSION = ".reach";
+    /** Closure rows are kept up to this many bytes; above it the index switches to GRAIL labels. */
+    public static final long DEFAULT_CLOSURE_BYTES = 16L << 20;
+    public static final int DEFAULT_LABELINGS = 3;
+
+    private static final int MAGIC = 0x48434552; // "REAC"
+    private static final int VERSION = 1;
+    private static final int CHUNK = 1 << 16;
+
+    private final int[] comp;      // vertex -> component, by topological position
+    private final int count;
+
+    // Closure mode: row c holds the components reachable from c, as words [c >>> 6, words).
+    private final long[] closure;
+    private final int words;
+
+    // GRAIL mode: condensation CSR plus k intervals per component, stored as lo/hi pairs.
+    private final int[] offsets;
+    private final int[] targets;
+    private final int k;
+    private final int[] lo;
+    private final int[] hi;
+
+    private final ThreadLocal<int[][]> workspace;
+
+    private ReachabilityIndex(int[] comp, int count, long[] closure, int words,
+                              int[] offsets, int[] targets, int k, int[] lo, int[] hi) {
+        this.comp = comp;
+        this.count = count;
+        this.closure = closure;
+        this.words = words;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.k = k;
+        this.lo = lo;
+        this.hi = hi;
+        // Per-thread DFS stamps (the extra last slot holds the generation) and stack for GRAIL fallbacks.
+        this.workspace = ThreadLocal.withInitial(() -> new int[][]{new int[count + 1], new int[Math.max(1, count)]});
+    }
+
+    public static ReachabilityIndex build(Graph g, SCCResult scc, Metrics metrics) {
+        return build(g, scc, metrics, DEFAULT_CLOSURE_BYTES, DEFAULT_LABELINGS);
+    }
+
+    /** {@code closureBytes = 0} always builds GRAIL labels; {@code labelings} is GRAIL's {@code k}. */
+    public static ReachabilityIndex build(Graph g, SCCResult scc, Metrics metrics, long closureBytes, int labelings) {
+        if (labelings < 1) throw new IllegalArgumentException("labelings must be positive");
+        long t0 = System.nanoTime();
+        // Component ids are already topological positions (SCCAlgorithm's contract), so the
+        // condensation's own CSR is used as is.
+        CsrAdjacency out = (CsrAdjacency) new CondensationGraph(g, scc).buildCondensedGraph().out();
+        int c = scc.getCount();
+        int[] comp = scc.componentOf();
+        int[] offsets = out.offsets();
+        int[] targets = out.targets();
+        for (int u = 0; u < c; u++) {
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                if (targets[i] <= u) throw new IllegalArgumentException("component ids are not in topological order");
+            }
+        }
+
+        int words = (c + 63) >>> 6;
+        ReachabilityIndex index;
+        if ((long) c * words * 8 <= closureBytes && (long) c * words < Integer.MAX_VALUE - 8) {
+            index = new ReachabilityIndex(comp, c, closure(c, words, offsets, targets), words, null, null, 0, null, null);
+        } else {
+            int[] lo = new int[labelings * c];
+            int[] hi = new int[labelings * c];
+            for (int j = 0; j < labelings; j++) label(c, offsets, targets, j, lo, hi);
+            index = new ReachabilityIndex(comp, c, null, 0, offsets, targets, labelings, lo, hi);
+        }
+        metrics.inc("reach_build_ns", System.nanoTime() - t0);
+        metrics.inc("reach_index_bytes", index.bytes());
+        return index;
+    }
+
+    private static long[] closure(int c, int words, int[] offsets, int[] targets) {
+        long[] rows = new long[c * words];
+        for (int u = c - 1; u >= 0; u--) {
+            int base = u * words;
+            rows[base + (u >>> 6)] |= 1L << u;
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int v = targets[i];
+                // Row v has no bits below v.
+                for (int w = v >>> 6, vb = v * words; w < words; w++) rows[base + w] |= rows[vb + w];
+            }
+        }
+        return rows;
+    }
+
+    /** Labeling {@code j}: iterative post-order DFS with rotated child order, {@code lo = min rank below}. */
+    private static void label(int c, int[] offsets, int[] targets, int j, int[] lo, int[] hi) {
+        int base = j * c;
+        int[] cursor = new int[c];
+        int[] start = new int[c];
+        boolean[] seen = new boolean[c];
+        int[] stack = new int[c];
+        Random rnd = new Random(0x5eedL + j);
+        int rank = 0;
+        for (int r = 0; r < c; r++) {
+            int root = (j & 1) == 0 ? r : c - 1 - r;
+            if (seen[root]) continue;
+            int sp = 0;
+            stack[sp++] = open(root, j, offsets, cursor, start, seen, lo, base, rnd);
+            while (sp > 0) {
+                int u = stack[sp - 1];
+                int deg = offsets[u + 1] - offsets[u];
+                if (cursor[u] < deg) {
+                    int v = targets[offsets[u] + (start[u] + cursor[u]++) % deg];
+                    if (!seen[v]) stack[sp++] = open(v, j, offsets, cursor, start, seen, lo, base, rnd);
+                    else if (lo[base + v] < lo[base + u]) lo[base + u] = lo[base + v];
+                    continue;
+                }
+                sp--;
+                hi[base + u] = ++rank;
+                if (rank < lo[base + u]) lo[base + u] = rank;
+                if (sp > 0 && lo[base + u] < lo[base + stack[sp - 1]]) lo[base + stack[sp - 1]] = lo[base + u];
+            }
+        }
+    }
+
+    private static int open(int u, int j, int[] offsets, int[] cursor, int[] start, boolean[] seen,
+                            int[] lo, int base, Random rnd) {
+        int deg = offsets[u + 1] - offsets[u];
+        seen[u] = true;
+        cursor[u] = 0;
+        start[u] = j > 0 && deg > 1 ? rnd.nextInt(deg) : 0;
+        lo[base + u] = Integer.MAX_VALUE;
+        return u;
+    }
+
+    public int vertexCount() { return comp.length; }
+    public int componentCount() { return count; }
+
+    /** Component of {@code v}, numbered by topological position in the condensation. */
+    public int componentOf(int v) { return comp[v]; }
+
+    public boolean sameComponent(int u, int v) { return comp[u] == comp[v]; }
+
+    /** Whether the closure is materialized, so every query is a single bit test. */
+    public boolean isClosure() { return closure != null; }
+
+    /** True if there is a directed path from {@code u} to {@code v} (always true for {@code u == v}). */
+    public boolean reachable(int u, int v) {
+        return reachableComponent(comp[u], comp[v]);
+    }
+
+    public boolean reachableComponent(int cu, int cv) {
+        if (cu == cv) return true;
+        if (cu > cv) return false;
+        if (closure != null) return (closure[cu * words + (cv >>> 6)] & (1L << cv)) != 0;
+        if (!contains(cu, cv)) return false;
+
+        int[][] ws = workspace.get();
+        int[] stamp = ws[0], stack = ws[1];
+        int gen = ++stamp[count];
+        if (gen == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            gen = stamp[count] = 1;
+        }
+        int sp = 0;
+        stack[sp++] = cu;
+        stamp[cu] = gen;
+        while (sp > 0) {
+            int x = stack[--sp];
+            for (int i = offsets[x]; i < offsets[x + 1]; i++) {
+                int y = targets[i];
+                if (y == cv) return true;
+                if (y > cv || stamp[y] == gen || !contains(y, cv)) continue;
+                stamp[y] = gen;
+                stack[sp++] = y;
+            }
+        }
+        return false;
+    }
+
+    /** Every labeling's interval of {@code a} contains that of {@code b}; necessary for {@code a ->* b}. */
+    private boolean contains(int a, int b) {
+        for (int j = 0, base = 0; j < k; j++, base += count) {
+            if (lo[base + b] < lo[base + a] || hi[base + b] > hi[base + a]) return false;
+        }
+        return true;
+    }
+
+    /** Estimated heap footprint of the index arrays. */
+    public long bytes() {
+        long b = 4L * comp.length;
+        if (closure != null) return b + 8L * closure.length;
+        return b + 4L * (offsets.length + targets.length + lo.length + hi.length);
+    }
+
+    /*
+     * File layout (big-endian): int magic "REAC", int version, int mode (0 closure, 1 GRAIL),
+     * int n, int components, int[n] component ids, then
+     * closure: int words, long[components * words] rows;
+     * GRAIL: int k, int[components + 1] offsets, int[edges] targets, int[k * components] lo, hi.
+     * Arrays are a length followed by the elements.
+     */
+
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), CHUNK))) {
+            write(out);
+        }
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(closure != null ? 0 : 1);
+        out.writeInt(comp.length);
+        out.writeInt(count);
+        ArrayIO.writeInts(out, comp);
+        if (closure != null) {
+            out.writeInt(words);
+            ArrayIO.writeLongs(out, closure);
+        } else {
+            out.writeInt(k);
+            ArrayIO.writeInts(out, offsets);
+            ArrayIO.writeInts(out, targets);
+            ArrayIO.writeInts(out, lo);
+            ArrayIO.writeInts(out, hi);
+        }
+    }
+
+    public static ReachabilityIndex read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), CHUNK))) {
+            return read(in, Files.size(path));
+        }
+    }
+
+    public static ReachabilityIndex read(DataInputStream in) throws IOException {
+        return read(in, Long.MAX_VALUE);
+    }
+
+    // limit bounds every stored array, so a damaged length fails before it is allocated.
+    private static ReachabilityIndex read(DataInputStream in, long limit) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("not a reachability index");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("unsupported reachability index version " + version);
+        int mode = in.readInt();
+        int n = in.readInt();
+        int count = in.readInt();
+        int[] comp = ints(in, limit);
+        if (comp.length != n) throw new IOException("corrupt reachability index");
+        if (mode == 0) {
+            int words = in.readInt();
+            long[] closure = longs(in, limit);
+            if (closure.length != (long) count * words) throw new IOException("corrupt reachability index");
+            return new ReachabilityIndex(comp, count, closure, words, null, null, 0, null, null);
+        }
+        int k = in.readInt();
+        int[] offsets = ints(in, limit), targets = ints(in, limit), lo = ints(in, limit), hi = ints(in, limit);
+        if (offsets.length != count + 1 || lo.length != k * count || hi.length != lo.length)
+            throw new IOException("corrupt reachability index");
+        return new ReachabilityIndex(comp, count, null, 0, offsets, targets, k, lo, hi);
+    }
+
+    private static int[] ints(DataInputStream in, long limit) throws IOException {
+        int[] a = ArrayIO.readInts(in, limit);
+        if (a == null) throw new IOException("corrupt reachability index");
+        return a;
+    }
+
+    private static long[] longs(DataInputStream in, long limit) throws IOException {
+        long[] a = ArrayIO.readLongs(in, limit);
+        if (a == null) throw new IOException("corrupt reachability index");
+        return a;
+    }
+}
@@ -0,0 +1,9 @@
+package graph.scc;
+
+public interface SCCAlgorithm {
+    /**
+     * Component ids are numbered in topological order of the condensation, and each component's
+     * members are listed in ascending vertex id, so every implementation returns the same result.
+     */
+    SCCResult run();
+}
@@ -0,0 +1,22 @@
+package graph.scc;
+
+import graph.core.Graph;
+import utils.Metrics;
+
+public enum SCCMode {
+    KOSARAJU,
+    TARJAN,
+    PARALLEL;
+
+    public SCCAlgorithm create(Graph g, Metrics metrics) {
+        return switch (this) {
+            case KOSARAJU -> new KosarajuSCC(g, metrics);
+            case TARJAN -> new TarjanSCC(g, metrics);
+            case PARALLEL -> new ParallelSCC(g, metrics);
+        };
+    }
+
+    public static SCCMode parse(String name) {
+        return valueOf(name.trim().toUpperCase(java.util.Locale.ROOT));
+    }
+}
@@ -2,25 +2,99 @@ package graph.scc;
 
 import java.util.*;
 
+/**
+ * Components stored CSR-style: members of component {@code c} are
+ * {@code member(i)} for {@code i} in {@code [memberBegin(c), memberEnd(c))}.
+ */
 public class SCCResult {
-    private final List<List<Integer>> components;
     private final int count;
+    private final int[] componentOf;
+    private final int[] memberOffsets;
+    private final int[] members;
+    private volatile List<List<Integer>> components;
 
     public SCCResult(List<List<Integer>> components) {
-        this.components = components;
         this.count = components.size();
+        int n = 0;
+        for (List<Integer> comp : components) n += comp.size();
+        this.componentOf = new int[n];
+        this.memberOffsets = new int[count + 1];
+        this.members = new int[n];
+        int k = 0;
+        for (int c = 0; c < count; c++) {
+            memberOffsets[c] = k;
+            for (int v : components.get(c)) {
+                componentOf[v] = c;
+                members[k++] = v;
+            }
+        }
+        memberOffsets[count] = k;
     }
 
+    private SCCResult(int count, int[] componentOf, int[] memberOffsets, int[] members) {
+        this.count = count;
+        this.componentOf = componentOf;
+        this.memberOffsets = memberOffsets;
+        this.members = members;
+    }
+
+    /** Groups vertices by component id; members of each component are listed in ascending order. */
+    public static SCCResult fromComponentIds(int[] componentOf, int count) {
+        int n = componentOf.length;
+        int[] offsets = new int[count + 1];
+        for (int v = 0; v < n; v++) offsets[componentOf[v] + 1]++;
+        for (int c = 0; c < count; c++) offsets[c + 1] += offsets[c];
+        int[] pos = Arrays.copyOf(offsets, count);
+        int[] members = new int[n];
+        for (int v = 0; v < n; v++) members[pos[componentOf[v]]++] = v;
+        return new SCCResult(count, componentOf, offsets, members);
+    }
+
+    /** Boxed view, built on first call. Prefer the index-based accessors on large graphs. */
     public List<List<Integer>> getComponents() {
-        return components;
+        List<List<Integer>> comps = components;
+        if (comps == null) {
+            comps = new ArrayList<>(count);
+            for (int c = 0; c < count; c++) {
+                List<Integer> comp = new ArrayList<>(size(c));
+                for (int i = memberBegin(c), end = memberEnd(c); i < end; i++) comp.add(members[i]);
+                comps.add(Collections.unmodifiableList(comp));
+            }
+            components = comps = Collections.unmodifiableList(comps);
+        }
+        return comps;
     }
 
     public int getCount() {
         return count;
     }
 
+    public int[] componentOf() {
+        return componentOf;
+    }
+
+    public int componentOf(int v) {
+        return componentOf[v];
+    }
+
+    public int size(int c) {
+        return memberOffsets[c + 1] - memberOffsets[c];
+    }
+
+    public int memberBegin(int c) {
+        return memberOffsets[c];
+    }
+
+    public int memberEnd(int c) {
+        return memberOffsets[c + 1];
+    }
+
+    public int member(int i) {
+        return members[i];
+    }
+
     @Override
     public String toString() {
-        return "SCC count=" + count + ", components=" + components;
+        return "SCC count=" + count + ", components=" + getComponents();
     }
 }
@@ -0,0 +1,88 @@
+package graph.scc;
+
+import graph.core.EdgeCursor;
+import graph.core.Graph;
+import utils.Metrics;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass Tarjan SCC with explicit stacks. Visits each outgoing edge once
+ * and never builds the reverse adjacency. Edges are read through an {@link EdgeCursor},
+ * parked per vertex while the DFS descends, so compressed adjacencies are scanned sequentially.
+ */
+public class TarjanSCC implements SCCAlgorithm {
+
+    private final Graph g;
+    private final Metrics metrics;
+
+    public TarjanSCC(Graph g, Metrics metrics) {
+        this.g = g;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public SCCResult run() {
+        EdgeCursor out = g.out().cursor();
+        int n = g.n();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] comp = new int[n];
+        long[] cursor = new long[n];
+        int[] callStack = new int[n];
+        int[] sccStack = new int[n];
+        Arrays.fill(index, -1);
+        Arrays.fill(comp, -1);
+
+        int nextIndex = 0, count = 0, tp = 0;
+        for (int s = 0; s < n; s++) {
+            if (index[s] != -1) continue;
+            index[s] = low[s] = nextIndex++;
+            out.reset(s);
+            cursor[s] = out.position();
+            sccStack[tp++] = s;
+            int sp = 0;
+            callStack[sp++] = s;
+
+            while (sp > 0) {
+                int v = callStack[sp - 1];
+                out.resume(v, cursor[v]);
+                boolean descended = false;
+                while (out.next()) {
+                    int w = out.target();
+                    if (index[w] == -1) {
+                        cursor[v] = out.position();
+                        index[w] = low[w] = nextIndex++;
+                        out.reset(w);
+                        cursor[w] = out.position();
+                        sccStack[tp++] = w;
+                        callStack[sp++] = w;
+                        descended = true;
+                        break;
+                    } else if (comp[w] == -1 && index[w] < low[v]) {
+                        low[v] = index[w];
+                    }
+                }
+                if (descended) continue;
+                sp--;
+                if (sp > 0) {
+                    int parent = callStack[sp - 1];
+                    if (low[v] < low[parent]) low[parent] = low[v];
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = sccStack[--tp];
+                        comp[w] = count;
+                    } while (w != v);
+                    count++;
+                }
+            }
+        }
+        metrics.inc("dfs_calls", n);
+
+        // Tarjan emits components in reverse topological order; flip to match Kosaraju.
+        for (int v = 0; v < n; v++) comp[v] = count - 1 - comp[v];
+        return SCCResult.fromComponentIds(comp, count);
+    }
+}
@@ -0,0 +1,228 @@
+package graph.topo;
+
+import graph.core.Adjacency;
+import graph.core.Graph;
+import utils.Counter;
+import utils.Metrics;
+
+import java.util.*;
+
+/**
+ * Topological order maintained under edge insertions and deletions (Pearce-Kelly).
+ * <p>
+ * An insertion {@code u -> v} that already agrees with the order costs O(1). Otherwise only the
+ * vertices whose positions lie between {@code ord[v]} and {@code ord[u]} and that are reachable
+ * forward from {@code v} or backward from {@code u} are visited and shuffled among their own
+ * positions. Reaching {@code u} from {@code v} means the edge would close a cycle; it is rejected
+ * before anything changes. Deletions never invalidate the order.
+ */
+public class DynamicTopologicalOrder {
+
+    private int n;
+    private int[][] out;
+    private int[] outSize;
+    private int[][] in;
+    private int[] inSize;
+    private int[] ord;
+    private int[] node;
+    private int edgeCount;
+
+    private int[] mark;
+    private int stamp;
+    private int[] stack = new int[16];
+    private int[] fwd = new int[16];
+    private int[] bwd = new int[16];
+
+    private final Counter visited;
+    private final Counter reordered;
+
+    public DynamicTopologicalOrder(int n, Metrics metrics) {
+        this.n = n;
+        this.out = new int[n][];
+        this.in = new int[n][];
+        this.outSize = new int[n];
+        this.inSize = new int[n];
+        this.ord = new int[n];
+        this.node = new int[n];
+        this.mark = new int[n];
+        for (int v = 0; v < n; v++) { ord[v] = v; node[v] = v; }
+        this.visited = metrics.counter("dto_visited");
+        this.reordered = metrics.counter("dto_reordered");
+    }
+
+    /** Starts from a static DAG; throws like {@link TopologicalSort} if it has a cycle. */
+    public DynamicTopologicalOrder(Graph g, Metrics metrics) {
+        this(g.n(), metrics);
+        List<Integer> order = new TopologicalSort(g, Metrics.NOOP).run();
+        for (int p = 0; p < n; p++) { node[p] = order.get(p); ord[order.get(p)] = p; }
+        Adjacency adj = g.out();
+        for (int u = 0; u < n; u++) {
+            for (int i = adj.begin(u), end = adj.end(u); i < end; i++) link(u, adj.target(i));
+        }
+    }
+
+    public int n() { return n; }
+    public int edgeCount() { return edgeCount; }
+
+    /** Position of {@code v} in the current order. */
+    public int position(int v) { return ord[v]; }
+
+    public int vertexAt(int position) { return node[position]; }
+
+    public int[] toArray() { return Arrays.copyOf(node, n); }
+
+    public List<Integer> order() {
+        List<Integer> list = new ArrayList<>(n);
+        for (int p = 0; p < n; p++) list.add(node[p]);
+        return list;
+    }
+
+    /** Appends a fresh vertex at the end of the order and returns its id. */
+    public int addVertex() {
+        if (n == ord.length) {
+            int cap = Math.max(16, n * 2);
+            out = Arrays.copyOf(out, cap);
+            in = Arrays.copyOf(in, cap);
+            outSize = Arrays.copyOf(outSize, cap);
+            inSize = Arrays.copyOf(inSize, cap);
+            ord = Arrays.copyOf(ord, cap);
+            node = Arrays.copyOf(node, cap);
+            mark = Arrays.copyOf(mark, cap);
+        }
+        ord[n] = n;
+        node[n] = n;
+        return n++;
+    }
+
+    /** Inserts {@code u -> v}; throws {@link IllegalStateException} and leaves the graph unchanged if it closes a cycle. */
+    public void addEdge(int u, int v) {
+        if (!tryAddEdge(u, v)) {
+            throw new IllegalStateException("Edge " + u + " -> " + v + " would create a cycle");
+        }
+    }
+
+    /** Inserts {@code u -> v} unless it would close a cycle; returns whether it was inserted. */
+    public boolean tryAddEdge(int u, int v) {
+        Objects.checkIndex(u, n);
+        Objects.checkIndex(v, n);
+        if (u == v) return false;
+        int lb = ord[v], ub = ord[u];
+        if (lb < ub) {
+            int nf = forward(v, ub);
+            if (nf < 0) return false;
+            int nb = backward(u, lb);
+            reorder(nf, nb);
+        }
+        link(u, v);
+        return true;
+    }
+
+    /** Removes one {@code u -> v} edge; returns false if there was none. */
+    public boolean removeEdge(int u, int v) {
+        if (!removeFrom(out, outSize, u, v)) return false;
+        removeFrom(in, inSize, v, u);
+        edgeCount--;
+        return true;
+    }
+
+    public boolean hasEdge(int u, int v) {
+        int[] a = out[u];
+        for (int i = 0; i < outSize[u]; i++) if (a[i] == v) return true;
+        return false;
+    }
+
+    /** Vertices reachable from {@code v} with position {@code <= ub} into {@link #fwd}; -1 if {@code node[ub]} is reached. */
+    private int forward(int v, int ub) {
+        int target = node[ub];
+        int s = ++stamp;
+        int count = 0, sp = 0;
+        mark[v] = s;
+        stack = push(stack, sp++, v);
+        while (sp > 0) {
+            int x = stack[--sp];
+            fwd = push(fwd, count++, x);
+            int[] a = out[x];
+            for (int i = 0, size = outSize[x]; i < size; i++) {
+                int y = a[i];
+                if (y == target) { visited.add(count); return -1; }
+                if (mark[y] != s && ord[y] < ub) {
+                    mark[y] = s;
+                    stack = push(stack, sp++, y);
+                }
+            }
+        }
+        visited.add(count);
+        return count;
+    }
+
+    /** Vertices reaching {@code u} with position {@code >= lb} into {@link #bwd}. */
+    private int backward(int u, int lb) {
+        int s = ++stamp;
+        int count = 0, sp = 0;
+        mark[u] = s;
+        stack = push(stack, sp++, u);
+        while (sp > 0) {
+            int x = stack[--sp];
+            bwd = push(bwd, count++, x);
+            int[] a = in[x];
+            for (int i = 0, size = inSize[x]; i < size; i++) {
+                int y = a[i];
+                if (mark[y] != s && ord[y] > lb) {
+                    mark[y] = s;
+                    stack = push(stack, sp++, y);
+                }
+            }
+        }
+        visited.add(count);
+        return count;
+    }
+
+    /** Backward set first, then forward set, each keeping its relative order, onto their pooled positions. */
+    private void reorder(int nf, int nb) {
+        sortByOrd(fwd, nf);
+        sortByOrd(bwd, nb);
+        int total = nf + nb;
+        int[] slots = new int[total];
+        for (int i = 0; i < nb; i++) slots[i] = ord[bwd[i]];
+        for (int i = 0; i < nf; i++) slots[nb + i] = ord[fwd[i]];
+        Arrays.sort(slots);
+        for (int i = 0; i < nb; i++) place(bwd[i], slots[i]);
+        for (int i = 0; i < nf; i++) place(fwd[i], slots[nb + i]);
+        reordered.add(total);
+    }
+
+    private void place(int v, int p) {
+        ord[v] = p;
+        node[p] = v;
+    }
+
+    private void sortByOrd(int[] vs, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) keys[i] = ((long) ord[vs[i]] << 32) | vs[i];
+        Arrays.sort(keys);
+        for (int i = 0; i < count; i++) vs[i] = (int) keys[i];
+    }
+
+    private void link(int u, int v) {
+        out[u] = push(out[u] == null ? new int[2] : out[u], outSize[u]++, v);
+        in[v] = push(in[v] == null ? new int[2] : in[v], inSize[v]++, u);
+        edgeCount++;
+    }
+
+    private static boolean removeFrom(int[][] lists, int[] sizes, int u, int v) {
+        int[] a = lists[u];
+        for (int i = 0; i < sizes[u]; i++) {
+            if (a[i] == v) {
+                a[i] = a[--sizes[u]];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] push(int[] a, int i, int x) {
+        if (i == a.length) a = Arrays.copyOf(a, a.length * 2);
+        a[i] = x;
+        return a;
+    }
+}
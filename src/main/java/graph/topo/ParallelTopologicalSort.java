@@ -0,0 +1,233 @@
+package graph.topo;
+
+import graph.core.Adjacency;
+import graph.core.EdgeCursor;
+import graph.core.Graph;
+import utils.Counter;
+import utils.Metrics;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Level-synchronous Kahn's algorithm on a ForkJoin pool.
+ * <p>
+ * Level 0 holds the sources; a vertex is on level {@code d} when its longest path from a source
+ * has {@code d} edges. Each level is split into fixed chunks that are expanded concurrently:
+ * indegrees are atomic, and the thread whose decrement reaches zero owns the vertex for the next
+ * level. Each level is then sorted by vertex id, so the result does not depend on scheduling;
+ * wide levels are sorted in parallel on the same pool. Levels of at most one chunk run inline on
+ * the calling thread.
+ */
+public class ParallelTopologicalSort {
+
+    private static final int GRAIN = 1024;
+    // Levels up to this size are sorted inline; parallelSort itself does not split below it.
+    private static final int SORT_GRAIN = 1 << 13;
+
+    private final Graph g;
+    private final ForkJoinPool pool;
+    private final Counter pushes;
+    private final Counter pops;
+    private final Counter edgesRelaxed;
+    private final Counter levels;
+    private final Counter maxWidth;
+
+    public ParallelTopologicalSort(Graph g, Metrics metrics) {
+        this(g, metrics, ForkJoinPool.commonPool());
+    }
+
+    public ParallelTopologicalSort(Graph g, Metrics metrics, ForkJoinPool pool) {
+        this.g = g;
+        this.pool = pool;
+        this.pushes = metrics.counter("pushes");
+        this.pops = metrics.counter("pops");
+        this.edgesRelaxed = metrics.counter("edges_relaxed");
+        this.levels = metrics.counter("topo_levels");
+        this.maxWidth = metrics.counter("topo_max_width");
+    }
+
+    /** Topological order grouped by level (ascending ids within a level), plus each vertex's level and each level's width. */
+    public static final class Levels {
+        private final int[] order;
+        private final int[] level;
+        private final int[] offsets;
+
+        Levels(int[] order, int[] level, int[] offsets) {
+            this.order = order;
+            this.level = level;
+            this.offsets = offsets;
+        }
+
+        public int n() { return order.length; }
+        public int levelCount() { return offsets.length - 1; }
+
+        /** Longest-path depth of {@code v} from any source. */
+        public int level(int v) { return level[v]; }
+
+        /** Number of vertices on level {@code l}, i.e. how many tasks can run in parallel at that step. */
+        public int width(int l) { return offsets[l + 1] - offsets[l]; }
+
+        public int maxWidth() {
+            int w = 0;
+            for (int l = 0; l < levelCount(); l++) w = Math.max(w, width(l));
+            return w;
+        }
+
+        /** Level {@code l} occupies positions {@code [levelBegin(l), levelEnd(l))} of the order. */
+        public int levelBegin(int l) { return offsets[l]; }
+        public int levelEnd(int l) { return offsets[l + 1]; }
+
+        public int vertexAt(int i) { return order[i]; }
+
+        public int[] toArray() { return order.clone(); }
+
+        public int[] widths() {
+            int[] w = new int[levelCount()];
+            for (int l = 0; l < w.length; l++) w[l] = width(l);
+            return w;
+        }
+
+        /** Read-only view, usable wherever {@link TopologicalSort#run()}'s result is. */
+        public List<Integer> toList() {
+            return new AbstractList<>() {
+                @Override public Integer get(int i) { return order[i]; }
+                @Override public int size() { return order.length; }
+            };
+        }
+    }
+
+    public Levels run() {
+        int n = g.n();
+        Adjacency out = g.out();
+        AtomicIntegerArray indeg = new AtomicIntegerArray(n);
+        int[] order = new int[n];
+        int[] level = new int[n];
+
+        forChunks(n, c -> {
+            EdgeCursor edges = out.cursor();
+            for (int u = c * GRAIN, end = Math.min(n, u + GRAIN); u < end; u++) {
+                edges.reset(u);
+                while (edges.next()) indeg.incrementAndGet(edges.target());
+            }
+        });
+        IntBuffer[] sources = new IntBuffer[chunks(n)];
+        forChunks(n, c -> {
+            IntBuffer buf = new IntBuffer(16);
+            for (int v = c * GRAIN, end = Math.min(n, v + GRAIN); v < end; v++) if (indeg.get(v) == 0) buf.add(v);
+            sources[c] = buf;
+        });
+        int size = concat(sources, sources.length, order, 0);
+        IntBuffer[] parts = sources;
+
+        IntBuffer offsets = new IntBuffer(16);
+        offsets.add(0);
+        int begin = 0;
+        int depth = 0;
+        while (begin < size) {
+            int from = begin, to = size, next = depth + 1;
+            offsets.add(to);
+            int k = chunks(to - from);
+            IntBuffer[] found = k <= parts.length ? parts : new IntBuffer[k];
+            forChunks(to - from, c -> {
+                IntBuffer buf = new IntBuffer(16);
+                EdgeCursor edges = out.cursor();
+                for (int p = from + c * GRAIN, end = Math.min(to, p + GRAIN); p < end; p++) {
+                    int u = order[p];
+                    edges.reset(u);
+                    while (edges.next()) {
+                        int v = edges.target();
+                        if (indeg.decrementAndGet(v) == 0) {
+                            level[v] = next;
+                            buf.add(v);
+                        }
+                    }
+                }
+                found[c] = buf;
+            });
+            parts = found;
+            begin = to;
+            size = concat(found, k, order, to);
+            sortLevel(order, to, size);
+            depth = next;
+        }
+
+        long relaxed = 0;
+        for (int p = 0; p < size; p++) relaxed += out.degree(order[p]);
+        pushes.add(size);
+        pops.add(size);
+        edgesRelaxed.add(relaxed);
+
+        if (size != n) {
+            throw new IllegalStateException("Graph is not a DAG (cycle detected)");
+        }
+        Levels result = new Levels(order, level, offsets.toArray());
+        levels.add(result.levelCount());
+        maxWidth.add(result.maxWidth());
+        return result;
+    }
+
+    /** Sorts one level on {@link #pool}; {@code Arrays.parallelSort} forks into the pool of the thread running it. */
+    private void sortLevel(int[] a, int from, int to) {
+        if (to - from <= SORT_GRAIN) Arrays.sort(a, from, to);
+        else pool.invoke(ForkJoinTask.adapt(() -> Arrays.parallelSort(a, from, to)));
+    }
+
+    private static int chunks(int len) {
+        return (len + GRAIN - 1) / GRAIN;
+    }
+
+    /** Runs {@code body} once per {@link #GRAIN}-sized chunk of {@code [0, len)}; inline when there is only one. */
+    private void forChunks(int len, IntConsumer body) {
+        int k = chunks(len);
+        if (k == 1) body.accept(0);
+        else if (k > 1) pool.invoke(new ForChunks(body, 0, k));
+    }
+
+    private static int concat(IntBuffer[] parts, int k, int[] dst, int at) {
+        for (int c = 0; c < k; c++) {
+            System.arraycopy(parts[c].data, 0, dst, at, parts[c].size);
+            at += parts[c].size;
+        }
+        return at;
+    }
+
+    private static final class ForChunks extends RecursiveAction {
+        private final IntConsumer body;
+        private final int lo, hi;
+
+        ForChunks(IntConsumer body, int lo, int hi) {
+            this.body = body; this.lo = lo; this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                body.accept(lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new ForChunks(body, lo, mid), new ForChunks(body, mid, hi));
+        }
+    }
+
+    private static final class IntBuffer {
+        int[] data;
+        int size;
+
+        IntBuffer(int capacity) { data = new int[Math.max(1, capacity)]; }
+
+        void add(int x) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = x;
+        }
+
+        int[] toArray() { return Arrays.copyOf(data, size); }
+    }
+}
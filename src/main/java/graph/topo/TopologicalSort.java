@@ -1,52 +1,62 @@
 package graph.topo;
 
+import graph.core.EdgeCursor;
 import graph.core.Graph;
+import utils.Counter;
 import utils.Metrics;
 import java.util.*;
 
 public class TopologicalSort {
 
     private final Graph g;
-    private final Metrics metrics;
+    private final Counter pushes;
+    private final Counter pops;
+    private final Counter edgesRelaxed;
 
     public TopologicalSort(Graph g, Metrics metrics) {
         this.g = g;
-        this.metrics = metrics;
+        this.pushes = metrics.counter("pushes");
+        this.pops = metrics.counter("pops");
+        this.edgesRelaxed = metrics.counter("edges_relaxed");
     }
 
     public List<Integer> run() {
         int n = g.n();
+        EdgeCursor out = g.out().cursor();
         int[] indeg = new int[n];
         for (int v = 0; v < n; v++) {
-            for (int[] edge : g.adjOut().get(v)) {
-                indeg[edge[0]]++;
-            }
+            out.reset(v);
+            while (out.next()) indeg[out.target()]++;
         }
 
         Queue<Integer> q = new ArrayDeque<>();
+        long pushed = 0, relaxed = 0;
         for (int v = 0; v < n; v++) {
             if (indeg[v] == 0) {
                 q.add(v);
-                metrics.inc("pushes", 1);
+                pushed++;
             }
         }
 
         List<Integer> topoOrder = new ArrayList<>();
         while (!q.isEmpty()) {
             int u = q.poll();
-            metrics.inc("pops", 1);
             topoOrder.add(u);
 
-            for (int[] edge : g.adjOut().get(u)) {
-                int v = edge[0];
+            out.reset(u);
+            while (out.next()) {
+                int v = out.target();
                 indeg[v]--;
-                metrics.inc("edges_relaxed", 1);
+                relaxed++;
                 if (indeg[v] == 0) {
                     q.add(v);
-                    metrics.inc("pushes", 1);
+                    pushed++;
                 }
             }
         }
+        pushes.add(pushed);
+        pops.add(topoOrder.size());
+        edgesRelaxed.add(relaxed);
 
         if (topoOrder.size() != n) {
             throw new IllegalStateException("Graph is not a DAG (cycle detected)");
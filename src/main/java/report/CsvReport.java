@@ -3,85 +3,244 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * CSV writer. Rows are either whole maps keyed by header ({@link #append(Map)}) or built cell by
+ * cell with the typed {@code append} overloads and finished with {@link #endRow()}; both paths
+ * format into one reusable line buffer without boxing primitives or primitive arrays.
+ */
 public class CsvReport implements AutoCloseable {
+
+    public static class Options {
+        /** Flush after this many rows; 0 flushes only when the buffer fills and on close. */
+        public int flushEveryRows = 0;
+        /** Write gzip-compressed output. */
+        public boolean gzip = false;
+        /**
+         * Start a new file ({@code name-1.csv}, {@code name-2.csv}, ...) once this many bytes of UTF-8 CSV
+         * text were written to the current one; counted before compression when {@link #gzip} is set. 0 disables.
+         */
+        public long rollBytes = 0;
+    }
+
     private final Path path;
     private final List<String> headers;
     private final boolean overwrite;
-    private BufferedWriter out;
-    private boolean headerWritten = false;
+    private final Options options;
+    private final StringBuilder line = new StringBuilder(256);
+    private Writer out;
+    private int cells;
+    private int rowsSinceFlush;
+    private long bytes;
+    private int part;
 
     public CsvReport(Path path, List<String> headers, boolean overwrite) {
+        this(path, headers, overwrite, new Options());
+    }
+
+    public CsvReport(Path path, List<String> headers, boolean overwrite, Options options) {
         this.path = path;
         this.headers = new ArrayList<>(headers);
         this.overwrite = overwrite;
+        this.options = options;
     }
 
     public void open() throws IOException {
         if (out != null) return;
+        openPart(path);
+    }
+
+    /** File currently being written; differs from the constructor path once rolling started. */
+    public Path currentPath() {
+        return part == 0 ? path : rolledPath(part);
+    }
+
+    private void openPart(Path p) throws IOException {
         if (overwrite) {
-            Files.deleteIfExists(path);
-            Files.createDirectories(path.getParent() == null ? Paths.get(".") : path.getParent());
+            Files.deleteIfExists(p);
+            Files.createDirectories(p.getParent() == null ? Paths.get(".") : p.getParent());
+        }
+        boolean fresh = !Files.exists(p) || Files.size(p) == 0;
+        OutputStream raw = Files.newOutputStream(p, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (options.gzip) raw = new GZIPOutputStream(raw, 1 << 16);
+        out = new BufferedWriter(new OutputStreamWriter(raw, StandardCharsets.UTF_8), 1 << 16);
+        bytes = 0;
+        if (fresh) {
+            for (String h : headers) appendText(h);
+            writeRow();
         }
-        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
-                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-        writeHeaderIfNeeded();
     }
 
-    private void writeHeaderIfNeeded() throws IOException {
-        if (!headerWritten) {
-            writeLine(headers);
-            headerWritten = true;
-        }
+    private Path rolledPath(int k) {
+        String name = path.getFileName().toString();
+        int dot = name.indexOf('.');
+        String rolled = dot < 0 ? name + "-" + k : name.substring(0, dot) + "-" + k + name.substring(dot);
+        return path.resolveSibling(rolled);
     }
 
     public void append(Map<String, ?> row) throws IOException {
         if (out == null) open();
-        List<String> values = new ArrayList<>(headers.size());
-        for (String h : headers) {
-            Object v = row.get(h);
-            values.add(serialize(v));
+        for (String h : headers) appendObject(row.get(h));
+        endRow();
+    }
+
+    public CsvReport append(long v) { sep(); line.append(v); return this; }
+    public CsvReport append(double v) { sep(); line.append(v); return this; }
+    public CsvReport append(boolean v) { sep(); line.append(v); return this; }
+
+    public CsvReport append(CharSequence v) {
+        if (v == null) { sep(); return this; }
+        return appendText(v);
+    }
+
+    public CsvReport append(int[] a) {
+        beginArray(a.length);
+        for (int i = 0; i < a.length; i++) item(i).append(a[i]);
+        return endArray(a.length);
+    }
+
+    public CsvReport append(long[] a) {
+        beginArray(a.length);
+        for (int i = 0; i < a.length; i++) item(i).append(a[i]);
+        return endArray(a.length);
+    }
+
+    public CsvReport append(double[] a) {
+        beginArray(a.length);
+        for (int i = 0; i < a.length; i++) item(i).append(a[i]);
+        return endArray(a.length);
+    }
+
+    // A "[x, y]" cell; only lists of two or more contain the ", " separator and need quoting.
+    private void beginArray(int length) {
+        sep();
+        if (length > 1) line.append('"');
+        line.append('[');
+    }
+
+    private StringBuilder item(int i) {
+        return i > 0 ? line.append(", ") : line;
+    }
+
+    private CsvReport endArray(int length) {
+        line.append(']');
+        if (length > 1) line.append('"');
+        return this;
+    }
+
+    /** Finishes a row built with the typed {@code append} overloads. */
+    public void endRow() throws IOException {
+        if (cells != headers.size()) {
+            line.setLength(0);
+            int got = cells;
+            cells = 0;
+            throw new IllegalStateException("row has " + got + " cells, expected " + headers.size());
+        }
+        if (out == null) {
+            String pending = line.toString();
+            line.setLength(0);
+            cells = 0;
+            open();
+            line.append(pending);
+            cells = headers.size();
+        }
+        writeRow();
+        if (options.flushEveryRows > 0 && ++rowsSinceFlush >= options.flushEveryRows) {
+            out.flush();
+            rowsSinceFlush = 0;
+        }
+        if (options.rollBytes > 0 && bytes >= options.rollBytes) {
+            out.close();
+            openPart(rolledPath(++part));
         }
-        writeLine(values);
     }
 
-    private void writeLine(List<String> cells) throws IOException {
-        String line = String.join(",", cells);
-        out.write(line);
-        out.newLine();
-        out.flush();
+    public void flush() throws IOException {
+        if (out != null) out.flush();
     }
 
-    private String serialize(Object v) {
-        if (v == null) return "";
-        if (v instanceof Number || v instanceof Boolean) return v.toString();
+    private void writeRow() throws IOException {
+        line.append(System.lineSeparator());
+        out.append(line);
+        bytes += utf8Length(line);
+        line.setLength(0);
+        cells = 0;
+    }
 
-        if (v instanceof Collection<?> col) {
-            return quote("[" + joinCollection(col) + "]");
+    private static long utf8Length(CharSequence s) {
+        long n = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x800) n += Character.isSurrogate(c) ? 1 : 2;   // a surrogate pair is 4 bytes
+            else if (c >= 0x80) n++;
         }
-        if (v.getClass().isArray()) {
-            int len = java.lang.reflect.Array.getLength(v);
-            List<String> items = new ArrayList<>(len);
-            for (int i = 0; i < len; i++) {
-                Object el = java.lang.reflect.Array.get(v, i);
-                items.add(String.valueOf(el));
-            }
-            return quote("[" + String.join(", ", items) + "]");
+        return n;
+    }
+
+    private void appendObject(Object v) {
+        if (v == null) sep();
+        else if (v instanceof Integer || v instanceof Long || v instanceof Short || v instanceof Byte) append(((Number) v).longValue());
+        else if (v instanceof Number || v instanceof Boolean) { sep(); line.append(v); }
+        else if (v instanceof int[] a) append(a);
+        else if (v instanceof long[] a) append(a);
+        else if (v instanceof double[] a) append(a);
+        else if (v instanceof Collection<?> col) appendList(col.iterator());
+        else if (v instanceof Object[] a) appendList(Arrays.asList(a).iterator());
+        else if (v.getClass().isArray()) {
+            List<Object> items = new ArrayList<>();
+            for (int i = 0; i < java.lang.reflect.Array.getLength(v); i++) items.add(java.lang.reflect.Array.get(v, i));
+            appendList(items.iterator());
+        }
+        else appendText(v.toString());
+    }
+
+    private void appendList(Iterator<?> it) {
+        sep();
+        int start = line.length();
+        line.append('[');
+        while (it.hasNext()) {
+            line.append(it.next());
+            if (it.hasNext()) line.append(", ");
         }
+        line.append(']');
+        escapeFrom(start);
+    }
 
-        return quote(v.toString());
+    private CsvReport appendText(CharSequence s) {
+        sep();
+        int start = line.length();
+        line.append(s);
+        escapeFrom(start);
+        return this;
     }
 
-    private String joinCollection(Collection<?> col) {
-        List<String> parts = new ArrayList<>(col.size());
-        for (Object o : col) parts.add(String.valueOf(o));
-        return String.join(", ", parts);
+    /** Quotes the cell starting at {@code start} in place if it contains a separator, quote or newline. */
+    private void escapeFrom(int start) {
+        boolean needQuotes = false;
+        int quotes = 0;
+        for (int i = start; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') { quotes++; needQuotes = true; }
+            else if (c == ',' || c == '\n' || c == '\r') needQuotes = true;
+        }
+        if (quotes > 0) {
+            int end = line.length();
+            line.setLength(end + quotes);
+            for (int i = end - 1, j = end + quotes - 1; i >= start; i--) {
+                char c = line.charAt(i);
+                line.setCharAt(j--, c);
+                if (c == '"') line.setCharAt(j--, '"');
+            }
+        }
+        if (needQuotes) {
+            line.insert(start, '"');
+            line.append('"');
+        }
     }
 
-    private String quote(String s) {
-        boolean needQuotes = s.contains(",") || s.contains("\"") || s.contains("\n") || s.contains("\r");
-        String esc = s.replace("\"", "\"\"");
-        return needQuotes ? "\"" + esc + "\"" : esc;
+    private void sep() {
+        if (cells++ > 0) line.append(',');
     }
 
     @Override
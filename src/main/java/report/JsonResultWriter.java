@@ -0,0 +1,198 @@
+package report;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Streaming JSON writer for result documents. Values go straight to a buffered stream, so
+ * memory does not grow with the document; numeric arrays are written from primitive arrays
+ * without boxing. Pretty mode indents objects by two spaces but keeps number arrays on one line.
+ */
+public class JsonResultWriter implements AutoCloseable {
+    private final OutputStream out;
+    private final boolean compact;
+    private final byte[] digits = new byte[20];
+    private boolean[] first = new boolean[8];
+    private boolean[] object = new boolean[8];
+    private int depth;
+    private boolean afterName;
+
+    public JsonResultWriter(Path path, boolean compact) throws IOException {
+        this(Files.newOutputStream(path), compact);
+    }
+
+    public JsonResultWriter(OutputStream out, boolean compact) {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        this.compact = compact;
+    }
+
+    public JsonResultWriter beginObject() throws IOException { return open('{', true); }
+    public JsonResultWriter endObject() throws IOException { return close('}'); }
+    public JsonResultWriter beginArray() throws IOException { return open('[', false); }
+    public JsonResultWriter endArray() throws IOException { return close(']'); }
+
+    public JsonResultWriter name(String name) throws IOException {
+        if (depth == 0 || !object[depth - 1]) throw new IllegalStateException("name outside of an object");
+        separate();
+        string(name);
+        out.write(':');
+        if (!compact) out.write(' ');
+        afterName = true;
+        return this;
+    }
+
+    public JsonResultWriter value(long v) throws IOException {
+        separate();
+        number(v);
+        return this;
+    }
+
+    public JsonResultWriter value(boolean v) throws IOException {
+        separate();
+        ascii(v ? "true" : "false");
+        return this;
+    }
+
+    public JsonResultWriter value(String v) throws IOException {
+        if (v == null) return nullValue();
+        separate();
+        string(v);
+        return this;
+    }
+
+    public JsonResultWriter nullValue() throws IOException {
+        separate();
+        ascii("null");
+        return this;
+    }
+
+    public JsonResultWriter array(int[] a) throws IOException {
+        return array(a, 0, a.length);
+    }
+
+    public JsonResultWriter array(int[] a, int from, int to) throws IOException {
+        separate();
+        out.write('[');
+        for (int i = from; i < to; i++) {
+            if (i > from) out.write(',');
+            number(a[i]);
+        }
+        out.write(']');
+        return this;
+    }
+
+    /** {@code [at(from), ..., at(to - 1)]}, for arrays that are only reachable through an accessor. */
+    public JsonResultWriter array(IntUnaryOperator at, int from, int to) throws IOException {
+        separate();
+        out.write('[');
+        for (int i = from; i < to; i++) {
+            if (i > from) out.write(',');
+            number(at.applyAsInt(i));
+        }
+        out.write(']');
+        return this;
+    }
+
+    /** Numbers, except that entries equal to {@code sentinel} are written as the string {@code token}. */
+    public JsonResultWriter array(long[] a, long sentinel, String token) throws IOException {
+        separate();
+        out.write('[');
+        for (int i = 0; i < a.length; i++) {
+            if (i > 0) out.write(',');
+            if (a[i] == sentinel) string(token);
+            else number(a[i]);
+        }
+        out.write(']');
+        return this;
+    }
+
+    public JsonResultWriter field(String name, long v) throws IOException { return name(name).value(v); }
+    public JsonResultWriter field(String name, boolean v) throws IOException { return name(name).value(v); }
+    public JsonResultWriter field(String name, String v) throws IOException { return name(name).value(v); }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (depth != 0) throw new IllegalStateException("unclosed JSON container");
+        if (!compact) out.write('\n');
+        out.close();
+    }
+
+    private JsonResultWriter open(char bracket, boolean isObject) throws IOException {
+        separate();
+        out.write(bracket);
+        if (depth == first.length) {
+            first = Arrays.copyOf(first, depth * 2);
+            object = Arrays.copyOf(object, depth * 2);
+        }
+        first[depth] = true;
+        object[depth] = isObject;
+        depth++;
+        return this;
+    }
+
+    private JsonResultWriter close(char bracket) throws IOException {
+        if (depth == 0 || object[depth - 1] != (bracket == '}')) throw new IllegalStateException("mismatched " + bracket);
+        depth--;
+        if (!first[depth]) newline();
+        out.write(bracket);
+        return this;
+    }
+
+    /** Comma and indentation before a new element; nothing between a name and its value. */
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth == 0) return;
+        if (first[depth - 1]) first[depth - 1] = false;
+        else out.write(',');
+        newline();
+    }
+
+    private void newline() throws IOException {
+        if (compact) return;
+        out.write('\n');
+        for (int i = 0; i < depth; i++) { out.write(' '); out.write(' '); }
+    }
+
+    private void number(long x) throws IOException {
+        if (x == Long.MIN_VALUE) { ascii(Long.toString(x)); return; }
+        if (x < 0) { out.write('-'); x = -x; }
+        int p = digits.length;
+        do { digits[--p] = (byte) ('0' + x % 10); x /= 10; } while (x > 0);
+        out.write(digits, p, digits.length - p);
+    }
+
+    private void string(String s) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            if (i > start) out.write(s.substring(start, i).getBytes(StandardCharsets.UTF_8));
+            switch (c) {
+                case '"' -> ascii("\\\"");
+                case '\\' -> ascii("\\\\");
+                case '\n' -> ascii("\\n");
+                case '\r' -> ascii("\\r");
+                case '\t' -> ascii("\\t");
+                default -> ascii(String.format("\\u%04x", (int) c));
+            }
+            start = i + 1;
+        }
+        if (start < s.length()) out.write((start == 0 ? s : s.substring(start)).getBytes(StandardCharsets.UTF_8));
+        out.write('"');
+    }
+
+    private void ascii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) out.write(s.charAt(i));
+    }
+}
@@ -0,0 +1,83 @@
+package runner;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-memory LRU of derived artifacts bounded by an estimated byte budget. Concurrent misses on
+ * the same key share one load; the most recently inserted entry is kept even if it alone
+ * exceeds the budget.
+ */
+final class ArtifactCache {
+
+    @FunctionalInterface
+    interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    private record Entry(Object value, long bytes) {}
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private long usedBytes;
+    private long hits, misses, evictions;
+
+    ArtifactCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(String key, Loader<T> loader, ToLongFunction<T> weigher) throws Exception {
+        synchronized (this) {
+            Entry e = entries.get(key);
+            if (e != null) {
+                hits++;
+                return (T) e.value();
+            }
+            misses++;
+        }
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = loading.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception ex ? ex : e;
+            }
+        }
+        try {
+            T value = loader.load();
+            long bytes = weigher.applyAsLong(value);
+            synchronized (this) {
+                Entry old = entries.put(key, new Entry(value, bytes));
+                if (old != null) usedBytes -= old.bytes();
+                usedBytes += bytes;
+                Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+                while (usedBytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+                    Map.Entry<String, Entry> eldest = it.next();
+                    if (eldest.getKey().equals(key)) continue;
+                    usedBytes -= eldest.getValue().bytes();
+                    it.remove();
+                    evictions++;
+                }
+            }
+            mine.complete(value);
+            return value;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    synchronized int size() { return entries.size(); }
+    synchronized long usedBytes() { return usedBytes; }
+    synchronized long hits() { return hits; }
+    synchronized long misses() { return misses; }
+    synchronized long evictions() { return evictions; }
+}
@@ -0,0 +1,177 @@
+package runner;
+
+import graph.scc.SCCResult;
+import report.JsonResultWriter;
+import utils.PhaseTracer;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Everything {@link MainGraphRunner} reports for one input file, kept in primitive arrays until
+ * it is streamed to results.json and metrics.csv. Bulky sections that are omitted from the JSON
+ * are never retained.
+ */
+final class FileResult {
+
+    /** Sections that can be left out of results.json with {@code -Dresults.omit=a,b}. */
+    static final Set<String> OMITTABLE = Set.of("components", "topo_order", "distances");
+
+    /** Phases with fixed metrics.csv columns; "report" is the streaming of this entry to results.json. */
+    static final List<String> PHASES = List.of("cache", "parse", "build", "scc", "condense",
+            "topo_condensed", "topo", "dag_sp", "dag_lp", "report");
+    static final List<String> PHASE_COLUMNS = phaseColumns();
+
+    final String file;
+    String error;
+    boolean loaded;
+    int n, m;
+
+    SCCResult scc;
+    int sccCount;
+    int[] sccSizes;
+    long[] parallelPhases;
+
+    boolean condensed;
+    int condNodes, condEdges, condTopoLen;
+    int[] condTopo;
+    long condPushes, condPops;
+
+    boolean dag;
+    int source;
+    int[] topoOrder;
+    long[] distances;
+    Object spDistLast = "";
+    int spTarget;
+    int[] spPath;
+    int lpTarget;
+    int[] lpPath;
+    long lpLen;
+    long pushes, pops, relaxSp, relaxLp, timeSp, timeLp;
+
+    // Phases of this run only; never cached, so a cache hit shows just "cache" and "report".
+    PhaseTracer trace;
+
+    FileResult(String file) {
+        this.file = file;
+    }
+
+    void writeJson(JsonResultWriter w) throws IOException {
+        if (trace != null) trace.phase("report");
+        w.beginObject().field("file", file);
+        if (loaded) w.field("n", n).field("m", m);
+        if (sccSizes != null) {
+            w.name("scc").beginObject().field("count", sccCount);
+            w.name("sizes").array(sccSizes);
+            if (scc != null) {
+                w.name("components").beginArray();
+                for (int c = 0; c < scc.getCount(); c++) w.array(scc::member, scc.memberBegin(c), scc.memberEnd(c));
+                w.endArray();
+            }
+            if (parallelPhases != null) {
+                w.name("parallel").beginObject()
+                        .field("threads", parallelPhases[0])
+                        .field("trimmed", parallelPhases[1])
+                        .field("time_trim_ns", parallelPhases[2])
+                        .field("time_fwbw_ns", parallelPhases[3])
+                        .field("time_assemble_ns", parallelPhases[4])
+                        .endObject();
+            }
+            w.endObject();
+        }
+        if (condensed) {
+            w.name("condensation").beginObject()
+                    .field("dag_nodes", condNodes)
+                    .field("dag_edges", condEdges);
+            if (condTopo != null) w.name("topo_order").array(condTopo);
+            w.field("pushes", condPushes).field("pops", condPops).endObject();
+        }
+        if (dag) {
+            w.name("dag").beginObject().field("source", source);
+            if (topoOrder != null) w.name("topo_order").array(topoOrder);
+            w.name("shortest").beginObject();
+            if (distances != null) w.name("distances").array(distances, Long.MAX_VALUE, "INF");
+            w.field("example_target", spTarget);
+            w.name("example_path").array(spPath);
+            w.endObject();
+            w.name("longest").beginObject().field("argmax_target", lpTarget);
+            w.name("path").array(lpPath);
+            w.name("length");
+            if (lpPath.length == 0) w.nullValue(); else w.value(lpLen);
+            w.endObject();
+            w.name("metrics").beginObject()
+                    .field("pushes", pushes)
+                    .field("pops", pops)
+                    .field("relax_sp", relaxSp)
+                    .field("relax_lp", relaxLp)
+                    .field("time_sp_ns", timeSp)
+                    .field("time_longest_ns", timeLp)
+                    .endObject();
+            w.endObject();
+        }
+        if (trace != null) {
+            trace.end();
+            w.name("phases").beginObject();
+            for (PhaseTracer.Phase p : trace.phases()) {
+                w.name(p.name()).beginObject().field("wall_ns", p.wallNs());
+                w.name("cpu_ns");
+                if (p.cpuNs() < 0) w.nullValue(); else w.value(p.cpuNs());
+                w.name("alloc_bytes");
+                if (p.allocatedBytes() < 0) w.nullValue(); else w.value(p.allocatedBytes());
+                w.endObject();
+            }
+            w.endObject();
+        }
+        if (error != null) w.field("error", error);
+        w.endObject();
+    }
+
+    Map<String, Object> toCsvRow() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("file", file);
+        row.put("n", n);
+        row.put("m", m);
+
+        row.put("scc_count", sccCount);
+        row.put("scc_sizes", sccSizes == null ? List.of() : sccSizes);
+
+        row.put("cond_nodes", condNodes);
+        row.put("cond_edges", condEdges);
+        row.put("cond_topo_len", condTopoLen);
+        row.put("pushes", condPushes);
+        row.put("pops", condPops);
+
+        row.put("is_dag_file", dag);
+        row.put("source", dag ? source : "");
+
+        row.put("sp_dist_last", dag ? spDistLast : "");
+        row.put("sp_path_last", dag ? spPath : List.of());
+
+        row.put("lp_target", dag ? lpTarget : "");
+        row.put("lp_len", !dag ? "" : lpPath.length == 0 ? "N/A" : lpLen);
+        row.put("lp_path", dag ? lpPath : List.of());
+
+        row.put("relax_sp", dag ? relaxSp : "");
+        row.put("relax_lp", dag ? relaxLp : "");
+        row.put("time_sp_ns", dag ? timeSp : "");
+        row.put("time_longest_ns", dag ? timeLp : "");
+
+        for (String name : PHASES) {
+            PhaseTracer.Phase p = trace == null ? null : trace.get(name);
+            row.put(name + "_wall_ns", p == null ? "" : p.wallNs());
+            row.put(name + "_cpu_ns", p == null || p.cpuNs() < 0 ? "" : p.cpuNs());
+            row.put(name + "_alloc_bytes", p == null || p.allocatedBytes() < 0 ? "" : p.allocatedBytes());
+        }
+        return row;
+    }
+
+    private static List<String> phaseColumns() {
+        List<String> cols = new ArrayList<>();
+        for (String name : PHASES) {
+            cols.add(name + "_wall_ns");
+            cols.add(name + "_cpu_ns");
+            cols.add(name + "_alloc_bytes");
+        }
+        return List.copyOf(cols);
+    }
+}
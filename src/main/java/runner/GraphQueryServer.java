@@ -0,0 +1,347 @@
+package runner;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import graph.core.Adjacency;
+import graph.core.Graph;
+import graph.dagsp.DagMultiSourcePaths;
+import graph.scc.ReachabilityIndex;
+import graph.scc.SCCResult;
+import graph.scc.TarjanSCC;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import utils.GraphReader;
+import utils.LatencyHistogram;
+import utils.Metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running HTTP query service. Graphs from the data directory are loaded on first use and
+ * their derived artifacts (SCC decomposition, topological positions, DAG path solver, per-source
+ * distance rows, reachability index) live in one {@link ArtifactCache} bounded by {@code -Dserver.cacheBytes}.
+ * <p>
+ * Endpoints (GET, JSON): {@code /graphs}, {@code /scc?graph=G&v=X},
+ * {@code /topo?graph=G&v=X}, {@code /distance?graph=G&s=S&t=T[&kind=shortest|longest]},
+ * {@code /reach?graph=G&u=U&v=V}, {@code /stats} (per-endpoint latency histograms and cache
+ * counters). The reachability index is made on the first {@code /reach} query for a graph: a
+ * {@code G.reach} file next to the graph, if not older than it, is loaded instead of building it.
+ */
+public class GraphQueryServer {
+
+    private static final int PORT = Integer.getInteger("server.port", 8080);
+    private static final int THREADS = Math.max(1,
+            Integer.getInteger("server.threads", Runtime.getRuntime().availableProcessors()));
+    private static final long CACHE_BYTES = Long.getLong("server.cacheBytes", 1L << 30);
+
+    private final Path dataDir;
+    private final ArtifactCache cache;
+    private final Map<String, LatencyHistogram> latency = new ConcurrentHashMap<>();
+
+    public GraphQueryServer(Path dataDir, long cacheBytes) {
+        this.dataDir = dataDir;
+        this.cache = new ArtifactCache(cacheBytes);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path dataDir = Path.of(args.length > 0 ? args[0] : "data");
+        Running server = new GraphQueryServer(dataDir, CACHE_BYTES).start(new InetSocketAddress(PORT), THREADS);
+        System.out.println("Serving " + dataDir.toAbsolutePath() + " on http://localhost:" + server.address().getPort());
+    }
+
+    /** A started server together with its worker pool; {@link #stop(int)} shuts down both. */
+    public static final class Running implements AutoCloseable {
+        private final HttpServer server;
+        private final ExecutorService pool;
+
+        private Running(HttpServer server, ExecutorService pool) {
+            this.server = server;
+            this.pool = pool;
+        }
+
+        public InetSocketAddress address() { return server.getAddress(); }
+
+        /** Stops accepting requests, waits up to {@code delaySeconds} for open exchanges, then stops the workers. */
+        public void stop(int delaySeconds) {
+            server.stop(delaySeconds);
+            pool.shutdownNow();
+        }
+
+        @Override
+        public void close() { stop(0); }
+    }
+
+    public Running start(InetSocketAddress address, int threads) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "graph-query");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(pool);
+        route(server, "/graphs", q -> graphs());
+        route(server, "/scc", this::scc);
+        route(server, "/topo", this::topo);
+        route(server, "/distance", this::distance);
+        route(server, "/reach", this::reach);
+        route(server, "/stats", q -> stats());
+        server.start();
+        return new Running(server, pool);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        JSONObject handle(Map<String, String> query) throws Exception;
+    }
+
+    private static final class HttpError extends RuntimeException {
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /** Everything derived once per graph; the reachability index is cached separately, on demand. */
+    private static final class Artifacts {
+        final Path file;
+        final Graph g;
+        final SCCResult scc;
+        final boolean dag;
+        final DagMultiSourcePaths paths;
+
+        Artifacts(Path file, Graph g) {
+            this.file = file;
+            this.g = g;
+            this.scc = new TarjanSCC(g, Metrics.NOOP).run();
+            this.dag = scc.getCount() == g.n() && !hasSelfLoop(g);
+            if (dag) {
+                // Component ids are topologically ordered, so on a DAG they are the vertex positions.
+                Integer[] order = new Integer[g.n()];
+                for (int v = 0; v < g.n(); v++) order[scc.componentOf(v)] = v;
+                this.paths = new DagMultiSourcePaths(g, Arrays.asList(order), Metrics.NOOP);
+            } else {
+                this.paths = null;
+            }
+        }
+
+        long bytes() {
+            long n = g.n(), m = g.m();
+            long graph = 4 * (2 * (n + 1) + 4 * m);
+            long sccBytes = 4 * (3 * n + 1);
+            long pathBytes = dag ? 4 * (3 * n + 1 + 2 * m) : 0;
+            return graph + sccBytes + pathBytes;
+        }
+
+        private static boolean hasSelfLoop(Graph g) {
+            Adjacency out = g.out();
+            for (int u = 0; u < g.n(); u++)
+                for (int i = out.begin(u), end = out.end(u); i < end; i++)
+                    if (out.target(i) == u) return true;
+            return false;
+        }
+    }
+
+    private void route(HttpServer server, String path, Handler handler) {
+        LatencyHistogram hist = latency.computeIfAbsent(path, k -> new LatencyHistogram());
+        server.createContext(path, exchange -> {
+            long t0 = System.nanoTime();
+            int status = 200;
+            JSONObject body;
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) throw new HttpError(405, "only GET is supported");
+                if (!exchange.getRequestURI().getPath().equals(path)) throw new HttpError(404, "unknown endpoint");
+                body = handler.handle(parseQuery(exchange.getRequestURI().getRawQuery()));
+            } catch (HttpError e) {
+                status = e.status;
+                body = new JSONObject().put("error", e.getMessage());
+            } catch (NoSuchFileException e) {
+                status = 404;
+                body = new JSONObject().put("error", "no such graph: " + e.getMessage());
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                status = 400;
+                body = new JSONObject().put("error", e.getMessage());
+            } catch (Exception e) {
+                status = 500;
+                body = new JSONObject().put("error", String.valueOf(e));
+            }
+            respond(exchange, status, body);
+            hist.record(System.nanoTime() - t0);
+        });
+    }
+
+    private static void respond(HttpExchange exchange, int status, JSONObject body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> q = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return q;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            q.put(k, v);
+        }
+        return q;
+    }
+
+    private static String param(Map<String, String> q, String key) {
+        String v = q.get(key);
+        if (v == null || v.isEmpty()) throw new HttpError(400, "missing parameter: " + key);
+        return v;
+    }
+
+    private static int vertex(Map<String, String> q, String key, Artifacts a) {
+        int v;
+        try {
+            v = Integer.parseInt(param(q, key));
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, key + " is not an integer");
+        }
+        if (v < 0 || v >= a.g.n()) throw new HttpError(400, key + "=" + v + " out of range [0, " + a.g.n() + ")");
+        return v;
+    }
+
+    private Artifacts artifacts(String name) throws Exception {
+        if (!name.matches("[A-Za-z0-9_.-]+")) throw new HttpError(400, "bad graph name: " + name);
+        return cache.get("graph:" + name, () -> load(name), Artifacts::bytes);
+    }
+
+    private Artifacts load(String name) throws IOException {
+        Path file = resolve(name);
+        return new Artifacts(file, GraphReader.fromFile(file));
+    }
+
+    private ReachabilityIndex loadReach(String name, Artifacts a) throws IOException {
+        Path stored = dataDir.resolve(name + ReachabilityIndex.EXTENSION);
+        if (GraphReader.isUpToDate(stored, a.file)) {
+            try {
+                ReachabilityIndex index = ReachabilityIndex.read(stored);
+                if (index.vertexCount() == a.g.n()) return index;
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable " + stored + ": " + e.getMessage());
+            }
+        }
+        return ReachabilityIndex.build(a.g, a.scc, Metrics.NOOP);
+    }
+
+    private Path resolve(String name) throws IOException {
+        Path json = dataDir.resolve(name + ".json");
+        boolean hasJson = Files.isRegularFile(json) && GraphReader.isGraphJson(json);
+        Path file = hasJson ? GraphReader.preferBinary(json) : dataDir.resolve(name + ".gbin");
+        if (Files.isRegularFile(file)) return file;
+        throw new NoSuchFileException(name);
+    }
+
+    private JSONObject graphs() throws IOException {
+        JSONArray names = new JSONArray();
+        for (Path p : MainGraphRunner.listGraphFiles(dataDir)) names.put(GraphReader.baseName(p));
+        return new JSONObject().put("graphs", names);
+    }
+
+    private JSONObject scc(Map<String, String> q) throws Exception {
+        Artifacts a = artifacts(param(q, "graph"));
+        int v = vertex(q, "v", a);
+        int c = a.scc.componentOf(v);
+        JSONObject out = new JSONObject()
+                .put("vertex", v)
+                .put("component", c)
+                .put("size", a.scc.size(c))
+                .put("components", a.scc.getCount());
+        if (q.containsKey("members")) {
+            JSONArray members = new JSONArray();
+            for (int i = a.scc.memberBegin(c), end = a.scc.memberEnd(c); i < end; i++) members.put(a.scc.member(i));
+            out.put("members", members);
+        }
+        return out;
+    }
+
+    private JSONObject topo(Map<String, String> q) throws Exception {
+        Artifacts a = artifacts(param(q, "graph"));
+        int v = vertex(q, "v", a);
+        JSONObject out = new JSONObject()
+                .put("vertex", v)
+                .put("dag", a.dag)
+                .put("component_position", a.scc.componentOf(v));
+        out.put("position", a.dag ? a.scc.componentOf(v) : JSONObject.NULL);
+        return out;
+    }
+
+    private JSONObject distance(Map<String, String> q) throws Exception {
+        String name = param(q, "graph");
+        Artifacts a = artifacts(name);
+        if (!a.dag) throw new HttpError(409, name + " is not a DAG");
+        int s = vertex(q, "s", a);
+        int t = vertex(q, "t", a);
+        String kind = q.getOrDefault("kind", "shortest");
+        DagMultiSourcePaths.Objective objective = switch (kind) {
+            case "shortest" -> DagMultiSourcePaths.Objective.SHORTEST;
+            case "longest" -> DagMultiSourcePaths.Objective.LONGEST;
+            default -> throw new HttpError(400, "kind must be shortest or longest");
+        };
+        long[] row = cache.get("dist:" + name + ":" + kind + ":" + s, () -> a.paths.distances(s, objective),
+                d -> 16L + 8L * d.length);
+        long none = objective == DagMultiSourcePaths.Objective.SHORTEST ? Long.MAX_VALUE : Long.MIN_VALUE / 2;
+        return new JSONObject()
+                .put("source", s)
+                .put("target", t)
+                .put("kind", kind)
+                .put("distance", row[t] == none ? JSONObject.NULL : row[t]);
+    }
+
+    private JSONObject reach(Map<String, String> q) throws Exception {
+        String name = param(q, "graph");
+        Artifacts a = artifacts(name);
+        int u = vertex(q, "u", a);
+        int v = vertex(q, "v", a);
+        ReachabilityIndex index = cache.get("reach:" + name, () -> loadReach(name, a), ReachabilityIndex::bytes);
+        return new JSONObject()
+                .put("u", u)
+                .put("v", v)
+                .put("reachable", index.reachable(u, v))
+                .put("same_component", index.sameComponent(u, v));
+    }
+
+    private JSONObject stats() {
+        JSONObject endpoints = new JSONObject();
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(latency).entrySet()) {
+            LatencyHistogram h = e.getValue();
+            JSONObject buckets = new JSONObject();
+            long[] counts = h.bucketCounts();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) buckets.put("lt_" + LatencyHistogram.upperBound(i) + "ns", counts[i]);
+            }
+            endpoints.put(e.getKey(), new JSONObject()
+                    .put("count", h.count())
+                    .put("mean_ns", Math.round(h.meanNanos()))
+                    .put("p50_ns", h.percentileNanos(0.50))
+                    .put("p90_ns", h.percentileNanos(0.90))
+                    .put("p99_ns", h.percentileNanos(0.99))
+                    .put("max_ns", h.maxNanos())
+                    .put("buckets", buckets));
+        }
+        JSONObject cacheJson = new JSONObject()
+                .put("entries", cache.size())
+                .put("bytes", cache.usedBytes())
+                .put("hits", cache.hits())
+                .put("misses", cache.misses())
+                .put("evictions", cache.evictions());
+        return new JSONObject().put("latency", endpoints).put("cache", cacheJson);
+    }
+}
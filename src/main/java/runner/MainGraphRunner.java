@@ -1,32 +1,28 @@
 package runner;
 
+import graph.core.CompressedAdjacency;
 import graph.core.Graph;
-import graph.scc.KosarajuSCC;
+import graph.scc.SCCMode;
 import graph.scc.SCCResult;
 import graph.scc.CondensationGraph;
 import graph.topo.TopologicalSort;
 import graph.dagsp.DagShortestPaths;
 import graph.dagsp.DagLongestPath;
+import graph.dagsp.ParallelDagPaths;
 import utils.GraphReader;
-import utils.Metrics;
+import utils.PhaseTracer;
+import utils.SimpleMetrics;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
 import report.CsvReport;
+import report.JsonResultWriter;
 
 import java.nio.file.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
 
 public class MainGraphRunner {
 
-    static class MetricMap implements Metrics {
-        private final Map<String, Long> map = new HashMap<>();
-        public void inc(String k, long d) { map.merge(k, d, Long::sum); }
-        public long get(String k) { return map.getOrDefault(k, 0L); }
-    }
-
-    private static final List<String> CSV_HEADERS = List.of(
+    private static final List<String> CSV_HEADERS = concat(List.of(
             "file","n","m",
             "scc_count","scc_sizes",
             "cond_nodes","cond_edges","cond_topo_len","pushes","pops",
@@ -34,231 +30,278 @@ public class MainGraphRunner {
             "sp_dist_last","sp_path_last",
             "lp_target","lp_len","lp_path",
             "relax_sp","relax_lp","time_sp_ns","time_longest_ns"
-    );
+    ), FileResult.PHASE_COLUMNS);
+
+    private static final SCCMode SCC_MODE = SCCMode.parse(System.getProperty("scc.mode", "kosaraju"));
+    // Level-parallel DAG relaxation; results are identical to the sequential solvers.
+    private static final boolean DAG_PARALLEL = Boolean.getBoolean("dag.parallel");
+    // Delta+varint adjacency; neighbor lists become sorted by target, which can change traversal order.
+    private static final boolean COMPRESSED = Boolean.getBoolean("graph.compressed");
+    private static final int THREADS = Math.max(1,
+            Integer.getInteger("runner.threads", Runtime.getRuntime().availableProcessors()));
+    // Files processed ahead of the one being written; bounds memory held by finished results.
+    private static final int WINDOW = 2 * THREADS;
+    private static final boolean COMPACT = Boolean.getBoolean("results.compact");
+    // Bulky results.json sections to leave out, e.g. -Dresults.omit=distances,components.
+    private static final Set<String> OMIT = parseOmit(System.getProperty("results.omit", ""));
+    // Bump whenever an algorithm change alters results; invalidates every cache entry.
+    static final int RESULT_VERSION = 1;
+    private static final ResultCache CACHE = Boolean.parseBoolean(System.getProperty("runner.cache", "true"))
+            ? new ResultCache(Path.of(System.getProperty("runner.cache.dir", "out/cache")),
+                    Long.getLong("runner.cache.maxBytes", 512L << 20),
+                    "v" + RESULT_VERSION + " scc=" + SCC_MODE + " omit=" + new TreeSet<>(OMIT)
+                            + (COMPRESSED ? " compressed" : ""))
+            : null;
 
     public static void main(String[] args) throws Exception {
-        Path dataDir = Path.of("data");
-        List<Path> files;
-        try (var s = Files.list(dataDir)) {
-            files = s.filter(p -> p.toString().endsWith(".json"))
-                    .sorted()
-                    .toList();
-        }
-
-        JSONArray results = new JSONArray();
+        Path dataDir = Path.of(args.length > 0 ? args[0] : "data");
+        List<Path> files = listGraphFiles(dataDir);
 
         Path outDir = Path.of("out");
         Files.createDirectories(outDir);
         Path csvPath = outDir.resolve("metrics.csv");
 
-        try (CsvReport csv = new CsvReport(csvPath, CSV_HEADERS, true)) {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS, r -> {
+            Thread t = new Thread(r, "graph-runner");
+            t.setDaemon(true);
+            return t;
+        });
+        try (CsvReport csv = new CsvReport(csvPath, CSV_HEADERS, true);
+             JsonResultWriter json = new JsonResultWriter(Path.of("results.json"), COMPACT)) {
             csv.open();
+            json.beginArray();
 
+            // Results are consumed in file order, so output stays deterministic whatever finishes first.
+            Deque<Future<FileResult>> inFlight = new ArrayDeque<>();
+            int submitted = 0;
             for (Path p : files) {
-                JSONObject one = processFileToJson(p);
-                results.put(one);
-
-                Map<String, Object> row = jsonToCsvRow(one);
-                csv.append(row);
+                while (submitted < files.size() && inFlight.size() < WINDOW) {
+                    Path next = files.get(submitted++);
+                    inFlight.add(pool.submit(() -> processFile(next)));
+                }
+                FileResult one = await(inFlight.poll(), p);
+                one.writeJson(json);
+                csv.append(one.toCsvRow());
             }
+            json.endArray();
+        } finally {
+            pool.shutdownNow();
         }
 
-        Files.writeString(Path.of("results.json"), results.toString(2));
+        if (CACHE != null) System.out.println("Result cache: " + CACHE.hits() + " hits, " + CACHE.misses() + " misses");
         System.out.println("JSON report saved to results.json");
         System.out.println("CSV  report saved to summary.csv");
     }
 
-    private static JSONObject processFileToJson(Path path) {
-        JSONObject out = new JSONObject();
-        MetricMap m = new MetricMap();
-
-        try {
-            Graph g = GraphReader.fromJsonFile(path);
-            out.put("file", path.getFileName().toString());
-            out.put("n", g.n());
-            out.put("m", g.edges().size());
-
-            KosarajuSCC sccAlgo = new KosarajuSCC(g, m);
-            SCCResult scc = sccAlgo.run();
-
-            List<List<Integer>> comps = scc.getComponents();
-            List<Integer> sizes = comps.stream().map(List::size).collect(Collectors.toList());
-
-            JSONObject sccJson = new JSONObject();
-            sccJson.put("count", scc.getCount());
-            sccJson.put("sizes", new JSONArray(sizes));
-
-            JSONArray compsArr = new JSONArray();
-            for (List<Integer> comp : comps) compsArr.put(new JSONArray(comp));
-            sccJson.put("components", compsArr);
-            out.put("scc", sccJson);
-
-            CondensationGraph cond = new CondensationGraph(g, scc);
-            Graph dagCondensed = cond.buildCondensedGraph();
-            TopologicalSort topoOnCondensed = new TopologicalSort(dagCondensed, m);
-            List<Integer> orderCondensed = topoOnCondensed.run();
-
-            JSONObject condJson = new JSONObject();
-            condJson.put("dag_nodes", dagCondensed.n());
-            condJson.put("dag_edges", dagCondensed.edges().size());
-            condJson.put("topo_order", new JSONArray(orderCondensed));
-            condJson.put("pushes", m.get("pushes"));
-            condJson.put("pops", m.get("pops"));
-            out.put("condensation", condJson);
-
-            if (path.getFileName().toString().contains("_dag.json")) {
-                TopologicalSort topoOnOriginal = new TopologicalSort(g, m);
-                List<Integer> topoOrder = topoOnOriginal.run();
-                int source = (g.source() != null) ? g.source() : 0;
-
-                DagShortestPaths sp = new DagShortestPaths(g, m);
-                DagShortestPaths.Result spRes = sp.run(topoOrder, source);
-
-                DagLongestPath lp = new DagLongestPath(g, m);
-                DagLongestPath.Result lpRes = lp.run(topoOrder, source);
-
-                int tSp = g.n() - 1;
-                List<Integer> spPath = spRes.reconstructPath(tSp);
-
-                int tLongest = lpRes.argMax();
-                List<Integer> lpPath = lpRes.reconstructPath(tLongest);
-                long lpLen = (lpPath.isEmpty() ? Long.MIN_VALUE / 2 : lpRes.best[tLongest]);
-
-                JSONObject dagJson = new JSONObject();
-                dagJson.put("source", source);
-                dagJson.put("topo_order", new JSONArray(topoOrder));
-
-                JSONArray distJson = new JSONArray();
-                for (long d : spRes.dist) distJson.put(d == Long.MAX_VALUE ? "INF" : d);
-
-                JSONObject shortest = new JSONObject();
-                shortest.put("distances", distJson);
-                shortest.put("example_target", tSp);
-                shortest.put("example_path", new JSONArray(spPath));
-                dagJson.put("shortest", shortest);
-
-                JSONObject longest = new JSONObject();
-                longest.put("argmax_target", tLongest);
-                longest.put("path", new JSONArray(lpPath));
-                longest.put("length", lpPath.isEmpty() ? JSONObject.NULL : lpLen);
-                dagJson.put("longest", longest);
-
-                JSONObject metrics = new JSONObject();
-                metrics.put("pushes", m.get("pushes"));
-                metrics.put("pops", m.get("pops"));
-                metrics.put("relax_sp", m.get("relaxations_sp"));
-                metrics.put("relax_lp", m.get("relaxations_lp"));
-                metrics.put("time_sp_ns", m.get("time_ns_dag_sp"));
-                metrics.put("time_longest_ns", m.get("time_ns_dag_longest"));
-                dagJson.put("metrics", metrics);
-
-                out.put("dag", dagJson);
+    /**
+     * Graph files in {@code dir}; when both {@code x.json} and {@code x.gbin} exist the binary one is
+     * used unless it is older than the JSON, in which case the stale binary is skipped.
+     */
+    static List<Path> listGraphFiles(Path dir) throws java.io.IOException {
+        List<Path> all;
+        try (var s = Files.list(dir)) {
+            all = s.filter(p -> GraphReader.isGraphJson(p) || GraphReader.isBinary(p))
+                    .sorted()
+                    .toList();
+        }
+        Map<String, Path> json = new HashMap<>();
+        for (Path p : all) if (!GraphReader.isBinary(p)) json.put(GraphReader.baseName(p), p);
+        List<Path> out = new ArrayList<>();
+        for (Path p : all) {
+            Path source = json.get(GraphReader.baseName(p));
+            if (source == null || GraphReader.preferBinary(source).equals(p)) {
+                out.add(p);
+            } else if (GraphReader.isBinary(p)) {
+                System.err.println("Ignoring " + p + ": older than " + source.getFileName());
             }
-
-        } catch (Exception e) {
-            out.put("error", e.getMessage());
         }
-
         return out;
     }
 
-    private static Map<String, Object> jsonToCsvRow(JSONObject one) {
-        Map<String, Object> row = new LinkedHashMap<>();
-
-        String file = one.optString("file", "");
-        int n = one.optInt("n", 0);
-        int m = one.optInt("m", 0);
-
-        JSONObject scc = one.optJSONObject("scc");
-        int sccCount = (scc != null) ? scc.optInt("count", 0) : 0;
-        List<Object> sccSizes = jsonArrayToList(scc != null ? scc.optJSONArray("sizes") : null);
-
-        JSONObject condensation = one.optJSONObject("condensation");
-        int condNodes = (condensation != null) ? condensation.optInt("dag_nodes", 0) : 0;
-        int condEdges = (condensation != null) ? condensation.optInt("dag_edges", 0) : 0;
-        int condTopoLen = (condensation != null && condensation.has("topo_order"))
-                ? condensation.getJSONArray("topo_order").length() : 0;
-        long pushes = (condensation != null) ? condensation.optLong("pushes", 0) : 0;
-        long pops   = (condensation != null) ? condensation.optLong("pops", 0) : 0;
-
-        boolean isDagFile = one.has("dag");
-        Integer source = null;
-        Object spDistLast = "";
-        List<Object> spPathLast = List.of();
-        Object lpTarget = "";
-        Object lpLen = "";
-        List<Object> lpPath = List.of();
-        Long relaxSp = null, relaxLp = null, timeSp = null, timeLp = null;
-
-        if (isDagFile) {
-            JSONObject dag = one.getJSONObject("dag");
-            source = dag.optInt("source", 0);
-
-            JSONObject shortest = dag.optJSONObject("shortest");
-            if (shortest != null) {
-                JSONArray distances = shortest.optJSONArray("distances");
-                int tSp = one.optInt("n", 1) - 1; // last vertex
-                if (distances != null && tSp >= 0 && tSp < distances.length()) {
-                    spDistLast = distances.get(tSp); // может быть "INF" или число
-                }
-                spPathLast = jsonArrayToList(shortest.optJSONArray("example_path"));
-            }
+    /** Files named {@code *_dag} also get the topological order and DAG path sections. */
+    static boolean isDagFile(Path path) {
+        return GraphReader.baseName(path).endsWith("_dag");
+    }
 
-            JSONObject longest = dag.optJSONObject("longest");
-            if (longest != null) {
-                lpTarget = longest.opt("argmax_target");
-                Object length = longest.opt("length");
-                lpLen = (length == JSONObject.NULL) ? "N/A" : length;
-                lpPath = jsonArrayToList(longest.optJSONArray("path"));
-            }
+    private static FileResult await(Future<FileResult> f, Path path) throws InterruptedException {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            // Errors (e.g. OutOfMemoryError) escape processFile; keep the batch going.
+            FileResult out = new FileResult(path.getFileName().toString());
+            out.error = String.valueOf(e.getCause());
+            return out;
+        }
+    }
 
-            JSONObject met = dag.optJSONObject("metrics");
-            if (met != null) {
-                relaxSp = met.optLong("relax_sp", 0);
-                relaxLp = met.optLong("relax_lp", 0);
-                timeSp = met.optLong("time_sp_ns", 0);
-                timeLp = met.optLong("time_longest_ns", 0);
+    /** One pass of the analysis over {@code path}; fills {@code out} and throws on failure. */
+    @FunctionalInterface
+    interface Pipeline {
+        void run(Path path, PhaseTracer trace, FileResult out) throws Exception;
+    }
+
+    static FileResult processFile(Path path) {
+        return processFile(path, CACHE, MainGraphRunner::analyze);
+    }
+
+    /** Serves {@code path} from {@code cache} (null disables caching); only successful results are stored. */
+    static FileResult processFile(Path path, ResultCache cache, Pipeline pipeline) {
+        String name = path.getFileName().toString();
+        PhaseTracer trace = new PhaseTracer(name);
+        if (cache == null) return compute(path, trace, pipeline);
+        trace.phase("cache");
+        String key;
+        try {
+            key = cache.key(path);
+        } catch (java.io.IOException e) {
+            return compute(path, trace, pipeline);
+        }
+        FileResult cached = cache.get(key, name);
+        if (cached != null) {
+            trace.end();
+            cached.trace = trace;
+            return cached;
+        }
+        FileResult out = compute(path, trace, pipeline);
+        if (out.error == null) {
+            trace.phase("cache");
+            try {
+                cache.put(key, out);
+            } catch (java.io.IOException e) {
+                System.err.println("Result cache: could not store " + name + ": " + e);
             }
+            trace.end();
         }
+        return out;
+    }
 
-        row.put("file", file);
-        row.put("n", n);
-        row.put("m", m);
-
-        row.put("scc_count", sccCount);
-        row.put("scc_sizes", sccSizes);
+    static FileResult compute(Path path) {
+        return compute(path, new PhaseTracer(path.getFileName().toString()));
+    }
 
-        row.put("cond_nodes", condNodes);
-        row.put("cond_edges", condEdges);
-        row.put("cond_topo_len", condTopoLen);
-        row.put("pushes", pushes);
-        row.put("pops", pops);
+    static FileResult compute(Path path, PhaseTracer trace) {
+        return compute(path, trace, MainGraphRunner::analyze);
+    }
 
-        row.put("is_dag_file", isDagFile);
-        row.put("source", source == null ? "" : source);
+    /** Runs {@code pipeline} on one file; any exception leaves a non-null {@link FileResult#error}. */
+    static FileResult compute(Path path, PhaseTracer trace, Pipeline pipeline) {
+        FileResult out = new FileResult(path.getFileName().toString());
+        out.trace = trace;
+        try {
+            pipeline.run(path, trace, out);
+        } catch (Exception e) {
+            // Some exceptions carry no message; a null error would pass for a success.
+            out.error = e.getMessage() != null ? e.getMessage() : String.valueOf(e);
+        } finally {
+            trace.end();
+        }
+        return out;
+    }
 
-        row.put("sp_dist_last", spDistLast);
-        row.put("sp_path_last", spPathLast);
+    /** Runs the pipeline on one file, recording each step as a phase of {@code trace}. */
+    private static void analyze(Path path, PhaseTracer trace, FileResult out) throws Exception {
+        SimpleMetrics m = new SimpleMetrics();
+        trace.phase("parse");
+        Graph g = GraphReader.fromFile(path, trace);
+        // A parsed JSON graph is briefly held both as CSR and compressed; a .gbin is encoded from the mapped file.
+        if (COMPRESSED) g = CompressedAdjacency.compress(g);
+        out.n = g.n();
+        out.m = g.m();
+        out.loaded = true;
+
+        trace.phase("scc");
+        SCCResult scc = SCC_MODE.create(g, m).run();
+        int[] sizes = new int[scc.getCount()];
+        for (int c = 0; c < sizes.length; c++) sizes[c] = scc.size(c);
+        if (!OMIT.contains("components")) out.scc = scc;
+        if (SCC_MODE == SCCMode.PARALLEL) {
+            out.parallelPhases = new long[]{m.get("scc_threads"), m.get("scc_trimmed"),
+                    m.get("time_ns_scc_trim"), m.get("time_ns_scc_fwbw"), m.get("time_ns_scc_assemble")};
+        }
+        out.sccCount = scc.getCount();
+        out.sccSizes = sizes;
+
+        trace.phase("condense");
+        CondensationGraph cond = new CondensationGraph(g, scc);
+        Graph dagCondensed = cond.buildCondensedGraph();
+        trace.phase("topo_condensed");
+        TopologicalSort topoOnCondensed = new TopologicalSort(dagCondensed, m);
+        List<Integer> orderCondensed = topoOnCondensed.run();
+
+        out.condNodes = dagCondensed.n();
+        out.condEdges = dagCondensed.m();
+        out.condTopoLen = orderCondensed.size();
+        if (!OMIT.contains("topo_order")) out.condTopo = toArray(orderCondensed);
+        out.condPushes = m.get("pushes");
+        out.condPops = m.get("pops");
+        out.condensed = true;
+
+        if (isDagFile(path)) {
+            trace.phase("topo");
+            TopologicalSort topoOnOriginal = new TopologicalSort(g, m);
+            List<Integer> topoOrder = topoOnOriginal.run();
+            int source = (g.source() != null) ? g.source() : 0;
+
+            DagShortestPaths.Result spRes;
+            DagLongestPath.Result lpRes;
+            if (DAG_PARALLEL) {
+                trace.phase("dag_sp");
+                ParallelDagPaths pp = new ParallelDagPaths(g, topoOrder, m);
+                spRes = pp.shortest(source);
+                trace.phase("dag_lp");
+                lpRes = pp.longest(source);
+            } else {
+                trace.phase("dag_sp");
+                spRes = new DagShortestPaths(g, m).run(topoOrder, source);
+                trace.phase("dag_lp");
+                lpRes = new DagLongestPath(g, m).run(topoOrder, source);
+            }
 
-        row.put("lp_target", lpTarget);
-        row.put("lp_len", lpLen);
-        row.put("lp_path", lpPath);
+            int tSp = g.n() - 1;
+            int tLongest = lpRes.argMax();
+            List<Integer> lpPath = lpRes.reconstructPath(tLongest);
+
+            out.source = source;
+            if (!OMIT.contains("topo_order")) out.topoOrder = toArray(topoOrder);
+            if (!OMIT.contains("distances")) out.distances = spRes.dist;
+            if (tSp >= 0) out.spDistLast = spRes.dist[tSp] == Long.MAX_VALUE ? "INF" : (Object) spRes.dist[tSp];
+            out.spTarget = tSp;
+            out.spPath = toArray(spRes.reconstructPath(tSp));
+            out.lpTarget = tLongest;
+            out.lpPath = toArray(lpPath);
+            out.lpLen = lpPath.isEmpty() ? Long.MIN_VALUE / 2 : lpRes.best[tLongest];
+
+            out.pushes = m.get("pushes");
+            out.pops = m.get("pops");
+            out.relaxSp = m.get("relaxations_sp");
+            out.relaxLp = m.get("relaxations_lp");
+            out.timeSp = m.get("time_ns_dag_sp");
+            out.timeLp = m.get("time_ns_dag_longest");
+            out.dag = true;
+        }
+    }
 
-        row.put("relax_sp", relaxSp == null ? "" : relaxSp);
-        row.put("relax_lp", relaxLp == null ? "" : relaxLp);
-        row.put("time_sp_ns", timeSp == null ? "" : timeSp);
-        row.put("time_longest_ns", timeLp == null ? "" : timeLp);
+    private static List<String> concat(List<String> a, List<String> b) {
+        List<String> all = new ArrayList<>(a);
+        all.addAll(b);
+        return List.copyOf(all);
+    }
 
-        return row;
+    private static int[] toArray(List<Integer> list) {
+        int[] a = new int[list.size()];
+        for (int i = 0; i < a.length; i++) a[i] = list.get(i);
+        return a;
     }
 
-    private static List<Object> jsonArrayToList(JSONArray arr) {
-        if (arr == null) return List.of();
-        List<Object> list = new ArrayList<>(arr.length());
-        for (int i = 0; i < arr.length(); i++) {
-            Object val = arr.get(i);
-            list.add(val == JSONObject.NULL ? null : val);
+    private static Set<String> parseOmit(String spec) {
+        Set<String> omit = new HashSet<>();
+        for (String s : spec.split(",")) {
+            String section = s.trim();
+            if (section.isEmpty()) continue;
+            if (!FileResult.OMITTABLE.contains(section))
+                throw new IllegalArgumentException("Unknown results.omit section: " + section + " (expected " + FileResult.OMITTABLE + ")");
+            omit.add(section);
         }
-        return list;
+        return omit;
     }
 }
@@ -0,0 +1,209 @@
+package runner;
+
+import graph.scc.SCCResult;
+import utils.ArrayIO;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk cache of {@link FileResult}s keyed by SHA-256 of the input file's bytes plus a salt
+ * naming the algorithm version and every option that changes the result. The key also covers
+ * whether the file name marks a DAG, since that decides which sections are computed. Entries are compact
+ * binary files {@code <key>.res}; a hit touches the file's modification time and the cache is
+ * trimmed to {@code maxBytes} by deleting the least recently used entries.
+ */
+final class ResultCache {
+
+    private static final int MAGIC = 0x43524753; // "SGRC"
+    private static final String SUFFIX = ".res";
+    private static final int CHUNK = 1 << 16;
+
+    private final Path dir;
+    private final long maxBytes;
+    private final byte[] salt;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    ResultCache(Path dir, long maxBytes, String salt) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.salt = (salt + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    int hits() { return hits.get(); }
+    int misses() { return misses.get(); }
+
+    String key(Path input) throws IOException {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        md.update(salt);
+        md.update((MainGraphRunner.isDagFile(input) ? "dag\n" : "any\n").getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK);
+        try (FileChannel ch = FileChannel.open(input, StandardOpenOption.READ)) {
+            while (ch.read(buf) >= 0) {
+                buf.flip();
+                md.update(buf);
+                buf.clear();
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    /** Cached result for {@code key}, or null; unreadable entries count as misses and are removed. */
+    FileResult get(String key, String fileName) {
+        Path p = dir.resolve(key + SUFFIX);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p), CHUNK))) {
+            FileResult r = read(in, fileName, Files.size(p));
+            Files.setLastModifiedTime(p, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return r;
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            misses.incrementAndGet();
+            try { Files.deleteIfExists(p); } catch (IOException ignored) { }
+            return null;
+        }
+    }
+
+    void put(String key, FileResult r) throws IOException {
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, key, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), CHUNK))) {
+                write(out, r);
+            }
+            Files.move(tmp, dir.resolve(key + SUFFIX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        evict();
+    }
+
+    /** Deletes least recently used entries until the cache fits in {@code maxBytes}. */
+    synchronized void evict() throws IOException {
+        record Entry(Path path, long size, long time) {}
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path p : ds) {
+                try {
+                    long size = Files.size(p);
+                    entries.add(new Entry(p, size, Files.getLastModifiedTime(p).toMillis()));
+                    total += size;
+                } catch (NoSuchFileException ignored) {
+                    // removed concurrently
+                }
+            }
+        }
+        if (total <= maxBytes) return;
+        entries.sort(Comparator.comparingLong(Entry::time));
+        for (Entry e : entries) {
+            if (total <= maxBytes) break;
+            Files.deleteIfExists(e.path());
+            total -= e.size();
+        }
+    }
+
+    static void write(DataOutputStream out, FileResult r) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(r.n);
+        out.writeInt(r.m);
+        out.writeBoolean(r.loaded);
+
+        out.writeBoolean(r.sccSizes != null);
+        if (r.sccSizes != null) {
+            out.writeInt(r.sccCount);
+            ArrayIO.writeInts(out, r.sccSizes);
+            ArrayIO.writeInts(out, r.scc == null ? null : r.scc.componentOf());
+            ArrayIO.writeLongs(out, r.parallelPhases);
+        }
+
+        out.writeBoolean(r.condensed);
+        if (r.condensed) {
+            out.writeInt(r.condNodes);
+            out.writeInt(r.condEdges);
+            out.writeInt(r.condTopoLen);
+            ArrayIO.writeInts(out, r.condTopo);
+            out.writeLong(r.condPushes);
+            out.writeLong(r.condPops);
+        }
+
+        out.writeBoolean(r.dag);
+        if (r.dag) {
+            out.writeInt(r.source);
+            ArrayIO.writeInts(out, r.topoOrder);
+            ArrayIO.writeLongs(out, r.distances);
+            if (r.spDistLast instanceof Long d) { out.writeByte(2); out.writeLong(d); }
+            else out.writeByte("INF".equals(r.spDistLast) ? 1 : 0);
+            out.writeInt(r.spTarget);
+            ArrayIO.writeInts(out, r.spPath);
+            out.writeInt(r.lpTarget);
+            ArrayIO.writeInts(out, r.lpPath);
+            out.writeLong(r.lpLen);
+            for (long v : new long[]{r.pushes, r.pops, r.relaxSp, r.relaxLp, r.timeSp, r.timeLp}) out.writeLong(v);
+        }
+    }
+
+    /** Reads one entry; no stored array may claim more than {@code limit} bytes, the size of the entry file. */
+    static FileResult read(DataInputStream in, String fileName, long limit) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("not a result cache entry");
+        FileResult r = new FileResult(fileName);
+        r.n = in.readInt();
+        r.m = in.readInt();
+        r.loaded = in.readBoolean();
+
+        if (in.readBoolean()) {
+            r.sccCount = in.readInt();
+            r.sccSizes = ArrayIO.readInts(in, limit);
+            int[] comp = ArrayIO.readInts(in, limit);
+            if (comp != null) r.scc = SCCResult.fromComponentIds(comp, r.sccCount);
+            r.parallelPhases = ArrayIO.readLongs(in, limit);
+        }
+
+        r.condensed = in.readBoolean();
+        if (r.condensed) {
+            r.condNodes = in.readInt();
+            r.condEdges = in.readInt();
+            r.condTopoLen = in.readInt();
+            r.condTopo = ArrayIO.readInts(in, limit);
+            r.condPushes = in.readLong();
+            r.condPops = in.readLong();
+        }
+
+        r.dag = in.readBoolean();
+        if (r.dag) {
+            r.source = in.readInt();
+            r.topoOrder = ArrayIO.readInts(in, limit);
+            r.distances = ArrayIO.readLongs(in, limit);
+            int tag = in.readByte();
+            r.spDistLast = tag == 2 ? (Object) in.readLong() : tag == 1 ? "INF" : "";
+            r.spTarget = in.readInt();
+            r.spPath = ArrayIO.readInts(in, limit);
+            r.lpTarget = in.readInt();
+            r.lpPath = ArrayIO.readInts(in, limit);
+            r.lpLen = in.readLong();
+            r.pushes = in.readLong();
+            r.pops = in.readLong();
+            r.relaxSp = in.readLong();
+            r.relaxLp = in.readLong();
+            r.timeSp = in.readLong();
+            r.timeLp = in.readLong();
+        }
+        return r;
+    }
+}
@@ -0,0 +1,98 @@
+package utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Primitive array blocks for the binary cache and index files: a length ({@code -1} for null)
+ * followed by big-endian elements, converted in {@code CHUNK}-byte blocks rather than one
+ * {@code writeInt}/{@code readInt} call per element.
+ */
+public final class ArrayIO {
+
+    private static final int CHUNK = 1 << 16;
+
+    private ArrayIO() {}
+
+    public static void writeInts(DataOutputStream out, int[] a) throws IOException {
+        out.writeInt(a == null ? -1 : a.length);
+        if (a == null) return;
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < a.length; ) {
+            int k = Math.min(a.length - i, CHUNK / 4);
+            buf.clear();
+            buf.asIntBuffer().put(a, i, k);
+            out.write(buf.array(), 0, k * 4);
+            i += k;
+        }
+    }
+
+    public static void writeLongs(DataOutputStream out, long[] a) throws IOException {
+        out.writeInt(a == null ? -1 : a.length);
+        if (a == null) return;
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < a.length; ) {
+            int k = Math.min(a.length - i, CHUNK / 8);
+            buf.clear();
+            buf.asLongBuffer().put(a, i, k);
+            out.write(buf.array(), 0, k * 8);
+            i += k;
+        }
+    }
+
+    /** Array written by {@link #writeInts}, or null if null was written. */
+    public static int[] readInts(DataInputStream in) throws IOException {
+        return readInts(in, Long.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #readInts(DataInputStream)}, but a stored length needing more than {@code maxBytes}
+     * bytes is rejected as corrupt before anything is allocated.
+     */
+    public static int[] readInts(DataInputStream in, long maxBytes) throws IOException {
+        int len = length(in, 4, maxBytes);
+        if (len < 0) return null;
+        int[] a = new int[len];
+        byte[] bytes = new byte[CHUNK];
+        ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < len; ) {
+            int k = Math.min(len - i, CHUNK / 4);
+            in.readFully(bytes, 0, k * 4);
+            buf.clear();
+            buf.asIntBuffer().get(a, i, k);
+            i += k;
+        }
+        return a;
+    }
+
+    /** Array written by {@link #writeLongs}, or null if null was written. */
+    public static long[] readLongs(DataInputStream in) throws IOException {
+        return readLongs(in, Long.MAX_VALUE);
+    }
+
+    /** {@link #readLongs(DataInputStream)} with the length check of {@link #readInts(DataInputStream, long)}. */
+    public static long[] readLongs(DataInputStream in, long maxBytes) throws IOException {
+        int len = length(in, 8, maxBytes);
+        if (len < 0) return null;
+        long[] a = new long[len];
+        byte[] bytes = new byte[CHUNK];
+        ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < len; ) {
+            int k = Math.min(len - i, CHUNK / 8);
+            in.readFully(bytes, 0, k * 8);
+            buf.clear();
+            buf.asLongBuffer().get(a, i, k);
+            i += k;
+        }
+        return a;
+    }
+
+    private static int length(DataInputStream in, int elementBytes, long maxBytes) throws IOException {
+        int len = in.readInt();
+        if (len < -1 || (long) len * elementBytes > maxBytes) throw new IOException("corrupt array length " + len);
+        return len;
+    }
+}
@@ -0,0 +1,123 @@
+package utils;
+
+import graph.core.Adjacency;
+import graph.core.Graph;
+import graph.core.MappedAdjacency;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned little-endian CSR file ({@code .gbin}).
+ * <pre>
+ * int magic "GBIN", int version, int flags (1 directed, 2 has source, 4 has transpose),
+ * int n, int edge slots, int logical edges, int source, int weight-model byte length,
+ * weight-model UTF-8 bytes padded to 8,
+ * out: int[n+1] offsets, int[slots] targets, int[slots] weights,
+ * in (if flag 4): same layout for the transpose.
+ * </pre>
+ */
+public final class BinaryGraphFormat {
+
+    public static final String EXTENSION = ".gbin";
+    public static final int MAGIC = 0x4E494247;
+    public static final int VERSION = 1;
+
+    private static final int DIRECTED = 1;
+    private static final int HAS_SOURCE = 2;
+    private static final int HAS_TRANSPOSE = 4;
+    private static final int FIXED_HEADER = 32;
+
+    private BinaryGraphFormat() {}
+
+    public static void write(Graph g, Path path) throws IOException {
+        byte[] model = g.weightModel() == null ? new byte[0] : g.weightModel().getBytes(StandardCharsets.UTF_8);
+        int flags = (g.isDirected() ? DIRECTED : 0) | (g.source() != null ? HAS_SOURCE : 0)
+                | (g.isDirected() ? HAS_TRANSPOSE : 0);
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(flags)
+                    .putInt(g.n()).putInt(g.out().edgeCount()).putInt(g.m())
+                    .putInt(g.source() != null ? g.source() : -1).putInt(model.length)
+                    .put(model);
+            for (int pad = headerBytes(model.length) - FIXED_HEADER - model.length; pad > 0; pad--) buf.put((byte) 0);
+
+            writeSection(ch, buf, g.out());
+            if ((flags & HAS_TRANSPOSE) != 0) writeSection(ch, buf, g.in());
+            drain(ch, buf);
+        }
+    }
+
+    private static void writeSection(FileChannel ch, ByteBuffer buf, Adjacency adj) throws IOException {
+        int n = adj.vertexCount();
+        for (int u = 0; u < n; u++) putInt(ch, buf, adj.begin(u));
+        putInt(ch, buf, n == 0 ? 0 : adj.end(n - 1));
+        int slots = adj.edgeCount();
+        for (int i = 0; i < slots; i++) putInt(ch, buf, adj.target(i));
+        for (int i = 0; i < slots; i++) putInt(ch, buf, adj.weight(i));
+    }
+
+    private static void putInt(FileChannel ch, ByteBuffer buf, int x) throws IOException {
+        if (buf.remaining() < 4) drain(ch, buf);
+        buf.putInt(x);
+    }
+
+    private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    /** Maps the file read-only; neighbor lookups read the mapped pages directly. */
+    public static Graph map(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(FIXED_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, head, 0, path);
+            head.flip();
+            if (head.getInt() != MAGIC) throw new IOException("Not a binary graph file: " + path);
+            int version = head.getInt();
+            if (version != VERSION) throw new IOException("Unsupported binary graph version " + version + ": " + path);
+            int flags = head.getInt();
+            int n = head.getInt();
+            int slots = head.getInt();
+            int m = head.getInt();
+            int source = head.getInt();
+            int modelLen = head.getInt();
+
+            ByteBuffer model = ByteBuffer.allocate(modelLen);
+            readFully(ch, model, FIXED_HEADER, path);
+            String weightModel = new String(model.array(), StandardCharsets.UTF_8);
+
+            long pos = headerBytes(modelLen);
+            long section = MappedAdjacency.sectionBytes(n, slots);
+            boolean hasTranspose = (flags & HAS_TRANSPOSE) != 0;
+            long expected = pos + section * (hasTranspose ? 2 : 1);
+            if (ch.size() < expected) {
+                throw new IOException("Truncated binary graph file (" + ch.size() + " < " + expected + " bytes): " + path);
+            }
+
+            Adjacency out = new MappedAdjacency(ch, pos, n, slots);
+            Adjacency in = hasTranspose ? new MappedAdjacency(ch, pos + section, n, slots) : null;
+            Integer src = (flags & HAS_SOURCE) != 0 ? source : null;
+            return new Graph((flags & DIRECTED) != 0, n, m, out, in, src, weightModel);
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position, Path path) throws IOException {
+        while (buf.hasRemaining()) {
+            int r = ch.read(buf, position + buf.position());
+            if (r < 0) throw new IOException("Truncated binary graph header: " + path);
+        }
+    }
+
+    private static int headerBytes(int modelLen) {
+        return (FIXED_HEADER + modelLen + 7) & ~7;
+    }
+}
@@ -0,0 +1,36 @@
+package utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Thread-safe metrics backed by striped {@link LongAdder} slots. */
+public final class ConcurrentMetrics implements Metrics {
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String key) {
+        return slots.computeIfAbsent(key, k -> new Slot());
+    }
+
+    @Override
+    public void inc(String key, long delta) {
+        slots.computeIfAbsent(key, k -> new Slot()).add(delta);
+    }
+
+    @Override
+    public long get(String key) {
+        Slot s = slots.get(key);
+        return s == null ? 0 : s.sum();
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> out = new TreeMap<>();
+        slots.forEach((k, s) -> out.put(k, s.sum()));
+        return out;
+    }
+
+    private static final class Slot extends LongAdder implements Counter {
+    }
+}
@@ -0,0 +1,11 @@
+package utils;
+
+/** Pre-resolved metric slot; obtain once via {@link Metrics#counter(String)} and reuse in hot loops. */
+@FunctionalInterface
+public interface Counter {
+    Counter NOOP = delta -> { };
+
+    void add(long delta);
+
+    default void inc() { add(1); }
+}
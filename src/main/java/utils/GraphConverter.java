@@ -0,0 +1,50 @@
+package utils;
+
+import graph.core.Graph;
+import graph.scc.ReachabilityIndex;
+import graph.scc.TarjanSCC;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts graph JSON files (or every *.json in a directory) into the binary format, next to the input.
+ * With {@code -Dconverter.reach=true} it also writes each graph's {@link ReachabilityIndex}.
+ */
+public class GraphConverter {
+
+    private static final boolean REACH = Boolean.getBoolean("converter.reach");
+
+    public static void main(String[] args) throws Exception {
+        List<Path> inputs = new ArrayList<>();
+        for (String a : (args.length == 0 ? new String[]{"data"} : args)) {
+            Path p = Path.of(a);
+            if (Files.isDirectory(p)) {
+                try (var s = Files.list(p)) {
+                    s.filter(GraphReader::isGraphJson).sorted().forEach(inputs::add);
+                }
+            } else {
+                inputs.add(p);
+            }
+        }
+
+        for (Path in : inputs) {
+            Path out = GraphReader.binarySibling(in);
+            long t0 = System.nanoTime();
+            Graph g = GraphReader.fromJsonFile(in);
+            BinaryGraphFormat.write(g, out);
+            long t1 = System.nanoTime();
+            System.out.printf("%s -> %s (n=%d, m=%d, %d bytes, %.1f ms)%n",
+                    in, out.getFileName(), g.n(), g.m(), Files.size(out), (t1 - t0) / 1e6);
+            if (REACH) {
+                Path reach = in.resolveSibling(GraphReader.baseName(in) + ReachabilityIndex.EXTENSION);
+                ReachabilityIndex index = ReachabilityIndex.build(g, new TarjanSCC(g, Metrics.NOOP).run(), Metrics.NOOP);
+                index.write(reach);
+                System.out.printf("%s -> %s (%s, %d bytes)%n", in, reach.getFileName(),
+                        index.isClosure() ? "closure" : "GRAIL", Files.size(reach));
+            }
+        }
+    }
+}
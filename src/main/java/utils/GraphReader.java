@@ -1,36 +1,73 @@
 package utils;
 
-import graph.core.Edge;
 import graph.core.Graph;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.StandardOpenOption;
 
 public class GraphReader {
 
+    // Rough size of one pretty-printed {"u":..,"v":..,"w":..} entry, used to presize edge arrays.
+    private static final int BYTES_PER_EDGE_HINT = 48;
+
     public static Graph fromJsonFile(Path path) throws IOException {
-        String text = Files.readString(path);
-        JSONObject root = new JSONObject(text);
-
-        boolean directed = root.getBoolean("directed");
-        int n = root.getInt("n");
-        String weightModel = root.optString("weight_model", "edge");
-        Integer source = root.has("source") ? root.getInt("source") : null;
-
-        JSONArray edgesArr = root.getJSONArray("edges");
-        var edges = new ArrayList<Edge>(edgesArr.length());
-        for (int i = 0; i < edgesArr.length(); i++) {
-            JSONObject e = edgesArr.getJSONObject(i);
-            int u = e.getInt("u");
-            int v = e.getInt("v");
-            int w = e.getInt("w");
-            edges.add(new Edge(u, v, w));
+        return fromJsonFile(path, null);
+    }
+
+    /** Parses {@code path}; a non-null {@code trace} is switched to a {@code build} phase once parsing is done. */
+    public static Graph fromJsonFile(Path path, PhaseTracer trace) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long hint = Math.min(ch.size() / BYTES_PER_EDGE_HINT, Integer.MAX_VALUE - 8);
+            return new JsonGraphParser(ch, (int) hint).parse(trace);
         }
+    }
+
+    public static Graph fromBinaryFile(Path path) throws IOException {
+        return BinaryGraphFormat.map(path);
+    }
+
+    /** Dispatches on extension: {@code .gbin} is memory-mapped, anything else is parsed as JSON. */
+    public static Graph fromFile(Path path) throws IOException {
+        return fromFile(path, null);
+    }
+
+    public static Graph fromFile(Path path, PhaseTracer trace) throws IOException {
+        return isBinary(path) ? fromBinaryFile(path) : fromJsonFile(path, trace);
+    }
+
+    public static boolean isBinary(Path path) {
+        return path.getFileName().toString().endsWith(BinaryGraphFormat.EXTENSION);
+    }
+
+    public static boolean isGraphJson(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".json") && !name.equals("results.json");
+    }
+
+    /** File name without the {@code .json}/{@code .gbin} extension. */
+    public static String baseName(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    public static Path binarySibling(Path json) {
+        return json.resolveSibling(baseName(json) + BinaryGraphFormat.EXTENSION);
+    }
+
+    /** True if {@code derived} exists and was modified no earlier than {@code source} (or {@code source} is missing). */
+    public static boolean isUpToDate(Path derived, Path source) throws IOException {
+        if (!Files.isRegularFile(derived)) return false;
+        if (!Files.exists(source)) return true;
+        return Files.getLastModifiedTime(derived).compareTo(Files.getLastModifiedTime(source)) >= 0;
+    }
 
-        return new Graph(directed, n, edges, source, weightModel);
+    /** {@code json}'s binary sibling if that is up to date, otherwise {@code json} itself. */
+    public static Path preferBinary(Path json) throws IOException {
+        Path bin = binarySibling(json);
+        return isUpToDate(bin, json) ? bin : json;
     }
 }
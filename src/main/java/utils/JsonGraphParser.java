@@ -0,0 +1,406 @@
+package utils;
+
+import graph.core.Graph;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single-pass, token-level reader for the graph JSON schema. Edges go straight into
+ * primitive arrays; no DOM, {@code String} copy of the file or per-edge object is created.
+ * Edge keys are matched on the bytes and plain integers accumulated digit by digit; only
+ * escaped keys, non-integer or oversized values and errors take the {@code String} path.
+ * Type coercion and error messages follow {@code org.json}'s {@code getInt}/{@code getBoolean}.
+ */
+final class JsonGraphParser {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private enum Kind { STRING, NUMBER, TRUE, FALSE, NULL, OBJECT, ARRAY }
+
+    private final ReadableByteChannel channel;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private final ByteBuffer wrapped = ByteBuffer.wrap(buf);
+    private int pos;
+    private int lim;
+    private long consumed;
+    private final StringBuilder text = new StringBuilder();
+
+    private Kind kind;
+    private String value;
+    private int intValue;   // set by readIntValue() when kind is NUMBER and value is null
+
+    private int[] us, vs, ws;
+    private int m;
+
+    JsonGraphParser(ReadableByteChannel channel, int expectedEdges) {
+        this.channel = channel;
+        int cap = Math.max(16, expectedEdges);
+        us = new int[cap];
+        vs = new int[cap];
+        ws = new int[cap];
+    }
+
+    Graph parse() throws IOException {
+        return parse(null);
+    }
+
+    /** As {@link #parse()}, switching {@code trace} (if non-null) to a {@code build} phase for CSR construction. */
+    Graph parse(PhaseTracer trace) throws IOException {
+        Kind directedKind = null, nKind = null, sourceKind = null, weightKind = null;
+        String directedVal = null, nVal = null, sourceVal = null, weightVal = null;
+        boolean edgesSeen = false;
+        Kind edgesKind = null;
+
+        if (skipWs() != '{') throw syntax("A JSONObject text must begin with '{'");
+        pos++;
+        if (skipWs() == '}') {
+            pos++;
+        } else {
+            while (true) {
+                String key = readKey();
+                if (key.equals("edges")) {
+                    edgesSeen = true;
+                    if (skipWs() == '[') {
+                        pos++;
+                        edgesKind = Kind.ARRAY;
+                        readEdges();
+                    } else {
+                        readValue();
+                        edgesKind = kind;
+                    }
+                } else {
+                    readValue();
+                    switch (key) {
+                        case "directed" -> { directedKind = kind; directedVal = value; }
+                        case "n" -> { nKind = kind; nVal = value; }
+                        case "source" -> { sourceKind = kind; sourceVal = value; }
+                        case "weight_model" -> { weightKind = kind; weightVal = value; }
+                        default -> { }
+                    }
+                }
+                int c = skipWs();
+                pos++;
+                if (c == '}') break;
+                if (c != ',') throw syntax("Expected a ',' or '}'");
+            }
+        }
+
+        boolean directed = toBoolean("directed", directedKind, directedVal);
+        int n = toInt("JSONObject[\"n\"]", nKind, nVal);
+        String weightModel = (weightKind == null || weightKind == Kind.NULL) ? "edge" : weightVal;
+        Integer source = sourceKind != null ? toInt("JSONObject[\"source\"]", sourceKind, sourceVal) : null;
+        if (!edgesSeen) throw new JSONException("JSONObject[\"edges\"] not found.");
+        if (edgesKind != Kind.ARRAY) {
+            throw new JSONException("JSONObject[\"edges\"] is not a JSONArray (" + describe(edgesKind, null) + ").");
+        }
+
+        if (trace != null) trace.phase("build");
+        return Graph.fromEdgeArrays(directed, n, us, vs, ws, m, source, weightModel);
+    }
+
+    private void readEdges() throws IOException {
+        if (skipWs() == ']') { pos++; return; }
+        int index = 0;
+        while (true) {
+            if (skipWs() != '{') {
+                readValue();
+                throw new JSONException("JSONArray[" + index + "] is not a JSONObject (" + describe(kind, value) + ").");
+            }
+            pos++;
+            readEdge();
+            index++;
+            int c = skipWs();
+            pos++;
+            if (c == ']') return;
+            if (c != ',') throw syntax("Expected a ',' or ']'");
+        }
+    }
+
+    private void readEdge() throws IOException {
+        Kind uKind = null, vKind = null, wKind = null;
+        String uVal = null, vVal = null, wVal = null;
+        int u = 0, v = 0, w = 0;
+        if (skipWs() == '}') {
+            pos++;
+        } else {
+            while (true) {
+                int key = readEdgeKey();
+                if (key == 0) {
+                    readValue();
+                } else {
+                    readIntValue();
+                    switch (key) {
+                        case 'u' -> { uKind = kind; uVal = value; u = intValue; }
+                        case 'v' -> { vKind = kind; vVal = value; v = intValue; }
+                        default -> { wKind = kind; wVal = value; w = intValue; }
+                    }
+                }
+                int c = skipWs();
+                pos++;
+                if (c == '}') break;
+                if (c != ',') throw syntax("Expected a ',' or '}'");
+            }
+        }
+
+        if (m == us.length) {
+            int cap = m * 2;
+            us = Arrays.copyOf(us, cap);
+            vs = Arrays.copyOf(vs, cap);
+            ws = Arrays.copyOf(ws, cap);
+        }
+        us[m] = uKind == Kind.NUMBER && uVal == null ? u : toInt("JSONObject[\"u\"]", uKind, uVal);
+        vs[m] = vKind == Kind.NUMBER && vVal == null ? v : toInt("JSONObject[\"v\"]", vKind, vVal);
+        ws[m] = wKind == Kind.NUMBER && wVal == null ? w : toInt("JSONObject[\"w\"]", wKind, wVal);
+        m++;
+    }
+
+    private String readKey() throws IOException {
+        if (skipWs() != '"') throw syntax("Expected a string key");
+        pos++;
+        String key = readString();
+        expectColon();
+        return key;
+    }
+
+    /** Reads an edge key; returns {@code 'u'}, {@code 'v'}, {@code 'w'} or 0 for any other key. */
+    private int readEdgeKey() throws IOException {
+        if (skipWs() != '"') throw syntax("Expected a string key");
+        pos++;
+        int c = next();
+        int key;
+        if ((c == 'u' || c == 'v' || c == 'w') && peek() == '"') {
+            pos++;
+            key = c;
+        } else {
+            String s = readString(c);
+            key = s.length() == 1 && "uvw".indexOf(s.charAt(0)) >= 0 ? s.charAt(0) : 0;
+        }
+        expectColon();
+        return key;
+    }
+
+    private void expectColon() throws IOException {
+        if (skipWs() != ':') throw syntax("Expected a ':' after a key");
+        pos++;
+    }
+
+    /** As {@link #readValue()}, but a plain integer is left in {@link #intValue} with {@link #value} null. */
+    private void readIntValue() throws IOException {
+        int c = skipWs();
+        if ((c < '0' || c > '9') && c != '-') {
+            readValue();
+            return;
+        }
+        kind = Kind.NUMBER;
+        text.setLength(0);
+        boolean negative = c == '-';
+        if (negative) {
+            text.append('-');
+            pos++;
+        }
+        long x = 0;
+        int digits = 0;
+        while ((c = peek()) >= '0' && c <= '9') {
+            x = x * 10 + (c - '0');
+            text.append((char) c);
+            pos++;
+            digits++;
+        }
+        if (digits == 0 || digits > 18 || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+            value = readNumberTail();
+        } else {
+            value = null;
+            intValue = (int) (negative ? -x : x);
+        }
+    }
+
+    /** Reads one value; scalars are kept in {@link #value}, containers are skipped. */
+    private void readValue() throws IOException {
+        int c = skipWs();
+        switch (c) {
+            case '"' -> { pos++; kind = Kind.STRING; value = readString(); }
+            case '{' -> { skipContainer(); kind = Kind.OBJECT; value = null; }
+            case '[' -> { skipContainer(); kind = Kind.ARRAY; value = null; }
+            case 't' -> { expectWord("true"); kind = Kind.TRUE; value = "true"; }
+            case 'f' -> { expectWord("false"); kind = Kind.FALSE; value = "false"; }
+            case 'n' -> { expectWord("null"); kind = Kind.NULL; value = "null"; }
+            case -1 -> throw syntax("Unexpected end of input");
+            default -> { kind = Kind.NUMBER; value = readNumber(); }
+        }
+    }
+
+    private String readString() throws IOException {
+        return readString(next());
+    }
+
+    /** Reads the rest of a string whose first character {@code c} was already consumed. */
+    private String readString(int c) throws IOException {
+        text.setLength(0);
+        for (;; c = next()) {
+            if (c == '"') return text.toString();
+            if (c == -1) throw syntax("Unterminated string");
+            if (c == '\\') {
+                int e = next();
+                switch (e) {
+                    case 'b' -> text.append('\b');
+                    case 't' -> text.append('\t');
+                    case 'n' -> text.append('\n');
+                    case 'f' -> text.append('\f');
+                    case 'r' -> text.append('\r');
+                    case 'u' -> {
+                        int code = 0;
+                        for (int k = 0; k < 4; k++) code = (code << 4) | Character.digit(next(), 16);
+                        text.append((char) code);
+                    }
+                    case -1 -> throw syntax("Unterminated string");
+                    default -> text.append((char) e);
+                }
+            } else if (c < 0x80) {
+                text.append((char) c);
+            } else {
+                readUtf8(c);
+            }
+        }
+    }
+
+    private void readUtf8(int lead) throws IOException {
+        int extra = lead >= 0xF0 ? 3 : lead >= 0xE0 ? 2 : 1;
+        byte[] seq = new byte[extra + 1];
+        seq[0] = (byte) lead;
+        for (int k = 1; k <= extra; k++) seq[k] = (byte) next();
+        text.append(new String(seq, StandardCharsets.UTF_8));
+    }
+
+    private String readNumber() throws IOException {
+        text.setLength(0);
+        return readNumberTail();
+    }
+
+    /** Appends the remaining number characters to {@link #text}. */
+    private String readNumberTail() throws IOException {
+        while (true) {
+            int c = peek();
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                text.append((char) c);
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (text.length() == 0) throw syntax("Unexpected character '" + (char) peek() + "'");
+        return text.toString();
+    }
+
+    private void skipContainer() throws IOException {
+        int depth = 0;
+        while (true) {
+            int c = next();
+            switch (c) {
+                case '{', '[' -> depth++;
+                case '}', ']' -> { if (--depth == 0) return; }
+                case '"' -> readString();
+                case -1 -> throw syntax("Unexpected end of input");
+                default -> { }
+            }
+        }
+    }
+
+    private void expectWord(String word) throws IOException {
+        for (int k = 0; k < word.length(); k++) {
+            if (next() != word.charAt(k)) throw syntax("Unexpected token, expected " + word);
+        }
+    }
+
+    private boolean toBoolean(String key, Kind k, String v) {
+        String where = "JSONObject[\"" + key + "\"]";
+        if (k == null) throw new JSONException(where + " not found.");
+        if (k == Kind.TRUE || (k == Kind.STRING && v.equalsIgnoreCase("true"))) return true;
+        if (k == Kind.FALSE || (k == Kind.STRING && v.equalsIgnoreCase("false"))) return false;
+        throw new JSONException(where + " is not a Boolean (" + describe(k, v) + ").");
+    }
+
+    private int toInt(String where, Kind k, String v) {
+        if (k == null) throw new JSONException(where + " not found.");
+        if (k == Kind.NUMBER || k == Kind.STRING) {
+            try {
+                return parseInt(v);
+            } catch (NumberFormatException ignored) {
+                // fall through to the type error below
+            }
+        }
+        throw new JSONException(where + " is not a int (" + describe(k, v) + ").");
+    }
+
+    /** Same narrowing as {@code Number.intValue()} on the value org.json would produce. */
+    private static int parseInt(String s) {
+        boolean decimal = s.indexOf('.') >= 0 || s.indexOf('e') >= 0 || s.indexOf('E') >= 0;
+        if (!decimal) {
+            try {
+                return (int) Long.parseLong(s);
+            } catch (NumberFormatException e) {
+                return new java.math.BigInteger(s).intValue();
+            }
+        }
+        return new java.math.BigDecimal(s).intValue();
+    }
+
+    private static String describe(Kind k, String v) {
+        return switch (k) {
+            case STRING -> "class java.lang.String : " + v;
+            case NUMBER -> "class " + numberClass(v) + " : " + v;
+            case TRUE, FALSE -> "class java.lang.Boolean : " + v;
+            case NULL -> "class org.json.JSONObject$Null : null";
+            case OBJECT -> "class org.json.JSONObject";
+            case ARRAY -> "class org.json.JSONArray";
+        };
+    }
+
+    private static String numberClass(String v) {
+        if (v.indexOf('.') >= 0 || v.indexOf('e') >= 0 || v.indexOf('E') >= 0) return "java.math.BigDecimal";
+        try {
+            long x = Long.parseLong(v);
+            return (x == (int) x) ? "java.lang.Integer" : "java.lang.Long";
+        } catch (NumberFormatException e) {
+            return "java.math.BigInteger";
+        }
+    }
+
+    private JSONException syntax(String message) {
+        return new JSONException(message + " at " + (consumed + pos));
+    }
+
+    private int skipWs() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') pos++;
+            else return c;
+        }
+    }
+
+    private int peek() throws IOException {
+        if (pos == lim && !fill()) return -1;
+        return buf[pos] & 0xFF;
+    }
+
+    private int next() throws IOException {
+        if (pos == lim && !fill()) return -1;
+        return buf[pos++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        consumed += lim;
+        wrapped.clear();
+        int r;
+        do {
+            r = channel.read(wrapped);
+        } while (r == 0);
+        pos = 0;
+        lim = Math.max(r, 0);
+        return r > 0;
+    }
+}
@@ -0,0 +1,60 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets: bucket {@code i} counts
+ * samples in {@code [2^(i-1), 2^i)} ns (bucket 0 holds zero). Percentiles are reported as the
+ * upper bound of the bucket they fall in, so they are accurate to within a factor of two.
+ */
+public class LatencyHistogram {
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNs = new LongAdder();
+    private final LongAccumulator maxNs = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long x = Math.max(0, nanos);
+        buckets.incrementAndGet(Math.min(63, 64 - Long.numberOfLeadingZeros(x)));
+        count.increment();
+        totalNs.add(x);
+        maxNs.accumulate(x);
+    }
+
+    public long count() { return count.sum(); }
+    public long totalNanos() { return totalNs.sum(); }
+    public long maxNanos() { return maxNs.get(); }
+
+    public double meanNanos() {
+        long c = count();
+        return c == 0 ? 0 : (double) totalNanos() / c;
+    }
+
+    /** Upper bound (ns) of the bucket holding the {@code q}-quantile, {@code 0 < q <= 1}; 0 when empty. */
+    public long percentileNanos(double q) {
+        long[] snap = bucketCounts();
+        long total = 0;
+        for (long c : snap) total += c;
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(q * total);
+        long seen = 0;
+        for (int i = 0; i < snap.length; i++) {
+            seen += snap[i];
+            if (seen >= rank) return Math.min(upperBound(i), maxNanos());
+        }
+        return maxNanos();
+    }
+
+    public long[] bucketCounts() {
+        long[] snap = new long[buckets.length()];
+        for (int i = 0; i < snap.length; i++) snap[i] = buckets.get(i);
+        return snap;
+    }
+
+    /** Exclusive upper bound in ns of bucket {@code i}. */
+    public static long upperBound(int i) {
+        return i >= 63 ? Long.MAX_VALUE : 1L << i;
+    }
+}
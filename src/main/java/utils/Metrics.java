@@ -2,6 +2,17 @@ package utils;
 
 
 public interface Metrics {
+    Metrics NOOP = new Metrics() {
+        public void inc(String key, long delta) {}
+        public long get(String key) { return 0; }
+        public Counter counter(String key) { return Counter.NOOP; }
+    };
+
     void inc(String key, long delta);
     long get(String key);
+
+    /** String-keyed adapter by default; implementations override to hand out primitive slots. */
+    default Counter counter(String key) {
+        return delta -> inc(key, delta);
+    }
 }
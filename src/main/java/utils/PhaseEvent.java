@@ -0,0 +1,32 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Flight Recorder view of one {@link PhaseTracer} phase; the event's duration is its wall time. */
+@Name("graph.Phase")
+@Label("Graph Pipeline Phase")
+@Category("Graph")
+@Description("One phase of processing a graph file")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,102 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits one file's processing into consecutive named phases and records wall time, CPU time and
+ * allocated bytes for each. {@link #phase(String)} closes the running phase and opens the next, so
+ * phases never overlap; a repeated name adds to the earlier entry. Every phase is also committed
+ * as a {@code graph.Phase} Flight Recorder event.
+ * <p>
+ * CPU time and allocations are those of the thread that opened the phase (-1 when the JVM cannot
+ * measure them); work handed to other threads, e.g. a ForkJoin pool, only shows up in wall time.
+ * A phase must be closed on the thread that opened it, but consecutive phases may run on
+ * different threads.
+ */
+public final class PhaseTracer {
+
+    public record Phase(String name, long wallNs, long cpuNs, long allocatedBytes) {}
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOC =
+            THREADS instanceof com.sun.management.ThreadMXBean b && b.isThreadAllocatedMemorySupported() ? b : null;
+    private static final boolean CPU = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final String file;
+    private final List<Phase> phases = new ArrayList<>();
+    private String current;
+    private long wall0, cpu0, alloc0;
+    private PhaseEvent event;
+
+    public PhaseTracer(String file) {
+        this.file = file;
+    }
+
+    /** Ends the running phase, if any, and starts {@code name}. */
+    public void phase(String name) {
+        end();
+        current = name;
+        event = new PhaseEvent();
+        event.begin();
+        alloc0 = allocatedBytes();
+        cpu0 = cpuNanos();
+        wall0 = System.nanoTime();
+    }
+
+    /** Ends the running phase, if any. */
+    public void end() {
+        if (current == null) return;
+        long wall = System.nanoTime() - wall0;
+        long cpu = cpu0 < 0 ? -1 : cpuNanos() - cpu0;
+        long alloc = alloc0 < 0 ? -1 : allocatedBytes() - alloc0;
+        record(current, wall, cpu, alloc);
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file;
+            event.phase = current;
+            event.cpuTime = cpu;
+            event.allocated = alloc;
+            event.commit();
+        }
+        current = null;
+        event = null;
+    }
+
+    private void record(String name, long wall, long cpu, long alloc) {
+        for (int i = 0; i < phases.size(); i++) {
+            Phase p = phases.get(i);
+            if (p.name().equals(name)) {
+                phases.set(i, new Phase(name, p.wallNs() + wall, sum(p.cpuNs(), cpu), sum(p.allocatedBytes(), alloc)));
+                return;
+            }
+        }
+        phases.add(new Phase(name, wall, cpu, alloc));
+    }
+
+    /** Finished phases in the order they first ran. */
+    public List<Phase> phases() {
+        return Collections.unmodifiableList(phases);
+    }
+
+    /** Finished phase {@code name}, or null if it never ran. */
+    public Phase get(String name) {
+        for (Phase p : phases) if (p.name().equals(name)) return p;
+        return null;
+    }
+
+    private static long sum(long a, long b) {
+        return a < 0 || b < 0 ? -1 : a + b;
+    }
+
+    private static long cpuNanos() {
+        return CPU ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOC != null ? ALLOC.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -0,0 +1,38 @@
+package utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Single-threaded metrics; every key owns one primitive {@code long} slot. */
+public final class SimpleMetrics implements Metrics {
+    private final Map<String, Slot> slots = new LinkedHashMap<>();
+
+    @Override
+    public Counter counter(String key) {
+        return slots.computeIfAbsent(key, k -> new Slot());
+    }
+
+    @Override
+    public void inc(String key, long delta) {
+        slots.computeIfAbsent(key, k -> new Slot()).value += delta;
+    }
+
+    @Override
+    public long get(String key) {
+        Slot s = slots.get(key);
+        return s == null ? 0 : s.value;
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        slots.forEach((k, s) -> out.put(k, s.value));
+        return out;
+    }
+
+    private static final class Slot implements Counter {
+        long value;
+
+        @Override
+        public void add(long delta) { value += delta; }
+    }
+}
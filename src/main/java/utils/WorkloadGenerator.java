@@ -0,0 +1,264 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded synthetic graph generator that streams edges straight into the JSON schema read by
+ * {@link GraphReader}. Nothing proportional to n or m is kept in memory.
+ * <p>
+ * Usage: {@code WorkloadGenerator out.json model=giant_scc n=1000000 m=5000000 seed=7 ...};
+ * see {@link Options} for the keys.
+ */
+public class WorkloadGenerator {
+
+    public enum Model {
+        /** Path 0 -> 1 -> ... -> n-1 plus short forward skips; maximal DAG depth. With {@code n < 3} only the path is emitted. */
+        CHAIN,
+        /** {@code layers} equal-width layers, edges only between consecutive layers. */
+        LAYERED_DAG,
+        /** Endpoints drawn from a skewed power-law over vertex ids; cyclic, many small SCCs. */
+        POWER_LAW,
+        /** One strongly connected block of {@code giantFraction * n} vertices feeding a DAG tail. */
+        GIANT_SCC,
+        /**
+         * Consecutive SCCs with sizes in {@code [minScc, maxScc]} (power-law biased), joined by forward edges.
+         * {@code m} is only an upper bound: cycle edges plus about {@code m/n - 1} forward edges per vertex.
+         */
+        CLUSTERED
+    }
+
+    private static final byte[] FIRST_U = "\n{\"u\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEXT_U = ",\n{\"u\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY_V = ",\"v\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY_W = ",\"w\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLOSE = "}".getBytes(StandardCharsets.US_ASCII);
+
+    @FunctionalInterface
+    public interface EdgeSink {
+        void edge(int u, int v, int w) throws IOException;
+    }
+
+    public static class Options {
+        public Model model = Model.POWER_LAW;
+        public int n = 1000;
+        public long m = 4000;
+        public long seed = 1;
+        public int minWeight = 1;
+        public int maxWeight = 10;
+        public int layers = 10;
+        public double giantFraction = 0.5;
+        public int minScc = 1;
+        public int maxScc = 8;
+        public double alpha = 2.0;
+
+        /** Parses {@code key=value} pairs; keys are the field names (case-insensitive, '_' ignored). */
+        public static Options parse(String[] args, int from) {
+            Options o = new Options();
+            for (int i = from; i < args.length; i++) {
+                int eq = args[i].indexOf('=');
+                if (eq < 0) throw new IllegalArgumentException("Expected key=value, got: " + args[i]);
+                String key = args[i].substring(0, eq).replace("_", "").toLowerCase(Locale.ROOT);
+                String val = args[i].substring(eq + 1);
+                switch (key) {
+                    case "model" -> o.model = Model.valueOf(val.toUpperCase(Locale.ROOT));
+                    case "n" -> o.n = Integer.parseInt(val);
+                    case "m" -> o.m = (long) Double.parseDouble(val);
+                    case "seed" -> o.seed = Long.parseLong(val);
+                    case "minweight" -> o.minWeight = Integer.parseInt(val);
+                    case "maxweight" -> o.maxWeight = Integer.parseInt(val);
+                    case "layers" -> o.layers = Integer.parseInt(val);
+                    case "giantfraction" -> o.giantFraction = Double.parseDouble(val);
+                    case "minscc" -> o.minScc = Integer.parseInt(val);
+                    case "maxscc" -> o.maxScc = Integer.parseInt(val);
+                    case "alpha" -> o.alpha = Double.parseDouble(val);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            o.validate();
+            return o;
+        }
+
+        void validate() {
+            if (n < 1) throw new IllegalArgumentException("n must be positive");
+            if (m < 0) throw new IllegalArgumentException("m must be non-negative");
+            if (minWeight > maxWeight) throw new IllegalArgumentException("minWeight > maxWeight");
+            if (layers < 2 && model == Model.LAYERED_DAG) throw new IllegalArgumentException("layers must be >= 2");
+            if (minScc < 1 || minScc > maxScc) throw new IllegalArgumentException("need 1 <= minScc <= maxScc");
+            if (giantFraction <= 0 || giantFraction > 1) throw new IllegalArgumentException("giantFraction must be in (0, 1]");
+            if (!(alpha > 0) || Double.isInfinite(alpha)) throw new IllegalArgumentException("alpha must be positive and finite");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: WorkloadGenerator <out.json> [model=..] [n=..] [m=..] [seed=..] "
+                    + "[minWeight=..] [maxWeight=..] [layers=..] [giantFraction=..] [minScc=..] [maxScc=..] [alpha=..]");
+            System.exit(2);
+        }
+        Options o = Options.parse(args, 1);
+        long t0 = System.nanoTime();
+        long written = write(o, Path.of(args[0]));
+        System.out.printf("%s: model=%s n=%d m=%d (%.1f s)%n", args[0], o.model, o.n, written, (System.nanoTime() - t0) / 1e9);
+    }
+
+    /** Writes the graph as JSON and returns the number of edges emitted, which is below {@code m} only for CLUSTERED and for CHAIN with {@code n < 3}. */
+    public static long write(Options o, Path path) throws IOException {
+        o.validate();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (JsonOut out = new JsonOut(Files.newOutputStream(path))) {
+            out.ascii("{\"directed\":true,\"n\":").num(o.n)
+                    .ascii(",\"source\":0,\"weight_model\":\"edge\",\"edges\":[");
+            long[] count = {0};
+            generate(o, (u, v, w) -> out.raw(count[0]++ == 0 ? FIRST_U : NEXT_U).num(u)
+                    .raw(KEY_V).num(v).raw(KEY_W).num(w).raw(CLOSE));
+            out.ascii("\n]}\n");
+            return count[0];
+        }
+    }
+
+    /** Streams the edges of the configured model; the same options always yield the same sequence. */
+    public static void generate(Options o, EdgeSink sink) throws IOException {
+        SplittableRandom rnd = new SplittableRandom(o.seed);
+        Emitter e = new Emitter(o, rnd, sink);
+        switch (o.model) {
+            case CHAIN -> chain(o, rnd, e);
+            case LAYERED_DAG -> layered(o, rnd, e);
+            case POWER_LAW -> powerLaw(o, rnd, e);
+            case GIANT_SCC -> giant(o, rnd, e);
+            case CLUSTERED -> clustered(o, rnd, e);
+        }
+    }
+
+    private static void chain(Options o, SplittableRandom rnd, Emitter e) throws IOException {
+        int n = o.n;
+        for (int u = 0; u + 1 < n && e.room(); u++) e.emit(u, u + 1);
+        if (n < 3) return;
+        while (e.room()) {
+            int u = rnd.nextInt(n - 2);
+            e.emit(u, u + 2 + rnd.nextInt(Math.min(n - u - 2, 32)));
+        }
+    }
+
+    private static void layered(Options o, SplittableRandom rnd, Emitter e) throws IOException {
+        int layers = Math.min(o.layers, o.n);
+        if (layers < 2) return;
+        while (e.room()) {
+            int k = rnd.nextInt(layers - 1);
+            e.emit(inLayer(o.n, layers, k, rnd), inLayer(o.n, layers, k + 1, rnd));
+        }
+    }
+
+    private static int inLayer(int n, int layers, int k, SplittableRandom rnd) {
+        int lo = (int) ((long) k * n / layers);
+        int hi = (int) ((long) (k + 1) * n / layers);
+        return lo + rnd.nextInt(hi - lo);
+    }
+
+    private static void powerLaw(Options o, SplittableRandom rnd, Emitter e) throws IOException {
+        if (o.n < 2) return;
+        while (e.room()) {
+            int u = skewed(o.n, o.alpha, rnd);
+            int v = skewed(o.n, o.alpha, rnd);
+            // A large alpha lands almost every draw on vertex 0; redraw a self-loop's head uniformly.
+            if (u == v) v = (u + 1 + rnd.nextInt(o.n - 1)) % o.n;
+            e.emit(u, v);
+        }
+    }
+
+    /** Vertex id with density proportional to {@code x^(1/alpha - 1)}; small ids become hubs. */
+    private static int skewed(int n, double alpha, SplittableRandom rnd) {
+        return Math.min(n - 1, (int) (n * Math.pow(rnd.nextDouble(), alpha)));
+    }
+
+    private static void giant(Options o, SplittableRandom rnd, Emitter e) throws IOException {
+        int n = o.n;
+        int k = Math.max(1, (int) Math.round(o.giantFraction * n));
+        if (k > 1) for (int u = 0; u < k && e.room(); u++) e.emit(u, (u + 1) % k);
+        while (e.room()) {
+            if (k == n || rnd.nextDouble() < o.giantFraction) {
+                if (k > 1) e.emit(rnd.nextInt(k), rnd.nextInt(k));
+                else if (k == n) return;
+            } else {
+                int u = rnd.nextInt(n - 1);
+                int lo = Math.max(u + 1, k);
+                e.emit(u, lo + rnd.nextInt(n - lo));
+            }
+        }
+    }
+
+    private static void clustered(Options o, SplittableRandom rnd, Emitter e) throws IOException {
+        int n = o.n;
+        double extraPerVertex = Math.max(0, (double) o.m / n - 1);
+        double carry = 0;
+        int start = 0;
+        while (start < n && e.room()) {
+            int size = Math.min(n - start, clusterSize(o, rnd));
+            int end = start + size;
+            if (size > 1) for (int u = start; u < end && e.room(); u++) e.emit(u, u + 1 < end ? u + 1 : start);
+            for (int u = start; u < end && end < n; u++) {
+                carry += extraPerVertex;
+                for (; carry >= 1 && e.room(); carry--) e.emit(u, end + rnd.nextInt(n - end));
+            }
+            start = end;
+        }
+    }
+
+    private static int clusterSize(Options o, SplittableRandom rnd) {
+        int span = o.maxScc - o.minScc + 1;
+        return o.minScc + Math.min(span - 1, (int) (span * Math.pow(rnd.nextDouble(), o.alpha)));
+    }
+
+    /** Caps output at {@code m} edges and draws weights. */
+    private static final class Emitter {
+        private final Options o;
+        private final SplittableRandom rnd;
+        private final EdgeSink sink;
+        private long emitted;
+
+        Emitter(Options o, SplittableRandom rnd, EdgeSink sink) { this.o = o; this.rnd = rnd; this.sink = sink; }
+
+        boolean room() { return emitted < o.m; }
+
+        void emit(int u, int v) throws IOException {
+            int w = o.minWeight + (o.maxWeight > o.minWeight ? rnd.nextInt(o.maxWeight - o.minWeight + 1) : 0);
+            sink.edge(u, v, w);
+            emitted++;
+        }
+    }
+
+    /** ASCII writer with allocation-free integer formatting. */
+    private static final class JsonOut implements AutoCloseable {
+        private final OutputStream out;
+        private final byte[] digits = new byte[20];
+
+        JsonOut(OutputStream raw) { this.out = new BufferedOutputStream(raw, 1 << 16); }
+
+        JsonOut ascii(String s) throws IOException {
+            return raw(s.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        JsonOut raw(byte[] b) throws IOException {
+            out.write(b);
+            return this;
+        }
+
+        JsonOut num(long x) throws IOException {
+            if (x < 0) { out.write('-'); x = -x; }
+            int p = digits.length;
+            do { digits[--p] = (byte) ('0' + x % 10); x /= 10; } while (x > 0);
+            out.write(digits, p, digits.length - p);
+            return this;
+        }
+
+        @Override
+        public void close() throws IOException { out.close(); }
+    }
+}
@@ -0,0 +1,51 @@
+package graph;
+
+import graph.core.Edge;
+import graph.core.Graph;
+import graph.scc.SCCResult;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Random graph generators and result assertions shared by the test suites. */
+public final class TestGraphs {
+
+    private TestGraphs() {}
+
+    /**
+     * DAG with {@code m} edges over a shuffled vertex order: each edge joins a position to one of the next
+     * {@code maxJump} positions, with a weight drawn uniformly from {@code [minW, maxW]}.
+     */
+    public static Graph randomDag(int n, long m, int maxJump, int minW, int maxW, Random rnd) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        for (int i = n - 1; i > 0; i--) { int j = rnd.nextInt(i + 1); int t = perm[i]; perm[i] = perm[j]; perm[j] = t; }
+        List<Edge> edges = new ArrayList<>();
+        for (long k = 0; n > 1 && k < m; k++) {
+            int a = rnd.nextInt(n - 1);
+            int b = a + 1 + rnd.nextInt(Math.min(n - 1 - a, maxJump));
+            edges.add(new Edge(perm[a], perm[b], minW + rnd.nextInt(maxW - minW + 1)));
+        }
+        return new Graph(true, n, edges, 0, "edge");
+    }
+
+    /** Components as vertex sets, for comparing results whose component numbering may differ. */
+    public static Set<Set<Integer>> partition(SCCResult res) {
+        Set<Set<Integer>> out = new HashSet<>();
+        for (List<Integer> comp : res.getComponents()) out.add(new HashSet<>(comp));
+        return out;
+    }
+
+    /** Asserts {@code order} is a permutation of the vertices with every edge pointing forward. */
+    public static void assertTopologicalOrder(Graph g, List<Integer> order) {
+        assertEquals(g.n(), order.size());
+        int[] pos = new int[g.n()];
+        Arrays.fill(pos, -1);
+        for (int p = 0; p < order.size(); p++) {
+            assertEquals(-1, pos[order.get(p)], "vertex " + order.get(p) + " repeated");
+            pos[order.get(p)] = p;
+        }
+        for (Edge e : g.edges()) assertTrue(pos[e.u] < pos[e.v], e.u + " -> " + e.v);
+    }
+}
@@ -0,0 +1,94 @@
+package graph.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.BinaryGraphFormat;
+import utils.GraphReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryGraphFormatTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void roundTripsDatasets() throws Exception {
+        for (String name : List.of("small_dag", "medium_cyclic", "large_multi_scc")) {
+            Graph g = GraphReader.fromJsonFile(Path.of("data/" + name + ".json"));
+            Path bin = tmp.resolve(name + BinaryGraphFormat.EXTENSION);
+            BinaryGraphFormat.write(g, bin);
+
+            Graph mapped = GraphReader.fromFile(bin);
+            assertEquals(g.isDirected(), mapped.isDirected());
+            assertEquals(g.n(), mapped.n());
+            assertEquals(g.m(), mapped.m());
+            assertEquals(g.source(), mapped.source());
+            assertEquals(g.weightModel(), mapped.weightModel());
+            assertSameAdjacency(g.out(), mapped.out());
+            assertSameAdjacency(g.in(), mapped.in());
+        }
+    }
+
+    @Test
+    void undirectedAndEmptyGraphs() throws Exception {
+        Graph und = new Graph(false, 3, List.of(new Edge(0, 1, 4), new Edge(1, 2, 5)), null, "unit");
+        Path p = tmp.resolve("u.gbin");
+        BinaryGraphFormat.write(und, p);
+        Graph back = BinaryGraphFormat.map(p);
+        assertFalse(back.isDirected());
+        assertNull(back.source());
+        assertEquals(2, back.m());
+        assertSameAdjacency(und.out(), back.out());
+
+        Graph empty = new Graph(true, 0, List.of(), null, "edge");
+        BinaryGraphFormat.write(empty, p);
+        assertEquals(0, BinaryGraphFormat.map(p).n());
+    }
+
+    @Test
+    void staleBinaryIsNotPreferred() throws Exception {
+        Path json = Files.copy(Path.of("data/small_dag.json"), tmp.resolve("s.json"));
+        assertEquals(json, GraphReader.preferBinary(json));
+        Path bin = GraphReader.binarySibling(json);
+        BinaryGraphFormat.write(GraphReader.fromJsonFile(json), bin);
+        Files.setLastModifiedTime(json, FileTime.fromMillis(1_000_000));
+        Files.setLastModifiedTime(bin, FileTime.fromMillis(2_000_000));
+        assertEquals(bin, GraphReader.preferBinary(json));
+
+        // Editing the JSON after conversion makes the binary stale.
+        Files.setLastModifiedTime(json, FileTime.fromMillis(3_000_000));
+        assertEquals(json, GraphReader.preferBinary(json));
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedFiles() throws Exception {
+        Path p = tmp.resolve("x.gbin");
+        Files.write(p, new byte[64]);
+        assertThrows(IOException.class, () -> BinaryGraphFormat.map(p));
+
+        BinaryGraphFormat.write(GraphReader.fromJsonFile(Path.of("data/small_dag.json")), p);
+        byte[] full = Files.readAllBytes(p);
+        Files.write(p, java.util.Arrays.copyOf(full, full.length - 4));
+        assertThrows(IOException.class, () -> BinaryGraphFormat.map(p));
+    }
+
+    private static void assertSameAdjacency(Adjacency a, Adjacency b) {
+        assertEquals(a.vertexCount(), b.vertexCount());
+        assertEquals(a.edgeCount(), b.edgeCount());
+        for (int u = 0; u < a.vertexCount(); u++) {
+            assertEquals(a.begin(u), b.begin(u));
+            assertEquals(a.end(u), b.end(u));
+        }
+        for (int i = 0; i < a.edgeCount(); i++) {
+            assertEquals(a.target(i), b.target(i));
+            assertEquals(a.weight(i), b.weight(i));
+        }
+    }
+}
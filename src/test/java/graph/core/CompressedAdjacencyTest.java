@@ -0,0 +1,220 @@
+package graph.core;
+
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.DagShortestPaths;
+import graph.dagsp.KBestPaths;
+import graph.dagsp.ParallelDagPaths;
+import graph.scc.CondensationGraph;
+import graph.scc.KosarajuSCC;
+import graph.scc.SCCMode;
+import graph.scc.SCCResult;
+import graph.topo.ParallelTopologicalSort;
+import graph.topo.TopologicalSort;
+import utils.GraphReader;
+import utils.SimpleMetrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static graph.TestGraphs.assertTopologicalOrder;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedAdjacencyTest {
+
+    @Test
+    void decodesSortedListsAndRandomSlots() {
+        Random rnd = new Random(25);
+        for (int round = 0; round < 10; round++) {
+            int n = 1 + rnd.nextInt(200);
+            // Wide weights on odd rounds exercise multi-byte and negative offsets.
+            Graph g = randomGraph(n, rnd.nextInt(6 * n), round % 2 == 0 ? 10 : Integer.MAX_VALUE, rnd);
+            Adjacency csr = g.out();
+            CompressedAdjacency packed = CompressedAdjacency.of(csr);
+            assertEquals(csr.edgeCount(), packed.edgeCount());
+
+            EdgeCursor c = packed.cursor();
+            for (int u = 0; u < n; u++) {
+                assertEquals(csr.begin(u), packed.begin(u));
+                assertEquals(csr.end(u), packed.end(u));
+                long[] expected = sortedList(csr, u);
+                c.reset(u);
+                for (int k = 0; k < expected.length; k++) {
+                    assertTrue(c.next());
+                    int i = packed.begin(u) + k;
+                    assertEquals((int) (expected[k] >> 32), c.target());
+                    assertEquals((int) expected[k], c.weight());
+                    assertEquals(c.target(), packed.target(i));
+                    assertEquals(c.weight(), packed.weight(i));
+                }
+                assertFalse(c.next());
+            }
+        }
+    }
+
+    @Test
+    void cursorResumesFromSavedPosition() {
+        Graph g = randomGraph(50, 400, 100, new Random(3));
+        for (Adjacency adj : List.of(g.out(), CompressedAdjacency.of(g.out()))) {
+            EdgeCursor c = adj.cursor();
+            for (int u = 0; u < 50; u++) {
+                List<Integer> straight = new ArrayList<>();
+                c.reset(u);
+                while (c.next()) straight.add(c.target());
+
+                // Interleave with another vertex between every step.
+                List<Integer> parked = new ArrayList<>();
+                c.reset(u);
+                long pos = c.position();
+                while (true) {
+                    c.reset((u + 1) % 50);
+                    c.next();
+                    c.resume(u, pos);
+                    if (!c.next()) break;
+                    parked.add(c.target());
+                    pos = c.position();
+                }
+                assertEquals(straight, parked);
+            }
+        }
+    }
+
+    @Test
+    void transposeMatchesCsrTranspose() {
+        Graph g = randomGraph(300, 2000, 50, new Random(9));
+        CompressedAdjacency in = CompressedAdjacency.of(g.out()).transpose();
+        Adjacency csrIn = g.in();
+        for (int v = 0; v < 300; v++) assertArrayEquals(sortedList(csrIn, v), sortedList(in, v));
+    }
+
+    @Test
+    void localUnitGraphIsAtLeastThreeTimesSmaller() {
+        Random rnd = new Random(1);
+        int n = 20_000, m = 200_000;
+        int[] us = new int[m], vs = new int[m], ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = rnd.nextInt(n);
+            vs[i] = Math.min(n - 1, us[i] + 1 + rnd.nextInt(64));
+            ws[i] = 1;
+        }
+        Adjacency csr = CsrAdjacency.fromEdges(n, us, vs, ws, m);
+        long csrBytes = 4L * (n + 1) + 8L * m;
+        long packed = CompressedAdjacency.of(csr).bytes();
+        assertTrue(3 * packed <= csrBytes, packed + " vs " + csrBytes);
+    }
+
+    @Test
+    void algorithmsAgreeOnCompressedData() throws Exception {
+        List<Graph> graphs = new ArrayList<>();
+        for (String f : List.of("small_cyclic", "medium_multi_scc", "large_dag", "large_cyclic"))
+            graphs.add(GraphReader.fromFile(Path.of("data", f + ".json")));
+        Random rnd = new Random(7);
+        for (int i = 0; i < 5; i++) graphs.add(randomGraph(200, 500, 20, rnd));
+
+        for (Graph g : graphs) {
+            Graph packed = CompressedAdjacency.compress(g);
+            assertInstanceOf(CompressedAdjacency.class, packed.in());
+            assertEquals(g.m(), packed.m());
+
+            SCCResult a = new KosarajuSCC(g, new SimpleMetrics()).run();
+            SCCResult b = new KosarajuSCC(packed, new SimpleMetrics()).run();
+            assertEquals(a.getCount(), b.getCount());
+            assertArrayEquals(canonical(a), canonical(b));
+
+            Graph cond = new CondensationGraph(packed, b).buildCondensedGraph();
+            assertEquals(new CondensationGraph(g, a).buildCondensedGraph().m(), cond.m());
+            assertTopologicalOrder(cond, new TopologicalSort(cond, new SimpleMetrics()).run());
+
+            if (a.getCount() != g.n()) continue;
+            List<Integer> order = new TopologicalSort(packed, new SimpleMetrics()).run();
+            assertTopologicalOrder(g, order);
+            int s = g.source() != null ? g.source() : 0;
+            assertArrayEquals(new DagShortestPaths(g, new SimpleMetrics()).run(order, s).dist,
+                    new DagShortestPaths(packed, new SimpleMetrics()).run(order, s).dist);
+            assertArrayEquals(new DagLongestPath(g, new SimpleMetrics()).run(order, s).best,
+                    new DagLongestPath(packed, new SimpleMetrics()).run(order, s).best);
+        }
+    }
+
+    @Test
+    void enginesReadCompressedGraphsSequentially() throws Exception {
+        for (String f : List.of("medium_multi_scc", "large_cyclic", "large_dag")) {
+            Graph g = GraphReader.fromFile(Path.of("data", f + ".json"));
+            CompressedAdjacency out = CompressedAdjacency.of(g.out());
+            // Slot access throws, so any engine still calling target(i)/weight(i) fails here.
+            Graph packed = new Graph(true, g.n(), g.m(), new CursorOnly(out), new CursorOnly(out.transpose()),
+                    g.source(), g.weightModel());
+
+            SCCResult expected = new KosarajuSCC(g, new SimpleMetrics()).run();
+            for (SCCMode mode : SCCMode.values()) {
+                SCCResult res = mode.create(packed, new SimpleMetrics()).run();
+                assertEquals(expected.getCount(), res.getCount(), mode + " on " + f);
+                assertArrayEquals(canonical(expected), canonical(res), mode + " on " + f);
+            }
+            if (expected.getCount() != g.n()) continue;
+
+            List<Integer> order = new ParallelTopologicalSort(packed, new SimpleMetrics()).run().toList();
+            assertTopologicalOrder(g, order);
+            int s = g.source() != null ? g.source() : 0;
+            ParallelDagPaths pp = new ParallelDagPaths(packed, order, new SimpleMetrics());
+            assertArrayEquals(new DagShortestPaths(g, new SimpleMetrics()).run(order, s).dist, pp.shortest(s).dist);
+            assertArrayEquals(new DagLongestPath(g, new SimpleMetrics()).run(order, s).best, pp.longest(s).best);
+
+            KBestPaths.Paths a = new KBestPaths(g, order, new SimpleMetrics()).shortest(s, g.n() - 1, 5);
+            KBestPaths.Paths b = new KBestPaths(CompressedAdjacency.compress(g), order, new SimpleMetrics()).shortest(s, g.n() - 1, 5);
+            assertEquals(a.size(), b.size());
+            for (int i = 0; i < a.size(); i++) assertEquals(a.length(i), b.length(i));
+        }
+    }
+
+    /** Adjacency that only offers its cursor; slot access is a test failure. */
+    private static final class CursorOnly implements Adjacency {
+        private final Adjacency adj;
+
+        CursorOnly(Adjacency adj) { this.adj = adj; }
+
+        @Override public int vertexCount() { return adj.vertexCount(); }
+        @Override public int edgeCount() { return adj.edgeCount(); }
+        @Override public int begin(int u) { return adj.begin(u); }
+        @Override public int end(int u) { return adj.end(u); }
+        @Override public int target(int i) { throw new UnsupportedOperationException("slot access"); }
+        @Override public int weight(int i) { throw new UnsupportedOperationException("slot access"); }
+        @Override public EdgeCursor cursor() { return adj.cursor(); }
+    }
+
+    /** Neighbors of {@code u} as {@code target << 32 | weight}, in the order compression stores them. */
+    private static long[] sortedList(Adjacency adj, int u) {
+        long[] list = new long[adj.degree(u)];
+        EdgeCursor c = adj.cursor();
+        c.reset(u);
+        for (int k = 0; c.next(); k++) list[k] = ((long) c.target() << 32) | (c.weight() & 0xffffffffL);
+        // Stable by target only, matching the encoder's tie order.
+        Long[] boxed = Arrays.stream(list).boxed().toArray(Long[]::new);
+        Arrays.sort(boxed, Comparator.comparingLong(x -> x >> 32));
+        return Arrays.stream(boxed).mapToLong(Long::longValue).toArray();
+    }
+
+    /** Component label of each vertex replaced by the smallest vertex in its component. */
+    private static int[] canonical(SCCResult scc) {
+        int[] comp = scc.componentOf();
+        int[] rep = new int[scc.getCount()];
+        Arrays.fill(rep, -1);
+        int[] out = new int[comp.length];
+        for (int v = 0; v < comp.length; v++) {
+            if (rep[comp[v]] < 0) rep[comp[v]] = v;
+            out[v] = rep[comp[v]];
+        }
+        return out;
+    }
+
+    private static Graph randomGraph(int n, int m, int maxW, Random rnd) {
+        int[] us = new int[m], vs = new int[m], ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = rnd.nextInt(n);
+            vs[i] = rnd.nextInt(n);
+            ws[i] = maxW == Integer.MAX_VALUE ? rnd.nextInt() : 1 + rnd.nextInt(maxW);
+        }
+        return Graph.fromEdgeArrays(true, n, us, vs, ws, m, null, "edge");
+    }
+}
@@ -0,0 +1,53 @@
+package graph.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsrGraphTest {
+
+    @Test
+    void csrMatchesEdgeList() {
+        List<Edge> edges = List.of(new Edge(0, 1, 5), new Edge(2, 1, 3), new Edge(0, 2, 7), new Edge(1, 3, 1));
+        Graph g = new Graph(true, 4, edges, 0, "edge");
+
+        assertEquals(4, g.m());
+        assertEquals(2, g.outDegree(0));
+        assertEquals(2, g.inDegree(1));
+        assertEquals(0, g.inDegree(0));
+
+        Adjacency out = g.out();
+        assertEquals(1, out.target(out.begin(0)));
+        assertEquals(5, out.weight(out.begin(0)));
+        assertEquals(2, out.target(out.begin(0) + 1));
+
+        Adjacency in = g.in();
+        assertEquals(0, in.target(in.begin(1)));
+        assertEquals(2, in.target(in.begin(1) + 1));
+        assertEquals(3, in.weight(in.begin(1) + 1));
+
+        assertArrayEquals(new int[]{1, 3}, g.adjOut().get(2).get(0));
+        assertArrayEquals(new int[]{1, 1}, g.adjIn().get(3).get(0));
+        assertEquals(4, g.edges().size());
+    }
+
+    @Test
+    void undirectedIsSymmetric() {
+        Graph g = new Graph(false, 3, List.of(new Edge(0, 1, 2), new Edge(1, 2, 4), new Edge(2, 2, 1)), null, "edge");
+        assertEquals(3, g.m());
+        assertEquals(1, g.outDegree(0));
+        assertEquals(3, g.outDegree(2));   // the self-loop counts twice, as with the original lists
+        assertEquals(3, g.inDegree(2));
+        assertSame(g.out(), g.in());
+        assertEquals(List.of("0-1:2", "1-2:4", "2-2:1"), g.edges().stream().map(e -> e.u + "-" + e.v + ":" + e.w).toList());
+        assertEquals(3, new Graph(false, 3, g.out(), null, "edge").m());
+    }
+
+    @Test
+    void edgesAreGroupedBySource() {
+        Graph g = new Graph(true, 3, List.of(new Edge(2, 0, 1), new Edge(0, 2, 5), new Edge(0, 1, 7)), null, "edge");
+        assertEquals(List.of("0-2:5", "0-1:7", "2-0:1"), g.edges().stream().map(e -> e.u + "-" + e.v + ":" + e.w).toList());
+    }
+}
@@ -0,0 +1,59 @@
+package graph.core;
+
+import graph.dagsp.DagShortestPaths;
+import graph.topo.TopologicalSort;
+import org.junit.jupiter.api.Test;
+import utils.ConcurrentMetrics;
+import utils.Counter;
+import utils.Metrics;
+import utils.SimpleMetrics;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    void handlesAndStringApiShareSlots() {
+        SimpleMetrics m = new SimpleMetrics();
+        Counter c = m.counter("x");
+        c.inc();
+        c.add(4);
+        m.inc("x", 10);
+        assertEquals(15, m.get("x"));
+        assertSame(c, m.counter("x"));
+        assertEquals(0, m.get("missing"));
+    }
+
+    @Test
+    void concurrentCountersSumAcrossThreads() {
+        ConcurrentMetrics m = new ConcurrentMetrics();
+        Counter c = m.counter("hits");
+        IntStream.range(0, 10_000).parallel().forEach(i -> c.inc());
+        m.inc("hits", 5);
+        assertEquals(10_005, m.get("hits"));
+    }
+
+    @Test
+    void algorithmsReportSameTotalsThroughAdapterAndNoop() {
+        Graph g = new Graph(true, 4, List.of(new Edge(0, 1, 1), new Edge(0, 2, 2), new Edge(1, 3, 3), new Edge(2, 3, 1)), 0, "edge");
+
+        Metrics adapter = new Metrics() {
+            final SimpleMetrics inner = new SimpleMetrics();
+            public void inc(String k, long d) { inner.inc(k, d); }
+            public long get(String k) { return inner.get(k); }
+        };
+        var order = new TopologicalSort(g, adapter).run();
+        new DagShortestPaths(g, adapter).run(order, 0);
+        assertEquals(4, adapter.get("pushes"));
+        assertEquals(4, adapter.get("pops"));
+        assertEquals(4, adapter.get("edges_relaxed"));
+        assertEquals(4, adapter.get("relaxations_sp"));
+
+        var sp = new DagShortestPaths(g, Metrics.NOOP).run(new TopologicalSort(g, Metrics.NOOP).run(), 0);
+        assertEquals(3, sp.dist[3]);
+        assertEquals(0, Metrics.NOOP.get("relaxations_sp"));
+    }
+}
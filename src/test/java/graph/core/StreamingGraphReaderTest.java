@@ -0,0 +1,122 @@
+package graph.core;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import utils.GraphReader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingGraphReaderTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void matchesDomParseOnAllDatasets() throws Exception {
+        List<Path> files;
+        try (var s = Files.list(Path.of("data"))) {
+            files = s.filter(p -> p.toString().endsWith(".json") && !p.endsWith("results.json")).sorted().toList();
+        }
+        assertFalse(files.isEmpty());
+        for (Path p : files) {
+            JSONObject root = new JSONObject(Files.readString(p));
+            Graph g = GraphReader.fromJsonFile(p);
+            assertEquals(root.getBoolean("directed"), g.isDirected(), p.toString());
+            assertEquals(root.getInt("n"), g.n(), p.toString());
+            assertEquals(root.optString("weight_model", "edge"), g.weightModel(), p.toString());
+            assertEquals(root.has("source") ? (Integer) root.getInt("source") : null, g.source(), p.toString());
+
+            JSONArray arr = root.getJSONArray("edges");
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < arr.length(); i++) {
+                JSONObject e = arr.getJSONObject(i);
+                expected.add(e.getInt("u") + "->" + e.getInt("v") + ":" + e.getInt("w"));
+            }
+            List<String> actual = new ArrayList<>();
+            for (Edge e : g.edges()) actual.add(e.u + "->" + e.v + ":" + e.w);
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals(expected, actual, p.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"n\":3,\"edges\":[]}",
+            "{\"directed\":\"x\",\"n\":3,\"edges\":[]}",
+            "{\"directed\":true,\"n\":\"a\",\"edges\":[]}",
+            "{\"directed\":true,\"n\":2}",
+            "{\"directed\":true,\"n\":2,\"edges\":{}}",
+            "{\"directed\":true,\"n\":2,\"edges\":[1]}",
+            "{\"directed\":true,\"n\":2,\"source\":null,\"edges\":[]}",
+            "{\"directed\":true,\"n\":2,\"edges\":[{\"u\":0,\"w\":1}]}",
+            "{\"directed\":true,\"n\":2,\"edges\":[{\"u\":\"a\",\"v\":1,\"w\":1}]}",
+            "{\"directed\":true,\"n\":2,\"edges\":[{\"u\":0,\"v\":null,\"w\":1}]}",
+            "{\"directed\":true,\"n\":2,\"edges\":[{\"u\":0,\"v\":[1],\"w\":1}]}"
+    })
+    void reportsSameErrorsAsDom(String json) throws Exception {
+        String expected = assertThrows(JSONException.class, () -> {
+            JSONObject root = new JSONObject(json);
+            root.getBoolean("directed");
+            root.getInt("n");
+            if (root.has("source")) root.getInt("source");
+            JSONArray arr = root.getJSONArray("edges");
+            for (int i = 0; i < arr.length(); i++) {
+                JSONObject e = arr.getJSONObject(i);
+                e.getInt("u"); e.getInt("v"); e.getInt("w");
+            }
+        }).getMessage();
+
+        Path p = tmp.resolve("g.json");
+        Files.writeString(p, json);
+        JSONException actual = assertThrows(JSONException.class, () -> GraphReader.fromJsonFile(p));
+        assertEquals(expected, actual.getMessage());
+    }
+
+    @Test
+    void edgeIntegersCoerceLikeDom() throws Exception {
+        String json = "{\"directed\":true,\"n\":3,\"edges\":["
+                + "{\"u\":0,\"v\":1,\"w\":123456789012345678},"
+                + "{\"u\":1,\"v\":2,\"w\":12345678901234567890},"
+                + "{\"u\":\"2\",\"\\u0076\":0,\"w\":-0.5,\"uv\":7},"
+                + "{\"u\":-0,\"v\":2,\"w\":-2147483649}]}";
+        Path p = tmp.resolve("g.json");
+        Files.writeString(p, json);
+        Graph g = GraphReader.fromJsonFile(p);
+        JSONArray arr = new JSONObject(json).getJSONArray("edges");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < arr.length(); i++) {
+            JSONObject e = arr.getJSONObject(i);
+            expected.add(e.getInt("u") + "->" + e.getInt("v") + ":" + e.getInt("w"));
+        }
+        List<String> actual = new ArrayList<>();
+        for (Edge e : g.edges()) actual.add(e.u + "->" + e.v + ":" + e.w);
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void coercesLikeDom() throws Exception {
+        Path p = tmp.resolve("g.json");
+        Files.writeString(p, "{\"extra\":{\"a\":[1,{\"b\":\"}\"}]},\"directed\":\"TRUE\",\"n\":\"3\",\"weight_model\":\"node\","
+                + "\"edges\":[{\"w\":2.9,\"v\":1,\"u\":0,\"note\":\"x\\\"y\"},{\"u\":1,\"v\":2,\"w\":1e1}]}");
+        Graph g = GraphReader.fromJsonFile(p);
+        assertTrue(g.isDirected());
+        assertEquals(3, g.n());
+        assertEquals("node", g.weightModel());
+        assertNull(g.source());
+        assertEquals(2, g.m());
+        assertEquals(2, g.out().weight(g.out().begin(0)));
+        assertEquals(10, g.out().weight(g.out().begin(1)));
+    }
+}
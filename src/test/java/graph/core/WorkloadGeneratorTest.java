@@ -0,0 +1,80 @@
+package graph.core;
+
+import graph.scc.KosarajuSCC;
+import graph.scc.SCCResult;
+import graph.topo.TopologicalSort;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.GraphReader;
+import utils.Metrics;
+import utils.WorkloadGenerator;
+import utils.WorkloadGenerator.Model;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkloadGeneratorTest {
+
+    @TempDir
+    Path tmp;
+
+    private Graph generate(String... args) throws Exception {
+        Path p = tmp.resolve("g.json");
+        WorkloadGenerator.write(WorkloadGenerator.Options.parse(args, 0), p);
+        return GraphReader.fromJsonFile(p);
+    }
+
+    @Test
+    void dagModelsAreAcyclicWithExactEdgeCount() throws Exception {
+        for (Model model : new Model[]{Model.CHAIN, Model.LAYERED_DAG}) {
+            Graph g = generate("model=" + model, "n=500", "m=2000", "layers=7", "minWeight=3", "maxWeight=5");
+            assertEquals(500, g.n());
+            assertEquals(2000, g.m());
+            assertEquals(500, new TopologicalSort(g, Metrics.NOOP).run().size(), model.name());
+            for (Edge e : g.edges()) assertTrue(e.w >= 3 && e.w <= 5);
+        }
+    }
+
+    @Test
+    void giantSccHasRequestedSize() throws Exception {
+        Graph g = generate("model=giant_scc", "n=1000", "m=4000", "giantFraction=0.3");
+        SCCResult scc = new KosarajuSCC(g, Metrics.NOOP).run();
+        assertEquals(300, scc.size(scc.componentOf(0)));
+        assertEquals(1000 - 300 + 1, scc.getCount());
+    }
+
+    @Test
+    void clusteredSccSizesStayInRange() throws Exception {
+        Graph g = generate("model=clustered", "n=2000", "m=6000", "minScc=2", "maxScc=6");
+        SCCResult scc = new KosarajuSCC(g, Metrics.NOOP).run();
+        for (int c = 0; c < scc.getCount() - 1; c++) {
+            assertTrue(scc.size(c) >= 2 && scc.size(c) <= 6, "size " + scc.size(c));
+        }
+        assertTrue(g.m() <= 6000);
+    }
+
+    @Test
+    void powerLawTerminatesForAnyPositiveAlpha() throws Exception {
+        assertThrows(IllegalArgumentException.class,
+                () -> WorkloadGenerator.Options.parse(new String[]{"model=power_law", "alpha=0"}, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> WorkloadGenerator.Options.parse(new String[]{"model=power_law", "alpha=-1"}, 0));
+        Graph g = generate("model=power_law", "n=100", "m=500", "alpha=1e6");
+        assertEquals(500, g.m());
+        for (Edge e : g.edges()) assertNotEquals(e.u, e.v);
+    }
+
+    @Test
+    void sameSeedSameBytes() throws Exception {
+        String[] args = {"model=power_law", "n=300", "m=1500", "seed=9"};
+        Path a = tmp.resolve("a.json"), b = tmp.resolve("b.json"), c = tmp.resolve("c.json");
+        WorkloadGenerator.write(WorkloadGenerator.Options.parse(args, 0), a);
+        WorkloadGenerator.write(WorkloadGenerator.Options.parse(args, 0), b);
+        WorkloadGenerator.write(WorkloadGenerator.Options.parse(new String[]{"model=power_law", "n=300", "m=1500", "seed=10"}, 0), c);
+        assertArrayEquals(Files.readAllBytes(a), Files.readAllBytes(b));
+        assertFalse(java.util.Arrays.equals(Files.readAllBytes(a), Files.readAllBytes(c)));
+        assertEquals(1500, GraphReader.fromJsonFile(a).m());
+    }
+}
@@ -0,0 +1,113 @@
+package graph.dagsp;
+
+import graph.core.Edge;
+import graph.core.Graph;
+import graph.scc.CondensationGraph;
+import graph.scc.KosarajuSCC;
+import graph.scc.SCCResult;
+import graph.topo.TopologicalSort;
+import utils.GraphReader;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CriticalPathMethodTest {
+
+    // 0(3) -> 1(2) -> 3(4), 0 -> 2(1) -> 3
+    @Test
+    void nodeModelSchedule() {
+        Graph g = new Graph(true, 4, List.of(
+                new Edge(0, 1, 99), new Edge(1, 3, 99), new Edge(0, 2, 99), new Edge(2, 3, 99)), null, "node");
+        int[] d = {3, 2, 1, 4};
+        M m = new M();
+        CriticalPathMethod.Schedule s = new CriticalPathMethod(g, d, m).run(new TopologicalSort(g, m).run());
+
+        assertEquals(9, s.length);
+        assertArrayEquals(new long[]{0, 3, 3, 5}, col(s, s::earliestStart));
+        assertArrayEquals(new long[]{3, 5, 4, 9}, col(s, s::earliestFinish));
+        assertArrayEquals(new long[]{0, 3, 4, 5}, col(s, s::latestStart));
+        assertArrayEquals(new long[]{3, 5, 5, 9}, col(s, s::latestFinish));
+        assertArrayEquals(new long[]{0, 0, 1, 0}, col(s, s::totalFloat));
+        assertEquals(List.of(0, 1, 3), s.criticalPath());
+        assertEquals(8, m.get("relaxations_cpm"));
+        assertThrows(IllegalArgumentException.class, () -> new CriticalPathMethod(g, m));
+    }
+
+    @Test
+    void edgeModelMatchesLongestPaths() throws Exception {
+        for (String name : List.of("small_dag", "medium_dag", "large_dag")) {
+            Graph g = GraphReader.fromJsonFile(Path.of("data/" + name + ".json"));
+            List<Integer> order = new TopologicalSort(g, new M()).run();
+            CriticalPathMethod.Schedule s = new CriticalPathMethod(g, new M()).run(order);
+
+            long[] es = new long[g.n()];
+            long length = 0;
+            for (int src = 0; src < g.n(); src++) {
+                DagLongestPath.Result lp = new DagLongestPath(g, new M()).run(order, src);
+                for (int v = 0; v < g.n(); v++) es[v] = Math.max(es[v], lp.best[v]);
+                length = Math.max(length, lp.best[lp.argMax()]);
+            }
+            assertEquals(length, s.length, name);
+            for (int v = 0; v < g.n(); v++) {
+                assertEquals(es[v], s.earliestStart(v), name + " vertex " + v);
+                assertTrue(s.totalFloat(v) >= 0);
+            }
+            List<Integer> path = s.criticalPath();
+            long sum = 0;
+            for (int i = 0; i + 1 < path.size(); i++) sum += weight(g, path.get(i), path.get(i + 1));
+            assertEquals(length, sum, name);
+        }
+    }
+
+    @Test
+    void runsOnCondensationWithMemberDurations() throws Exception {
+        Graph edges = GraphReader.fromJsonFile(Path.of("data/large_multi_scc.json"));
+        Graph g = new Graph(true, edges.n(), edges.out(), null, "node");
+        SCCResult scc = new KosarajuSCC(g, new M()).run();
+        int[] ones = new int[g.n()];
+        Arrays.fill(ones, 1);
+        int[] d = CriticalPathMethod.condensedDurations(scc, ones);
+
+        CriticalPathMethod.Schedule s = CriticalPathMethod.forCondensation(g, scc, ones, new M());
+        assertEquals(scc.getCount(), s.n());
+        long total = 0;
+        for (int c : s.criticalPath()) total += d[c];
+        assertEquals(s.length, total);
+        for (int c = 0; c < s.n(); c++) {
+            assertEquals(d[c], s.duration(c));
+            assertEquals(s.latestFinish(c) - s.earliestFinish(c), s.totalFloat(c));
+        }
+    }
+
+    @Test
+    void condensationKeepsEdgeModelLags() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/small_multi_scc.json"));
+        SCCResult scc = new KosarajuSCC(g, new M()).run();
+        CriticalPathMethod.Schedule s = CriticalPathMethod.forCondensation(g, scc, null, new M());
+
+        Graph dag = new CondensationGraph(g, scc, CondensationGraph.EdgeWeight.MAX).buildCondensedGraph();
+        List<Integer> order = new TopologicalSort(dag, new M()).run();
+        long length = 0;
+        for (int src = 0; src < dag.n(); src++) {
+            DagLongestPath.Result lp = new DagLongestPath(dag, new M()).run(order, src);
+            length = Math.max(length, lp.best[lp.argMax()]);
+        }
+        assertEquals(length, s.length);
+    }
+
+    private static long[] col(CriticalPathMethod.Schedule s, java.util.function.IntToLongFunction f) {
+        long[] out = new long[s.n()];
+        for (int v = 0; v < out.length; v++) out[v] = f.applyAsLong(v);
+        return out;
+    }
+
+    private static long weight(Graph g, int u, int v) {
+        long best = Long.MIN_VALUE;
+        for (Edge e : g.edges()) if (e.u == u && e.v == v) best = Math.max(best, e.w);
+        return best;
+    }
+}
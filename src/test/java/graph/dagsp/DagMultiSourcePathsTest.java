@@ -0,0 +1,73 @@
+package graph.dagsp;
+
+import graph.core.Graph;
+import graph.dagsp.DagMultiSourcePaths.Objective;
+import graph.topo.TopologicalSort;
+import utils.GraphReader;
+import utils.Metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static graph.TestGraphs.randomDag;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DagMultiSourcePathsTest {
+
+    @Test
+    void matchesSingleSourceSolversOnDatasets() throws Exception {
+        for (String name : List.of("small_dag", "medium_dag", "large_dag")) {
+            checkAllSources(GraphReader.fromJsonFile(Path.of("data/" + name + ".json")));
+        }
+    }
+
+    @Test
+    void matchesSingleSourceSolversOnRandomDag() {
+        checkAllSources(randomDag(400, 2000, 20, -5, 15, new Random(3)));
+    }
+
+    @Test
+    void fewerSourcesThanLanes() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/large_dag.json"));
+        List<Integer> order = new TopologicalSort(g, Metrics.NOOP).run();
+        DagMultiSourcePaths multi = new DagMultiSourcePaths(g, order, Metrics.NOOP);
+        for (int[] sources : new int[][]{{}, {3}, {order.get(0), 5, 1}}) {
+            long[] matrix = multi.distanceMatrix(sources, Objective.SHORTEST);
+            assertEquals(sources.length * g.n(), matrix.length);
+            for (int k = 0; k < sources.length; k++) {
+                assertArrayEquals(new DagShortestPaths(g, Metrics.NOOP).run(order, sources[k]).dist,
+                        Arrays.copyOfRange(matrix, k * g.n(), (k + 1) * g.n()));
+                assertArrayEquals(new DagLongestPath(g, Metrics.NOOP).run(order, sources[k]).best,
+                        multi.distances(sources[k], Objective.LONGEST));
+            }
+        }
+    }
+
+    private static void checkAllSources(Graph g) {
+        List<Integer> order = new TopologicalSort(g, Metrics.NOOP).run();
+        int n = g.n();
+        int[] sources = new int[n];
+        for (int s = 0; s < n; s++) sources[s] = n - 1 - s;
+
+        M metrics = new M();
+        DagMultiSourcePaths multi = new DagMultiSourcePaths(g, order, metrics);
+        long[] shortest = multi.distanceMatrix(sources, Objective.SHORTEST);
+        Map<Integer, long[]> longest = new ConcurrentHashMap<>();
+        multi.forEachSourceParallel(sources, Objective.LONGEST, (s, dist) -> longest.put(s, dist.clone()));
+        List<Integer> seen = new ArrayList<>();
+        multi.forEachSource(sources, Objective.SHORTEST, (s, dist) -> seen.add(s));
+
+        for (int k = 0; k < n; k++) {
+            int s = sources[k];
+            long[] sp = new DagShortestPaths(g, Metrics.NOOP).run(order, s).dist;
+            long[] lp = new DagLongestPath(g, Metrics.NOOP).run(order, s).best;
+            assertArrayEquals(sp, Arrays.copyOfRange(shortest, k * n, (k + 1) * n), "shortest from " + s);
+            assertArrayEquals(lp, longest.get(s), "longest from " + s);
+            assertEquals(s, seen.get(k));
+        }
+        assertTrue(metrics.get("relaxations_multi") > 0 || g.m() == 0);
+    }
+}
@@ -0,0 +1,117 @@
+package graph.dagsp;
+
+import graph.core.Edge;
+import graph.core.Graph;
+import graph.topo.TopologicalSort;
+import utils.GraphReader;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KBestPathsTest {
+
+    @Test
+    void matchesBruteForceOnRandomDags() {
+        Random rnd = new Random(17);
+        for (int round = 0; round < 20; round++) {
+            int n = 12 + rnd.nextInt(6);
+            List<Edge> edges = new ArrayList<>();
+            for (int u = 0; u < n; u++)
+                for (int v = u + 1; v < n; v++)
+                    if (rnd.nextInt(3) == 0) edges.add(new Edge(u, v, rnd.nextInt(10) - 2));
+            edges.add(new Edge(0, 1, 3));
+            edges.add(new Edge(0, 1, 3)); // parallel edges are distinct paths
+            Graph g = new Graph(true, n, edges, 0, "edge");
+            KBestPaths kb = new KBestPaths(g, new TopologicalSort(g, new M()).run(), new M());
+
+            int t = n - 1;
+            List<Long> all = new ArrayList<>();
+            enumerate(g, 0, t, 0, all);
+            Collections.sort(all);
+            int k = Math.min(all.size() + 5, 300);
+
+            KBestPaths.Paths sp = kb.shortest(0, t, k);
+            assertEquals(Math.min(k, all.size()), sp.size());
+            for (int i = 0; i < sp.size(); i++) assertEquals(all.get(i), sp.length(i));
+            assertPathsValid(g, sp, 0, t);
+
+            KBestPaths.Paths lp = kb.longest(0, t, k);
+            assertEquals(sp.size(), lp.size());
+            for (int i = 0; i < lp.size(); i++) assertEquals(all.get(all.size() - 1 - i), lp.length(i));
+            assertPathsValid(g, lp, 0, t);
+        }
+    }
+
+    @Test
+    void firstPathMatchesSingleBestSolvers() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/small_dag.json"));
+        List<Integer> order = new TopologicalSort(g, new M()).run();
+        KBestPaths kb = new KBestPaths(g, order, new M());
+        DagLongestPath.Result lp = new DagLongestPath(g, new M()).run(order, 0);
+        int t = lp.argMax();
+        KBestPaths.Paths best = kb.longest(0, t, 3);
+        assertEquals(lp.best[t], best.length(0));
+        assertEquals(lp.reconstructPath(t), toList(best.path(0)));
+        assertEquals(-1, best.prefix(0));
+
+        DagShortestPaths.Result sp = new DagShortestPaths(g, new M()).run(order, 0);
+        assertEquals(sp.dist[t], kb.shortest(0, t, 1).length(0));
+        assertEquals(0, kb.shortest(g.n() - 1, 0, 5).size());
+        assertEquals(0, kb.shortest(0, t, 0).size());
+    }
+
+    @Test
+    void largeKOnLayeredDag() {
+        int layers = 8, width = 6, n = layers * width + 2;
+        List<Edge> edges = new ArrayList<>();
+        Random rnd = new Random(5);
+        for (int j = 0; j < width; j++) edges.add(new Edge(0, 1 + j, rnd.nextInt(100)));
+        for (int l = 0; l + 1 < layers; l++)
+            for (int a = 0; a < width; a++)
+                for (int b = 0; b < width; b++)
+                    edges.add(new Edge(1 + l * width + a, 1 + (l + 1) * width + b, rnd.nextInt(100)));
+        for (int j = 0; j < width; j++) edges.add(new Edge(1 + (layers - 1) * width + j, n - 1, rnd.nextInt(100)));
+        Graph g = new Graph(true, n, edges, 0, "edge");
+        M m = new M();
+        KBestPaths.Paths p = new KBestPaths(g, new TopologicalSort(g, m).run(), m).shortest(0, n - 1, 10_000);
+        assertEquals(10_000, p.size());
+        for (int i = 1; i < p.size(); i++) assertTrue(p.length(i - 1) <= p.length(i));
+        assertPathsValid(g, p, 0, n - 1);
+        assertEquals(9_999, m.get("kbest_popped"));
+    }
+
+    private static void assertPathsValid(Graph g, KBestPaths.Paths p, int s, int t) {
+        Set<List<Integer>> seen = new HashSet<>();
+        for (int i = 0; i < p.size(); i++) {
+            int[] edges = p.edges(i);
+            int[] path = p.path(i);
+            assertEquals(s, path[0]);
+            assertEquals(t, path[path.length - 1]);
+            long len = 0;
+            List<Integer> used = new ArrayList<>();
+            for (int j = 0; j < edges.length; j++) {
+                int e = edges[j];
+                assertTrue(e >= g.out().begin(path[j]) && e < g.out().end(path[j]), "edge " + e + " does not leave " + path[j]);
+                len += g.out().weight(e);
+                used.add(e);
+            }
+            assertEquals(p.length(i), len);
+            assertTrue(seen.add(used), "path " + i + " repeated");
+        }
+    }
+
+    private static void enumerate(Graph g, int u, int t, long len, List<Long> out) {
+        if (u == t) { out.add(len); return; }
+        for (int e = g.out().begin(u); e < g.out().end(u); e++) enumerate(g, g.out().target(e), t, len + g.out().weight(e), out);
+    }
+
+    private static List<Integer> toList(int[] a) {
+        List<Integer> l = new ArrayList<>();
+        for (int x : a) l.add(x);
+        return l;
+    }
+}
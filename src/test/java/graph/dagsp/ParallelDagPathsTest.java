@@ -0,0 +1,65 @@
+package graph.dagsp;
+
+import graph.core.Graph;
+import graph.topo.ParallelTopologicalSort;
+import graph.topo.TopologicalSort;
+import utils.GraphReader;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static graph.TestGraphs.randomDag;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelDagPathsTest {
+
+    @Test
+    void identicalToSequentialSolvers() {
+        Random rnd = new Random(11);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int n : new int[]{2, 40, 3_000, 150_000}) {
+                // Narrow weight range so equal-length alternatives are common.
+                Graph g = randomDag(n, 4L * n, 32, -1, 2, rnd);
+                // Two different valid orders: ties must follow whichever one is given.
+                List<Integer> kahn = new TopologicalSort(g, new M()).run();
+                List<Integer> byLevel = new ParallelTopologicalSort(g, new M(), pool).run().toList();
+                for (List<Integer> order : List.of(kahn, byLevel)) {
+                    M seq = new M(), par = new M();
+                    ParallelDagPaths pp = new ParallelDagPaths(g, order, par, pool);
+                    for (int source : new int[]{order.get(0), order.get(n / 3), rnd.nextInt(n)}) {
+                        DagShortestPaths.Result a = new DagShortestPaths(g, seq).run(order, source);
+                        DagShortestPaths.Result b = pp.shortest(source);
+                        assertArrayEquals(a.dist, b.dist);
+                        assertArrayEquals(a.parent, b.parent);
+
+                        DagLongestPath.Result c = new DagLongestPath(g, seq).run(order, source);
+                        DagLongestPath.Result d = pp.longest(source);
+                        assertArrayEquals(c.best, d.best);
+                        assertArrayEquals(c.parent, d.parent);
+                    }
+                    assertEquals(seq.get("relaxations_sp"), par.get("relaxations_sp"));
+                    assertEquals(seq.get("relaxations_lp"), par.get("relaxations_lp"));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void matchesOnDataGraph() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/medium_dag.json"));
+        List<Integer> order = new TopologicalSort(g, new M()).run();
+        ParallelDagPaths pp = new ParallelDagPaths(g, order, new M());
+        int source = g.source() != null ? g.source() : 0;
+        assertArrayEquals(new DagShortestPaths(g, new M()).run(order, source).parent, pp.shortest(source).parent);
+        DagLongestPath.Result lp = pp.longest(source);
+        assertEquals(new DagLongestPath(g, new M()).run(order, source).reconstructPath(lp.argMax()),
+                lp.reconstructPath(lp.argMax()));
+    }
+}
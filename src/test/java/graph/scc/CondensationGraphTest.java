@@ -0,0 +1,74 @@
+package graph.scc;
+
+import graph.core.Edge;
+import graph.core.Graph;
+import utils.GraphReader;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CondensationGraphTest {
+
+    // {0,1} and {2,3} are SCCs; three parallel cross edges 0/1 -> 2/3 plus 3 -> 4.
+    private static Graph sample() {
+        return new Graph(true, 5, List.of(
+                new Edge(0, 1, 1), new Edge(1, 0, 1),
+                new Edge(2, 3, 1), new Edge(3, 2, 1),
+                new Edge(0, 2, 5), new Edge(1, 3, 2), new Edge(1, 2, 9),
+                new Edge(3, 4, 4)), 0, "edge");
+    }
+
+    @Test
+    void foldsParallelCrossEdges() {
+        Graph g = sample();
+        SCCResult scc = new KosarajuSCC(g, new DummyMetrics()).run();
+        assertEquals(3, scc.getCount());
+        int a = scc.componentOf(0), b = scc.componentOf(2), c = scc.componentOf(4);
+
+        assertEquals(Map.of(a + "->" + b, 1, b + "->" + c, 1), edgeMap(new CondensationGraph(g, scc).buildCondensedGraph()));
+        assertEquals(Map.of(a + "->" + b, 2, b + "->" + c, 4),
+                edgeMap(new CondensationGraph(g, scc, CondensationGraph.EdgeWeight.MIN).buildCondensedGraph()));
+        assertEquals(Map.of(a + "->" + b, 9, b + "->" + c, 4),
+                edgeMap(new CondensationGraph(g, scc, CondensationGraph.EdgeWeight.MAX).buildCondensedGraph()));
+        Graph sum = new CondensationGraph(g, scc, CondensationGraph.EdgeWeight.SUM).buildCondensedGraph();
+        assertEquals(Map.of(a + "->" + b, 16, b + "->" + c, 4), edgeMap(sum));
+        assertEquals("edge", sum.weightModel());
+    }
+
+    @Test
+    void overflowingSumIsAnError() {
+        Graph g = new Graph(true, 2, List.of(
+                new Edge(0, 1, Integer.MAX_VALUE), new Edge(0, 1, 1)), null, "edge");
+        SCCResult scc = new TarjanSCC(g, new DummyMetrics()).run();
+        assertThrows(ArithmeticException.class,
+                () -> new CondensationGraph(g, scc, CondensationGraph.EdgeWeight.SUM).buildCondensedGraph());
+        Graph max = new CondensationGraph(g, scc, CondensationGraph.EdgeWeight.MAX).buildCondensedGraph();
+        assertEquals(Integer.MAX_VALUE, max.edges().get(0).w);
+    }
+
+    @Test
+    void matchesStringKeyDedupOnDatasets() throws Exception {
+        for (String name : List.of("small_multi_scc", "medium_multi_scc", "large_multi_scc", "large_cyclic")) {
+            Graph g = GraphReader.fromJsonFile(Path.of("data/" + name + ".json"));
+            SCCResult scc = new KosarajuSCC(g, new DummyMetrics()).run();
+            Set<String> expected = new HashSet<>();
+            for (Edge e : g.edges()) {
+                int cu = scc.componentOf(e.u), cv = scc.componentOf(e.v);
+                if (cu != cv) expected.add(cu + "->" + cv);
+            }
+            Graph dag = new CondensationGraph(g, scc).buildCondensedGraph();
+            assertEquals(expected, edgeMap(dag).keySet(), name);
+            assertEquals(expected.size(), dag.m(), name);
+        }
+    }
+
+    private static Map<String, Integer> edgeMap(Graph dag) {
+        Map<String, Integer> out = new HashMap<>();
+        for (Edge e : dag.edges()) assertNull(out.put(e.u + "->" + e.v, e.w), "duplicate edge " + e);
+        return out;
+    }
+}
@@ -0,0 +1,97 @@
+package graph.scc;
+
+import graph.core.Edge;
+import graph.core.Graph;
+import utils.GraphReader;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static graph.TestGraphs.partition;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicSCCTest {
+
+    @Test
+    void randomInsertionsAndBatchedDeletionsMatchRecomputation() {
+        int n = 200;
+        Random rnd = new Random(11);
+        DummyMetrics m = new DummyMetrics();
+        DynamicSCC dyn = new DynamicSCC(n, m);
+        List<Edge> edges = new ArrayList<>();
+        for (int round = 0; round < 40; round++) {
+            for (int k = 0; k < 15; k++) {
+                int u = rnd.nextInt(n), v = rnd.nextInt(n);
+                dyn.addEdge(u, v);
+                edges.add(new Edge(u, v, 1));
+                if (k % 5 == 0) assertMatches(n, edges, dyn);
+            }
+            int batch = Math.min(edges.size(), rnd.nextInt(12));
+            int[] us = new int[batch], vs = new int[batch];
+            for (int k = 0; k < batch; k++) {
+                Edge e = edges.remove(rnd.nextInt(edges.size()));
+                us[k] = e.u;
+                vs[k] = e.v;
+            }
+            assertEquals(batch, dyn.removeEdges(us, vs));
+            assertMatches(n, edges, dyn);
+        }
+        assertEquals(edges.size(), dyn.edgeCount());
+    }
+
+    @Test
+    void insertionClosingCycleMergesAndDeletionSplits() {
+        DummyMetrics m = new DummyMetrics();
+        DynamicSCC dyn = new DynamicSCC(4, m);
+        assertFalse(dyn.addEdge(0, 1));
+        assertFalse(dyn.addEdge(1, 2));
+        assertFalse(dyn.addEdge(2, 3));
+        assertTrue(dyn.addEdge(3, 1));
+        assertEquals(2, dyn.componentCount());
+        assertTrue(dyn.sameComponent(1, 3));
+        assertEquals(3, dyn.componentSize(2));
+        assertTrue(dyn.position(0) < dyn.position(2));
+
+        assertTrue(dyn.removeEdge(2, 3));
+        assertFalse(dyn.removeEdge(2, 3));
+        assertEquals(4, dyn.componentCount());
+        assertTrue(dyn.position(3) < dyn.position(1));
+        assertTrue(dyn.position(1) < dyn.position(2));
+    }
+
+    @Test
+    void startsFromStaticGraph() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/large_multi_scc.json"));
+        DynamicSCC dyn = new DynamicSCC(g, new DummyMetrics());
+        List<Edge> edges = new ArrayList<>(g.edges());
+        assertMatches(g.n(), edges, dyn);
+
+        dyn.addEdge(g.n() - 1, 0);
+        edges.add(new Edge(g.n() - 1, 0, 1));
+        assertMatches(g.n(), edges, dyn);
+    }
+
+    private static void assertMatches(int n, List<Edge> edges, DynamicSCC dyn) {
+        Graph g = new Graph(true, n, edges, null, "edge");
+        SCCResult expected = new TarjanSCC(g, new DummyMetrics()).run();
+        SCCResult actual = dyn.snapshot();
+        assertEquals(expected.getCount(), dyn.componentCount());
+        assertEquals(partition(expected), partition(actual));
+        for (Edge e : edges) {
+            assertTrue(actual.componentOf(e.u) <= actual.componentOf(e.v), "edge " + e + " goes backwards");
+            assertTrue(dyn.position(e.u) <= dyn.position(e.v));
+        }
+
+        Graph cond = dyn.condensation();
+        Graph rebuilt = new CondensationGraph(g, actual).buildCondensedGraph();
+        assertEquals(edgeSet(rebuilt), edgeSet(cond));
+    }
+
+    private static Set<List<Integer>> edgeSet(Graph g) {
+        Set<List<Integer>> out = new HashSet<>();
+        for (Edge e : g.edges()) assertTrue(out.add(List.of(e.u, e.v)), "duplicate " + e);
+        return out;
+    }
+}
@@ -0,0 +1,129 @@
+package graph.scc;
+
+import graph.core.Edge;
+import graph.core.Graph;
+import utils.GraphReader;
+import utils.SimpleMetrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReachabilityIndexTest {
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void closureAndGrailMatchBfs() {
+        Random rnd = new Random(21);
+        for (int round = 0; round < 12; round++) {
+            int n = 30 + rnd.nextInt(150);
+            Graph g = randomGraph(n, 2 * n, rnd);
+            SCCResult scc = new TarjanSCC(g, new DummyMetrics()).run();
+            ReachabilityIndex closure = ReachabilityIndex.build(g, scc, new DummyMetrics());
+            ReachabilityIndex grail = ReachabilityIndex.build(g, scc, new DummyMetrics(), 0, 1 + round % 4);
+            assertTrue(closure.isClosure());
+            assertFalse(grail.isClosure());
+            for (int u = 0; u < n; u++) {
+                boolean[] seen = bfs(g, u);
+                for (int v = 0; v < n; v++) {
+                    assertEquals(seen[v], closure.reachable(u, v), u + " -> " + v);
+                    assertEquals(seen[v], grail.reachable(u, v), u + " -> " + v);
+                    assertEquals(scc.componentOf(u) == scc.componentOf(v), grail.sameComponent(u, v));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsComponentsOutOfTopologicalOrder() {
+        Graph g = new Graph(true, 2, List.of(new Edge(0, 1, 1)), 0, "edge");
+        SCCResult reversed = SCCResult.fromComponentIds(new int[]{1, 0}, 2);
+        assertThrows(IllegalArgumentException.class, () -> ReachabilityIndex.build(g, reversed, new DummyMetrics()));
+    }
+
+    @Test
+    void roundTripsThroughFile() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/medium_cyclic.json"));
+        SCCResult scc = new KosarajuSCC(g, new DummyMetrics()).run();
+        SimpleMetrics m = new SimpleMetrics();
+        for (long closureBytes : new long[]{ReachabilityIndex.DEFAULT_CLOSURE_BYTES, 0}) {
+            ReachabilityIndex built = ReachabilityIndex.build(g, scc, m, closureBytes, 2);
+            Path file = tmp.resolve("idx" + closureBytes + ".reach");
+            built.write(file);
+            ReachabilityIndex loaded = ReachabilityIndex.read(file);
+            assertEquals(built.isClosure(), loaded.isClosure());
+            assertEquals(built.bytes(), loaded.bytes());
+            for (int u = 0; u < g.n(); u++) {
+                boolean[] seen = bfs(g, u);
+                for (int v = 0; v < g.n(); v++) assertEquals(seen[v], loaded.reachable(u, v));
+            }
+        }
+        assertTrue(m.get("reach_index_bytes") > 0);
+        assertTrue(m.get("reach_build_ns") > 0);
+
+        Path junk = tmp.resolve("junk.reach");
+        Files.write(junk, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(java.io.IOException.class, () -> ReachabilityIndex.read(junk));
+    }
+
+    @Test
+    void concurrentGrailQueries() throws Exception {
+        Random rnd = new Random(4);
+        int n = 3000;
+        Graph g = randomGraph(n, 3 * n, rnd);
+        SCCResult scc = new TarjanSCC(g, new DummyMetrics()).run();
+        ReachabilityIndex idx = ReachabilityIndex.build(g, scc, new DummyMetrics(), 0, 2);
+        int[] us = new int[200];
+        boolean[][] expected = new boolean[us.length][];
+        for (int i = 0; i < us.length; i++) { us[i] = rnd.nextInt(n); expected[i] = bfs(g, us[i]); }
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            Thread th = new Thread(() -> {
+                try {
+                    for (int i = offset; i < us.length; i += 4)
+                        for (int v = 0; v < n; v++) assertEquals(expected[i][v], idx.reachable(us[i], v));
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            threads.add(th);
+            th.start();
+        }
+        for (Thread th : threads) th.join();
+        assertEquals(List.of(), errors);
+    }
+
+    private static boolean[] bfs(Graph g, int s) {
+        boolean[] seen = new boolean[g.n()];
+        ArrayDeque<Integer> q = new ArrayDeque<>(List.of(s));
+        seen[s] = true;
+        while (!q.isEmpty()) {
+            int u = q.poll();
+            for (int i = g.out().begin(u); i < g.out().end(u); i++) {
+                int v = g.out().target(i);
+                if (!seen[v]) { seen[v] = true; q.add(v); }
+            }
+        }
+        return seen;
+    }
+
+    private static Graph randomGraph(int n, int m, Random rnd) {
+        List<Edge> edges = new ArrayList<>();
+        for (int k = 0; k < m; k++) {
+            // Mostly forward edges with a few back edges, so there are both SCCs and a deep DAG.
+            int a = rnd.nextInt(n), b = rnd.nextInt(n);
+            if (a > b && rnd.nextInt(10) > 0) { int t = a; a = b; b = t; }
+            edges.add(new Edge(a, b, 1));
+        }
+        return new Graph(true, n, edges, 0, "edge");
+    }
+}
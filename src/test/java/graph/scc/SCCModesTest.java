@@ -0,0 +1,114 @@
+package graph.scc;
+
+import graph.core.Edge;
+import graph.core.Graph;
+import utils.GraphReader;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static graph.TestGraphs.partition;
+import static graph.TestGraphs.randomDag;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SCCModesTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small_cyclic", "medium_cyclic", "large_cyclic", "small_multi_scc",
+            "medium_multi_scc", "large_multi_scc", "large_dag"})
+    void allModesAgree(String name) throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/" + name + ".json"));
+        SCCResult expected = new KosarajuSCC(g, new DummyMetrics()).run();
+        for (SCCMode mode : SCCMode.values()) {
+            SCCResult res = mode.create(g, new DummyMetrics()).run();
+            assertEquals(partition(expected), partition(res), mode + " on " + name);
+            assertTopologicalIds(g, res.componentOf());
+            assertCompactLayout(res);
+        }
+    }
+
+    @Test
+    void longChainDoesNotOverflowStack() {
+        int n = 200_000;
+        List<Edge> edges = new ArrayList<>(n);
+        for (int v = 0; v + 1 < n; v++) edges.add(new Edge(v, v + 1, 1));
+        edges.add(new Edge(n - 1, n / 2, 1));
+        Graph g = new Graph(true, n, edges, 0, "edge");
+
+        for (SCCMode mode : SCCMode.values()) {
+            SCCResult res = mode.create(g, new DummyMetrics()).run();
+            assertEquals(n / 2 + 1, res.getCount(), mode.name());
+            assertEquals(n - n / 2, res.getComponents().get(res.componentOf(n - 1)).size(), mode.name());
+        }
+    }
+
+    @Test
+    void randomGraphAboveSequentialThreshold() {
+        int n = 30_000;
+        Random rnd = new Random(42);
+        List<Edge> edges = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            edges.add(new Edge(v, rnd.nextInt(n), 1));
+            if (rnd.nextInt(3) == 0) edges.add(new Edge(v, (v + 1) % n, 1));
+        }
+        Graph g = new Graph(true, n, edges, 0, "edge");
+
+        SCCResult expected = new KosarajuSCC(g, new DummyMetrics()).run();
+        DummyMetrics m = new DummyMetrics();
+        SCCResult res = new ParallelSCC(g, m).run();
+        assertEquals(partition(expected), partition(res));
+        assertTopologicalIds(g, res.componentOf());
+        assertTrue(m.get("scc_threads") > 0);
+    }
+
+    @Test
+    void parallelIdsAreStableAcrossRuns() {
+        // Mostly trimmed vertices: wide DAG rounds on both sides of a cyclic core.
+        int n = 100_000;
+        Random rnd = new Random(8);
+        Graph dag = randomDag(n, 3L * n, 64, 1, 1, rnd);
+        List<Edge> edges = new ArrayList<>(dag.edges());
+        for (int v = 0; v < 20_000; v++) edges.add(new Edge(n + v, n + rnd.nextInt(20_000), 1));
+        for (int k = 0; k < 5_000; k++) {
+            edges.add(new Edge(rnd.nextInt(n), n + rnd.nextInt(20_000), 1));
+            edges.add(new Edge(n + rnd.nextInt(20_000), rnd.nextInt(n), 1));
+        }
+        Graph g = new Graph(true, n + 20_000, edges, 0, "edge");
+
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            SCCResult first = new ParallelSCC(g, new DummyMetrics(), pool).run();
+            assertEquals(partition(new KosarajuSCC(g, new DummyMetrics()).run()), partition(first));
+            assertTopologicalIds(g, first.componentOf());
+            for (int r = 0; r < 10; r++) {
+                assertArrayEquals(first.componentOf(), new ParallelSCC(g, new DummyMetrics(), pool).run().componentOf());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertCompactLayout(SCCResult res) {
+        int total = 0;
+        for (int c = 0; c < res.getCount(); c++) {
+            assertEquals(res.getComponents().get(c).size(), res.size(c));
+            for (int i = res.memberBegin(c); i < res.memberEnd(c); i++) {
+                assertEquals(c, res.componentOf(res.member(i)));
+                assertEquals(res.getComponents().get(c).get(i - res.memberBegin(c)), res.member(i));
+                if (i > res.memberBegin(c)) assertTrue(res.member(i - 1) < res.member(i), "members not ascending");
+            }
+            total += res.size(c);
+        }
+        assertEquals(res.componentOf().length, total);
+        assertSame(res.getComponents(), res.getComponents());
+    }
+
+    private static void assertTopologicalIds(Graph g, int[] comp) {
+        for (var e : g.edges()) assertTrue(comp[e.u] <= comp[e.v], "edge " + e + " goes backwards");
+    }
+}
@@ -0,0 +1,87 @@
+package graph.topo;
+
+import graph.core.Graph;
+import utils.GraphReader;
+
+import org.junit.jupiter.api.Test;
+import java.nio.file.Path;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DynamicTopologicalOrderTest {
+
+    @Test
+    void insertionsKeepOrderValidAndRejectCycles() {
+        int n = 300;
+        DynamicTopologicalOrder dto = new DynamicTopologicalOrder(n, new DummyMetrics());
+        List<int[]> edges = new ArrayList<>();
+        Random rnd = new Random(5);
+        int rejected = 0;
+        for (int k = 0; k < 3000; k++) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n);
+            boolean cyclic = u == v || reaches(n, edges, v, u);
+            assertEquals(!cyclic, dto.tryAddEdge(u, v), u + " -> " + v);
+            if (cyclic) rejected++;
+            else edges.add(new int[]{u, v});
+        }
+        assertTrue(rejected > 0);
+        assertEquals(edges.size(), dto.edgeCount());
+        assertValid(dto, edges);
+    }
+
+    @Test
+    void deletionAllowsPreviouslyCyclicEdge() {
+        DynamicTopologicalOrder dto = new DynamicTopologicalOrder(3, new DummyMetrics());
+        dto.addEdge(0, 1);
+        dto.addEdge(1, 2);
+        assertThrows(IllegalStateException.class, () -> dto.addEdge(2, 0));
+        assertEquals(2, dto.edgeCount());
+
+        assertTrue(dto.removeEdge(1, 2));
+        assertFalse(dto.removeEdge(1, 2));
+        dto.addEdge(2, 0);
+        assertTrue(dto.position(2) < dto.position(0));
+        assertTrue(dto.position(0) < dto.position(1));
+    }
+
+    @Test
+    void startsFromStaticDag() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/small_dag.json"));
+        DynamicTopologicalOrder dto = new DynamicTopologicalOrder(g, new DummyMetrics());
+        assertEquals(g.m(), dto.edgeCount());
+        List<int[]> edges = new ArrayList<>();
+        for (var e : g.edges()) edges.add(new int[]{e.u, e.v});
+        assertValid(dto, edges);
+
+        int v = dto.addVertex();
+        assertEquals(g.n(), v);
+        dto.addEdge(v, dto.vertexAt(0));
+        assertEquals(0, dto.position(v));
+    }
+
+    private static void assertValid(DynamicTopologicalOrder dto, List<int[]> edges) {
+        int[] order = dto.toArray();
+        boolean[] seen = new boolean[dto.n()];
+        for (int p = 0; p < order.length; p++) {
+            assertFalse(seen[order[p]]);
+            seen[order[p]] = true;
+            assertEquals(p, dto.position(order[p]));
+        }
+        for (int[] e : edges) assertTrue(dto.position(e[0]) < dto.position(e[1]), e[0] + " -> " + e[1]);
+    }
+
+    private static boolean reaches(int n, List<int[]> edges, int from, int to) {
+        List<List<Integer>> adj = new ArrayList<>();
+        for (int i = 0; i < n; i++) adj.add(new ArrayList<>());
+        for (int[] e : edges) adj.get(e[0]).add(e[1]);
+        boolean[] seen = new boolean[n];
+        Deque<Integer> stack = new ArrayDeque<>(List.of(from));
+        seen[from] = true;
+        while (!stack.isEmpty()) {
+            int x = stack.pop();
+            if (x == to) return true;
+            for (int y : adj.get(x)) if (!seen[y]) { seen[y] = true; stack.push(y); }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+package graph.topo;
+
+import graph.core.Edge;
+import graph.core.Graph;
+import utils.GraphReader;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static graph.TestGraphs.randomDag;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelTopologicalSortTest {
+
+    @Test
+    void levelsMatchLongestPathDepth() {
+        Random rnd = new Random(3);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int n : new int[]{1, 50, 5_000, 200_000}) {
+                Graph g = randomDag(n, 3L * n, 64, 1, 1, rnd);
+                ParallelTopologicalSort.Levels lv = new ParallelTopologicalSort(g, new DummyMetrics(), pool).run();
+                assertLevels(g, lv);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void sameResultOnEveryRun() {
+        Graph g = randomDag(100_000, 400_000, 64, 1, 1, new Random(9));
+        int[] first = new ParallelTopologicalSort(g, new DummyMetrics()).run().toArray();
+        for (int r = 0; r < 3; r++) {
+            assertArrayEquals(first, new ParallelTopologicalSort(g, new DummyMetrics()).run().toArray());
+        }
+    }
+
+    @Test
+    void wideLevelIsSortedOnSuppliedPool() {
+        int n = 50_000;
+        List<Edge> edges = new ArrayList<>();
+        for (int v = n - 1; v > 0; v--) edges.add(new Edge(0, v, 1));
+        Graph g = new Graph(true, n, edges, 0, "edge");
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ParallelTopologicalSort.Levels lv = new ParallelTopologicalSort(g, new DummyMetrics(), pool).run();
+            assertEquals(2, lv.levelCount());
+            assertEquals(n - 1, lv.width(1));
+            assertLevels(g, lv);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void widthsOfDataGraph() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/medium_dag.json"));
+        ParallelTopologicalSort.Levels lv = new ParallelTopologicalSort(g, new DummyMetrics()).run();
+        assertLevels(g, lv);
+        assertEquals(new TopologicalSort(g, new DummyMetrics()).run().size(), lv.toList().size());
+    }
+
+    @Test
+    void shouldThrowIfGraphHasCycle() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/small_cyclic.json"));
+        assertThrows(IllegalStateException.class, new ParallelTopologicalSort(g, new DummyMetrics())::run);
+
+        List<Edge> edges = new ArrayList<>();
+        for (int v = 0; v + 1 < 10_000; v++) edges.add(new Edge(v, v + 1, 1));
+        edges.add(new Edge(9_999, 5_000, 1));
+        Graph big = new Graph(true, 10_000, edges, 0, "edge");
+        assertThrows(IllegalStateException.class, new ParallelTopologicalSort(big, new DummyMetrics())::run);
+    }
+
+    private static void assertLevels(Graph g, ParallelTopologicalSort.Levels lv) {
+        int n = g.n();
+        assertEquals(n, lv.n());
+        int[] pos = new int[n];
+        int[] depth = new int[n];
+        int total = 0;
+        for (int l = 0; l < lv.levelCount(); l++) {
+            assertTrue(lv.width(l) > 0);
+            total += lv.width(l);
+            for (int i = lv.levelBegin(l); i < lv.levelEnd(l); i++) {
+                assertEquals(l, lv.level(lv.vertexAt(i)));
+                if (i > lv.levelBegin(l)) assertTrue(lv.vertexAt(i - 1) < lv.vertexAt(i));
+                pos[lv.vertexAt(i)] = i;
+            }
+        }
+        assertEquals(n, total);
+        // Longest-path depth computed sequentially over the returned order.
+        for (int i = 0; i < n; i++) {
+            int u = lv.vertexAt(i);
+            for (int e = g.out().begin(u); e < g.out().end(u); e++) {
+                int v = g.out().target(e);
+                assertTrue(pos[u] < pos[v], "edge " + u + "->" + v + " out of order");
+                depth[v] = Math.max(depth[v], depth[u] + 1);
+            }
+        }
+        for (int v = 0; v < n; v++) assertEquals(depth[v], lv.level(v));
+    }
+}
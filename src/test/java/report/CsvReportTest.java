@@ -0,0 +1,110 @@
+package report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvReportTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void typedCellsMatchMapRows() throws Exception {
+        Path a = dir.resolve("a.csv"), b = dir.resolve("b.csv");
+        List<String> headers = List.of("name", "n", "ok", "sizes", "one", "ratio", "empty");
+        try (CsvReport csv = new CsvReport(a, headers, true)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("name", "say \"hi\", bye");
+            row.put("n", 42L);
+            row.put("ok", true);
+            row.put("sizes", List.of(1, 2, 3));
+            row.put("one", new int[]{7});
+            row.put("ratio", 0.5);
+            row.put("empty", null);
+            csv.append(row);
+        }
+        try (CsvReport csv = new CsvReport(b, headers, true)) {
+            csv.open();
+            csv.append("say \"hi\", bye").append(42).append(true).append(new long[]{1, 2, 3})
+                    .append(new int[]{7}).append(0.5).append((CharSequence) null);
+            csv.endRow();
+        }
+        List<String> lines = Files.readAllLines(a);
+        assertEquals(List.of("name,n,ok,sizes,one,ratio,empty",
+                "\"say \"\"hi\"\", bye\",42,true,\"[1, 2, 3]\",[7],0.5,"), lines);
+        assertEquals(lines, Files.readAllLines(b));
+    }
+
+    @Test
+    void rejectsIncompleteRows() throws Exception {
+        try (CsvReport csv = new CsvReport(dir.resolve("c.csv"), List.of("x", "y"), true)) {
+            csv.open();
+            csv.append(1);
+            assertThrows(IllegalStateException.class, csv::endRow);
+            csv.append(1).append(2).endRow();
+        }
+        assertEquals(List.of("x,y", "1,2"), Files.readAllLines(dir.resolve("c.csv")));
+    }
+
+    @Test
+    void appendModeWritesHeaderOnce() throws Exception {
+        Path p = dir.resolve("d.csv");
+        for (int k = 0; k < 2; k++) {
+            try (CsvReport csv = new CsvReport(p, List.of("k"), false)) {
+                csv.append(Map.of("k", k));
+            }
+        }
+        assertEquals(List.of("k", "0", "1"), Files.readAllLines(p));
+    }
+
+    @Test
+    void rollsOnEncodedBytes() throws Exception {
+        CsvReport.Options o = new CsvReport.Options();
+        o.rollBytes = 64;
+        Path p = dir.resolve("u.csv");
+        // 10 chars of "é" are 20 UTF-8 bytes; counting chars would fit three such rows before rolling.
+        try (CsvReport csv = new CsvReport(p, List.of("s"), true, o)) {
+            for (int i = 0; i < 6; i++) csv.append("\u00e9".repeat(10)).endRow();
+        }
+        assertTrue(Files.size(p) >= 64);
+        assertTrue(Files.size(p) < 64 + 22, "rolled late: " + Files.size(p));
+    }
+
+    @Test
+    void gzipAndRollingOutput() throws Exception {
+        CsvReport.Options o = new CsvReport.Options();
+        o.gzip = true;
+        o.rollBytes = 100;
+        o.flushEveryRows = 10;
+        Path p = dir.resolve("e.csv.gz");
+        try (CsvReport csv = new CsvReport(p, List.of("i", "v"), true, o)) {
+            csv.open();
+            for (int i = 0; i < 100; i++) csv.append(i).append(new int[]{i, i}).endRow();
+            assertNotEquals(p, csv.currentPath());
+        }
+
+        List<Path> parts = new ArrayList<>();
+        parts.add(p);
+        for (int k = 1; Files.exists(dir.resolve("e-" + k + ".csv.gz")); k++) parts.add(dir.resolve("e-" + k + ".csv.gz"));
+        assertTrue(parts.size() > 5);
+        int next = 0;
+        for (Path part : parts) {
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(part)), StandardCharsets.UTF_8))) {
+                assertEquals("i,v", r.readLine());
+                for (String line; (line = r.readLine()) != null; next++) {
+                    assertEquals(next + ",\"[" + next + ", " + next + "]\"", line);
+                }
+            }
+        }
+        assertEquals(100, next);
+    }
+}
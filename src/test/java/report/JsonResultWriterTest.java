@@ -0,0 +1,56 @@
+package report;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonResultWriterTest {
+
+    @Test
+    void compactAndPrettyParseToSameDocument() throws Exception {
+        String compact = write(true);
+        String pretty = write(false);
+        assertEquals("[{\"file\":\"a \\\"b\\\"\\n.json\",\"n\":3,\"ok\":true,\"sizes\":[1,2,-3],"
+                + "\"dist\":[0,\"INF\",7],\"nested\":{\"members\":[[],[4]],\"none\":null}},{}]", compact);
+        assertTrue(pretty.contains("\n    \"n\": 3,"));
+        assertTrue(pretty.contains("\"sizes\": [1,2,-3]"));
+        assertEquals(new JSONArray(compact).toString(), new JSONArray(pretty).toString());
+
+        JSONObject first = new JSONArray(compact).getJSONObject(0);
+        assertEquals("a \"b\"\n.json", first.getString("file"));
+        assertEquals("INF", first.getJSONArray("dist").get(1));
+        assertTrue(first.getJSONObject("nested").isNull("none"));
+    }
+
+    @Test
+    void rejectsMisplacedNamesAndUnclosedContainers() throws Exception {
+        JsonResultWriter w = new JsonResultWriter(new ByteArrayOutputStream(), true);
+        w.beginArray();
+        assertThrows(IllegalStateException.class, () -> w.name("x"));
+        assertThrows(IllegalStateException.class, w::endObject);
+        assertThrows(IllegalStateException.class, w::close);
+    }
+
+    private static String write(boolean compact) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int[] members = {9, 4};
+        try (JsonResultWriter w = new JsonResultWriter(bytes, compact)) {
+            w.beginArray().beginObject()
+                    .field("file", "a \"b\"\n.json")
+                    .field("n", 3)
+                    .field("ok", true);
+            w.name("sizes").array(new int[]{1, 2, -3});
+            w.name("dist").array(new long[]{0, Long.MAX_VALUE, 7}, Long.MAX_VALUE, "INF");
+            w.name("nested").beginObject().name("members").beginArray();
+            w.array(i -> members[i], 0, 0).array(i -> members[i], 1, 2);
+            w.endArray().name("none").nullValue().endObject();
+            w.endObject().beginObject().endObject().endArray();
+        }
+        return bytes.toString(StandardCharsets.UTF_8).trim();
+    }
+}
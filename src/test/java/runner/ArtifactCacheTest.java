@@ -0,0 +1,53 @@
+package runner;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArtifactCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedWithinBudget() throws Exception {
+        ArtifactCache cache = new ArtifactCache(100);
+        cache.get("a", () -> "A", v -> 40);
+        cache.get("b", () -> "B", v -> 40);
+        cache.get("a", () -> fail("a should be cached"), v -> 40);
+        cache.get("c", () -> "C", v -> 40);
+
+        assertEquals(2, cache.size());
+        assertEquals(80, cache.usedBytes());
+        assertEquals(1, cache.evictions());
+        AtomicInteger reloads = new AtomicInteger();
+        assertEquals("B", cache.get("b", () -> { reloads.incrementAndGet(); return "B"; }, v -> 40));
+        assertEquals(1, reloads.get());
+        assertEquals("big", cache.get("big", () -> "big", v -> 1000));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        ArtifactCache cache = new ArtifactCache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] fs = new Future<?>[4];
+            for (int i = 0; i < fs.length; i++) {
+                fs[i] = pool.submit(() -> cache.get("k", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "v";
+                }, v -> 1));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<?> f : fs) assertEquals("v", f.get());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,181 @@
+package runner;
+
+import graph.core.Graph;
+import graph.dagsp.DagLongestPath;
+import graph.dagsp.DagShortestPaths;
+import graph.scc.KosarajuSCC;
+import graph.scc.SCCResult;
+import graph.topo.TopologicalSort;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import utils.GraphReader;
+import utils.Metrics;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphQueryServerTest {
+
+    private static GraphQueryServer.Running server;
+    private static final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void start() throws Exception {
+        server = new GraphQueryServer(Path.of("data"), 1 << 20).start(new InetSocketAddress("127.0.0.1", 0), 4);
+    }
+
+    @AfterAll
+    static void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void stopAlsoStopsWorkerThreads() throws Exception {
+        long before = queryThreads();
+        try (GraphQueryServer.Running other = new GraphQueryServer(Path.of("data"), 1 << 20)
+                .start(new InetSocketAddress("127.0.0.1", 0), 2)) {
+            HttpRequest req = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + other.address().getPort() + "/graphs")).build();
+            assertEquals(200, client.send(req, HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertTrue(queryThreads() > before);
+        }
+        for (int i = 0; i < 100 && queryThreads() > before; i++) Thread.sleep(20);
+        assertEquals(before, queryThreads());
+    }
+
+    @Test
+    void reachabilityIndexIsBuiltOnFirstReachQuery() throws Exception {
+        try (GraphQueryServer.Running other = new GraphQueryServer(Path.of("data"), 1 << 20)
+                .start(new InetSocketAddress("127.0.0.1", 0), 1)) {
+            String base = "http://127.0.0.1:" + other.address().getPort();
+            send(base + "/scc?graph=medium_cyclic&v=0");
+            send(base + "/topo?graph=medium_cyclic&v=0");
+            JSONObject before = new JSONObject(send(base + "/stats")).getJSONObject("cache");
+            assertEquals(1, before.getInt("entries"));
+            send(base + "/reach?graph=medium_cyclic&u=0&v=1");
+            JSONObject after = new JSONObject(send(base + "/stats")).getJSONObject("cache");
+            assertEquals(2, after.getInt("entries"));
+            assertTrue(after.getLong("bytes") > before.getLong("bytes"));
+        }
+    }
+
+    private static String send(String url) throws Exception {
+        HttpResponse<String> r = client.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, r.statusCode(), r.body());
+        return r.body();
+    }
+
+    private static long queryThreads() {
+        return Thread.getAllStackTraces().keySet().stream().filter(t -> t.getName().equals("graph-query")).count();
+    }
+
+    @Test
+    void answersSccQueries() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/large_multi_scc.json"));
+        SCCResult scc = new KosarajuSCC(g, Metrics.NOOP).run();
+        for (int v = 0; v < g.n(); v++) {
+            JSONObject r = get("/scc?graph=large_multi_scc&members&v=" + v, 200);
+            assertEquals(scc.getCount(), r.getInt("components"));
+            assertEquals(scc.size(scc.componentOf(v)), r.getInt("size"));
+            assertTrue(r.getJSONArray("members").toList().contains(v));
+            JSONObject t = get("/topo?graph=large_multi_scc&v=" + v, 200);
+            assertFalse(t.getBoolean("dag"));
+            assertTrue(t.isNull("position"));
+        }
+        assertEquals(409, status("/distance?graph=large_multi_scc&s=0&t=1"));
+    }
+
+    @Test
+    void answersReachQueries() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/medium_multi_scc.json"));
+        SCCResult scc = new KosarajuSCC(g, Metrics.NOOP).run();
+        for (int u = 0; u < g.n(); u += 3) {
+            boolean[] seen = new boolean[g.n()];
+            Deque<Integer> stack = new ArrayDeque<>(List.of(u));
+            seen[u] = true;
+            while (!stack.isEmpty()) {
+                int x = stack.pop();
+                for (int i = g.out().begin(x); i < g.out().end(x); i++)
+                    if (!seen[g.out().target(i)]) { seen[g.out().target(i)] = true; stack.push(g.out().target(i)); }
+            }
+            for (int v = 0; v < g.n(); v++) {
+                JSONObject r = get("/reach?graph=medium_multi_scc&u=" + u + "&v=" + v, 200);
+                assertEquals(seen[v], r.getBoolean("reachable"), u + " -> " + v);
+                assertEquals(scc.componentOf(u) == scc.componentOf(v), r.getBoolean("same_component"));
+            }
+        }
+        assertEquals(400, status("/reach?graph=medium_multi_scc&u=0"));
+    }
+
+    @Test
+    void answersDistanceAndTopoQueriesConcurrently() throws Exception {
+        Graph g = GraphReader.fromJsonFile(Path.of("data/medium_dag.json"));
+        List<Integer> order = new TopologicalSort(g, Metrics.NOOP).run();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int s = 0; s < g.n(); s++) {
+                int src = s;
+                futures.add(pool.submit(() -> {
+                    DagShortestPaths.Result sp = new DagShortestPaths(g, Metrics.NOOP).run(order, src);
+                    DagLongestPath.Result lp = new DagLongestPath(g, Metrics.NOOP).run(order, src);
+                    for (int t = 0; t < g.n(); t++) {
+                        JSONObject a = get("/distance?graph=medium_dag&s=" + src + "&t=" + t, 200);
+                        JSONObject b = get("/distance?graph=medium_dag&kind=longest&s=" + src + "&t=" + t, 200);
+                        if (sp.dist[t] == Long.MAX_VALUE) assertTrue(a.isNull("distance"));
+                        else assertEquals(sp.dist[t], a.getLong("distance"));
+                        if (lp.best[t] == Long.MIN_VALUE / 2) assertTrue(b.isNull("distance"));
+                        else assertEquals(lp.best[t], b.getLong("distance"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        int[] pos = new int[g.n()];
+        for (int v = 0; v < g.n(); v++) pos[v] = get("/topo?graph=medium_dag&v=" + v, 200).getInt("position");
+        for (var e : g.edges()) assertTrue(pos[e.u] < pos[e.v]);
+    }
+
+    @Test
+    void reportsErrorsAndLatency() throws Exception {
+        assertEquals(404, status("/scc?graph=nope&v=0"));
+        assertEquals(400, status("/scc?graph=small_dag&v=99"));
+        assertEquals(400, status("/scc?graph=small_dag"));
+        assertEquals(400, status("/scc?graph=..%2Fpom&v=0"));
+        assertEquals(400, status("/distance?graph=small_dag&s=0&t=1&kind=widest"));
+        assertTrue(get("/graphs", 200).getJSONArray("graphs").toList().contains("small_dag"));
+
+        JSONObject stats = get("/stats", 200);
+        JSONObject scc = stats.getJSONObject("latency").getJSONObject("/scc");
+        assertTrue(scc.getLong("count") >= 4);
+        assertTrue(scc.getLong("p99_ns") >= scc.getLong("p50_ns"));
+        assertTrue(stats.getJSONObject("cache").getLong("bytes") > 0);
+    }
+
+    private static int status(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString()).statusCode();
+    }
+
+    private static JSONObject get(String path, int expected) throws Exception {
+        HttpResponse<String> r = client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(expected, r.statusCode(), r.body());
+        return new JSONObject(r.body());
+    }
+
+    private static URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.address().getPort() + path);
+    }
+}
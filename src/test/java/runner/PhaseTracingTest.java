@@ -0,0 +1,60 @@
+package runner;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import report.JsonResultWriter;
+import utils.PhaseTracer;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhaseTracingTest {
+
+    @Test
+    void recordsEveryPipelinePhase() throws Exception {
+        FileResult dag = MainGraphRunner.compute(Path.of("data/medium_dag.json"));
+        assertEquals(List.of("parse", "build", "scc", "condense", "topo_condensed", "topo", "dag_sp", "dag_lp"), names(dag.trace));
+        FileResult cyclic = MainGraphRunner.compute(Path.of("data/medium_cyclic.json"));
+        assertEquals(List.of("parse", "build", "scc", "condense", "topo_condensed"), names(cyclic.trace));
+        for (PhaseTracer.Phase p : dag.trace.phases()) {
+            assertTrue(p.wallNs() >= 0, p.name());
+            assertTrue(p.cpuNs() >= -1 && p.allocatedBytes() >= -1, p.name());
+        }
+
+        // Streaming the entry adds a "report" phase, and the whole breakdown lands in JSON and CSV.
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonResultWriter w = new JsonResultWriter(bytes, true)) {
+            dag.writeJson(w);
+        }
+        JSONObject phases = new JSONObject(bytes.toString()).getJSONObject("phases");
+        assertEquals(9, phases.length());
+        assertTrue(phases.getJSONObject("report").getLong("wall_ns") >= 0);
+        assertTrue(phases.getJSONObject("parse").has("alloc_bytes"));
+
+        Map<String, Object> row = dag.toCsvRow();
+        assertTrue(row.keySet().containsAll(FileResult.PHASE_COLUMNS));
+        assertEquals(dag.trace.get("scc").wallNs(), row.get("scc_wall_ns"));
+        assertEquals("", row.get("cache_wall_ns"));
+        assertEquals("", cyclic.toCsvRow().get("dag_sp_wall_ns"));
+    }
+
+    @Test
+    void repeatedPhaseAccumulates() {
+        PhaseTracer t = new PhaseTracer("x");
+        t.phase("a");
+        t.phase("b");
+        t.phase("a");
+        t.end();
+        t.end();
+        assertEquals(List.of("a", "b"), names(t));
+        assertNull(t.get("c"));
+    }
+
+    private static List<String> names(PhaseTracer t) {
+        return t.phases().stream().map(PhaseTracer.Phase::name).toList();
+    }
+}
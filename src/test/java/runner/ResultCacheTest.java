@@ -0,0 +1,156 @@
+package runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import report.JsonResultWriter;
+import utils.BinaryGraphFormat;
+import utils.GraphReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsEveryDatasetResult() throws Exception {
+        ResultCache cache = new ResultCache(dir.resolve("cache"), 1 << 20, "test");
+        for (String name : new String[]{"small_dag", "large_multi_scc", "large_dag"}) {
+            Path input = Path.of("data/" + name + ".json");
+            FileResult computed = MainGraphRunner.compute(input);
+            computed.trace = null; // phases describe one run and are never cached
+            String key = cache.key(input);
+            assertNull(cache.get(key, input.getFileName().toString()));
+            cache.put(key, computed);
+
+            FileResult cached = cache.get(key, input.getFileName().toString());
+            assertNotNull(cached);
+            assertEquals(json(computed), json(cached));
+            assertEquals(csv(computed), csv(cached));
+        }
+        assertEquals(3, cache.hits());
+    }
+
+    @Test
+    void keyDependsOnContentAndSalt() throws Exception {
+        Path a = Files.writeString(dir.resolve("a.json"), "{\"n\":1}");
+        Path b = Files.writeString(dir.resolve("b.json"), "{\"n\":1}");
+        Path c = Files.writeString(dir.resolve("c.json"), "{\"n\":2}");
+        ResultCache v1 = new ResultCache(dir, 1 << 20, "v1");
+        assertEquals(v1.key(a), v1.key(b));
+        assertNotEquals(v1.key(a), v1.key(c));
+        assertNotEquals(v1.key(a), new ResultCache(dir, 1 << 20, "v2").key(a));
+    }
+
+    @Test
+    void dagSuffixIsPartOfTheKey() throws Exception {
+        Path cacheDir = dir.resolve("names");
+        Path plain = Files.copy(Path.of("data/small_dag.json"), dir.resolve("x.json"));
+        Path dag = Files.copy(plain, dir.resolve("x_dag.json"));
+        ResultCache cache = new ResultCache(cacheDir, 1 << 20, "v1");
+        assertNotEquals(cache.key(plain), cache.key(dag));
+
+        FileResult first = MainGraphRunner.compute(plain);
+        assertFalse(first.dag);
+        cache.put(cache.key(plain), first);
+        assertNull(cache.get(cache.key(dag), "x_dag.json"));
+        assertTrue(MainGraphRunner.compute(dag).dag);
+    }
+
+    @Test
+    void failureWithoutMessageIsNotCached() throws Exception {
+        Path input = Path.of("data/small_dag.json");
+        ResultCache cache = new ResultCache(dir.resolve("fail"), 1 << 20, "v1");
+        FileResult r = MainGraphRunner.processFile(input, cache, (path, trace, out) -> {
+            out.loaded = true;
+            throw new IllegalStateException();
+        });
+        assertEquals("java.lang.IllegalStateException", r.error);
+        assertNull(cache.get(cache.key(input), "small_dag.json"));
+        assertFalse(Files.exists(dir.resolve("fail")));
+    }
+
+    @Test
+    void staleBinaryIsSkippedInFavourOfJson() throws Exception {
+        Path data = Files.createDirectories(dir.resolve("data"));
+        Path json = Files.copy(Path.of("data/small_dag.json"), data.resolve("g_dag.json"));
+        Path bin = GraphReader.binarySibling(json);
+        BinaryGraphFormat.write(GraphReader.fromJsonFile(json), bin);
+        Files.setLastModifiedTime(json, FileTime.fromMillis(1_000_000));
+        Files.setLastModifiedTime(bin, FileTime.fromMillis(2_000_000));
+        assertEquals(List.of(bin), MainGraphRunner.listGraphFiles(data));
+
+        Files.setLastModifiedTime(json, FileTime.fromMillis(3_000_000));
+        assertEquals(List.of(json), MainGraphRunner.listGraphFiles(data));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() throws Exception {
+        Path cacheDir = dir.resolve("lru");
+        FileResult r = MainGraphRunner.compute(Path.of("data/small_dag.json"));
+        ResultCache probe = new ResultCache(cacheDir, Long.MAX_VALUE, "x");
+        probe.put("a", r);
+        long entry = Files.size(cacheDir.resolve("a.res"));
+
+        ResultCache cache = new ResultCache(cacheDir, 2 * entry, "x");
+        Files.setLastModifiedTime(cacheDir.resolve("a.res"), FileTime.fromMillis(1_000));
+        cache.put("b", r);
+        Files.setLastModifiedTime(cacheDir.resolve("b.res"), FileTime.fromMillis(2_000));
+        assertNotNull(cache.get("a", "small_dag.json"));
+        cache.put("c", r);
+
+        assertTrue(Files.exists(cacheDir.resolve("a.res")));
+        assertFalse(Files.exists(cacheDir.resolve("b.res")));
+        assertTrue(Files.exists(cacheDir.resolve("c.res")));
+    }
+
+    @Test
+    void corruptEntryIsAMiss() throws Exception {
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("bad.res"), new byte[]{1, 2, 3});
+        ResultCache cache = new ResultCache(dir, 1 << 20, "x");
+        assertNull(cache.get("bad", "bad.json"));
+        assertFalse(Files.exists(dir.resolve("bad.res")));
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void oversizedArrayLengthIsAMiss() throws Exception {
+        Files.createDirectories(dir);
+        Path p = dir.resolve("huge.res");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(p))) {
+            out.writeInt(0x43524753);
+            out.writeInt(3);
+            out.writeInt(2);
+            out.writeBoolean(true);
+            out.writeBoolean(true);
+            out.writeInt(1);
+            out.writeInt(Integer.MAX_VALUE - 16); // sccSizes length far beyond the file
+        }
+        ResultCache cache = new ResultCache(dir, 1 << 20, "x");
+        assertNull(cache.get("huge", "huge.json"));
+        assertFalse(Files.exists(p));
+    }
+
+    private static String csv(FileResult r) {
+        StringBuilder sb = new StringBuilder();
+        for (Object v : r.toCsvRow().values()) sb.append(v instanceof int[] a ? Arrays.toString(a) : v).append('|');
+        return sb.toString();
+    }
+
+    private static String json(FileResult r) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonResultWriter w = new JsonResultWriter(bytes, true)) {
+            r.writeJson(w);
+        }
+        return bytes.toString();
+    }
+}